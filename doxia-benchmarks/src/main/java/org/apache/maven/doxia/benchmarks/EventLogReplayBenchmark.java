@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.doxia.benchmarks.TestDocuments.TestDocument;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.apache.maven.doxia.sink.impl.SinkEventLogReader;
+import org.apache.maven.doxia.sink.impl.SinkEventLogWriter;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The render half of {@link ParseRenderBenchmark}: the documents of the source format {@link #parserId} are parsed
+ * once per trial into {@link SinkEventLogWriter Sink event logs}, which are then replayed into the sink selected by
+ * {@link #sinkId}. Compare with the same parameters of {@link ParseRenderBenchmark} to get the cost of parsing.
+ *
+ * @since 2.1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventLogReplayBenchmark {
+
+    /** The role hint of the parser producing the logs. */
+    @Param({"apt", "markdown"})
+    private String parserId;
+
+    /** The role hint of the sink factory under test, <code>null</code> for a {@link SinkAdapter} discarding all events. */
+    @Param({"xhtml", "markdown", "apt", "null"})
+    private String sinkId;
+
+    private PlexusContainer container;
+
+    private SinkFactory sinkFactory;
+
+    private List<byte[]> logs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ContainerConfiguration configuration = new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true);
+        container = new DefaultPlexusContainer(configuration);
+
+        Parser parser = container.lookup(Parser.class, parserId);
+        sinkFactory = "null".equals(sinkId) ? null : container.lookup(SinkFactory.class, sinkId);
+        List<TestDocument> documents =
+                "apt".equals(parserId) ? TestDocuments.load("apt", "apt") : TestDocuments.load("markdown", "md");
+        logs = new ArrayList<>();
+        for (TestDocument document : documents) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (SinkEventLogWriter writer = new SinkEventLogWriter(out)) {
+                parser.parse(new StringReader(document.getContent()), writer, document.getName());
+            }
+            logs.add(out.toByteArray());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        container.dispose();
+    }
+
+    @Benchmark
+    public long replayAndRender() throws IOException {
+        CountingOutputStream out = new CountingOutputStream(NullOutputStream.INSTANCE);
+        for (byte[] log : logs) {
+            // the log ends with the close event
+            Sink sink = sinkFactory == null ? new SinkAdapter() : sinkFactory.createSink(out);
+            new SinkEventLogReader(new ByteArrayInputStream(log)).replay(sink);
+        }
+        return out.getByteCount();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.benchmarks.TestDocuments.TestDocument;
+import org.apache.maven.doxia.module.markdown.MarkdownParser;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses the Markdown documents of the <code>doxia-test-docs</code> corpus into a {@link SinkAdapter}, either
+ * through the intermediate HTML or with {@link MarkdownParser#setDirectRendering(boolean) direct rendering}.
+ *
+ * @since 2.1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownRenderingBenchmark {
+
+    /** Whether Sink events are emitted directly from the flexmark document tree. */
+    @Param({"false", "true"})
+    private boolean directRendering;
+
+    private PlexusContainer container;
+
+    private MarkdownParser parser;
+
+    private List<TestDocument> documents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ContainerConfiguration configuration = new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true);
+        container = new DefaultPlexusContainer(configuration);
+
+        parser = (MarkdownParser) container.lookup(Parser.class, "markdown");
+        parser.setDirectRendering(directRendering);
+        documents = TestDocuments.load("markdown", "md");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        container.dispose();
+    }
+
+    @Benchmark
+    public void parse() throws ParseException {
+        for (TestDocument document : documents) {
+            parser.parse(new StringReader(document.getContent()), new SinkAdapter(), document.getName());
+        }
+    }
+}
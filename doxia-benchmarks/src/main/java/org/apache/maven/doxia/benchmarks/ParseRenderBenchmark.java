@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.doxia.benchmarks.TestDocuments.TestDocument;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole Doxia pipeline: every document of the <code>doxia-test-docs</code> corpus written in the
+ * source format of {@link #parserId} is parsed and its events rendered by the sink selected by {@link #sinkId}.
+ * One benchmark operation is one pass over all documents of that format.
+ * <p>
+ * The XHTML5 corpus has no sources of its own: it is produced once per trial by rendering all other documents
+ * through the XHTML5 sink. Rendered documents which are not well-formed enough to be parsed again are left out.
+ * <p>
+ * Run with {@link BenchmarkRunner} to get the allocation rate from the GC profiler next to the throughput.
+ *
+ * @since 2.1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseRenderBenchmark {
+
+    /** The role hint of the parser under test. */
+    @Param({"apt", "markdown", "xdoc", "fml", "xhtml"})
+    private String parserId;
+
+    /** The role hint of the sink factory under test, <code>null</code> for a {@link SinkAdapter} discarding all events. */
+    @Param({"xhtml", "markdown", "apt", "null"})
+    private String sinkId;
+
+    private PlexusContainer container;
+
+    private Parser parser;
+
+    private SinkFactory sinkFactory;
+
+    private List<TestDocument> documents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ContainerConfiguration configuration = new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true);
+        container = new DefaultPlexusContainer(configuration);
+
+        parser = container.lookup(Parser.class, parserId);
+        sinkFactory = "null".equals(sinkId) ? null : container.lookup(SinkFactory.class, sinkId);
+        documents = loadDocuments(parserId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        container.dispose();
+    }
+
+    @Benchmark
+    public long parseAndRender() throws IOException, ParseException {
+        CountingOutputStream out = new CountingOutputStream(NullOutputStream.INSTANCE);
+        for (TestDocument document : documents) {
+            Sink sink = sinkFactory == null ? new SinkAdapter() : sinkFactory.createSink(out);
+            parser.parse(new StringReader(document.getContent()), sink, document.getName());
+            sink.close();
+        }
+        // returned to the black hole so that the rendering cannot be optimized away
+        return out.getByteCount();
+    }
+
+    private List<TestDocument> loadDocuments(String id) throws Exception {
+        switch (id) {
+            case "apt":
+                return TestDocuments.load("apt", "apt");
+            case "markdown":
+                return TestDocuments.load("markdown", "md");
+            case "xdoc":
+                return TestDocuments.load("xdoc", "xml");
+            case "fml":
+                return TestDocuments.load("fml", "fml");
+            case "xhtml":
+                return renderXhtmlDocuments();
+            default:
+                throw new IllegalArgumentException("Unsupported parser: " + id);
+        }
+    }
+
+    private List<TestDocument> renderXhtmlDocuments() throws Exception {
+        SinkFactory xhtmlSinkFactory = container.lookup(SinkFactory.class, "xhtml");
+        Parser xhtmlParser = container.lookup(Parser.class, "xhtml");
+        List<TestDocument> xhtmlDocuments = new ArrayList<>();
+        for (String id : new String[] {"apt", "markdown", "xdoc", "fml"}) {
+            Parser sourceParser = container.lookup(Parser.class, id);
+            for (TestDocument document : loadDocuments(id)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Sink sink = xhtmlSinkFactory.createSink(out, StandardCharsets.UTF_8.name());
+                sourceParser.parse(new StringReader(document.getContent()), sink, document.getName());
+                sink.close();
+                String xhtml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+                try {
+                    xhtmlParser.parse(new StringReader(xhtml), new SinkAdapter());
+                } catch (ParseException e) {
+                    continue;
+                }
+                xhtmlDocuments.add(new TestDocument(document.getName() + ".html", xhtml));
+            }
+        }
+        return xhtmlDocuments;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Loads the source documents shipped in the <code>doxia-test-docs</code> artifact, either from its jar
+ * (or the shaded benchmark jar) or from an exploded directory when run from a reactor build or an IDE.
+ *
+ * @since 2.1.1
+ */
+final class TestDocuments {
+
+    /** A resource known to be part of <code>doxia-test-docs</code>, used to locate its root. */
+    private static final String ANCHOR_RESOURCE = "doxia-site/xdoc/references/index.xml";
+
+    private TestDocuments() {
+        // utility class
+    }
+
+    /**
+     * A source document of the corpus.
+     */
+    static final class TestDocument {
+        private final String name;
+
+        private final String content;
+
+        TestDocument(String name, String content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Loads all documents written in the given source format, sorted by name.
+     *
+     * @param directory the directory name used by the format in a site layout, i.e. <code>apt</code>,
+     *        <code>markdown</code>, <code>fml</code> or <code>xdoc</code>.
+     * @param extension the file extension of the format, without the dot.
+     * @return the matching documents, never empty.
+     * @throws IOException if the documents cannot be read.
+     */
+    static List<TestDocument> load(String directory, String extension) throws IOException {
+        String dirSegment = "/" + directory + "/";
+        String suffix = "." + extension;
+        List<TestDocument> documents = new ArrayList<>();
+        for (String name : listResources()) {
+            if (("/" + name).contains(dirSegment) && name.toLowerCase(Locale.ENGLISH).endsWith(suffix)) {
+                try (InputStream in = getClassLoader().getResourceAsStream(name)) {
+                    documents.add(new TestDocument(name, IOUtils.toString(in, StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        if (documents.isEmpty()) {
+            throw new IllegalStateException("No '" + suffix + "' document found in doxia-test-docs");
+        }
+        Collections.sort(documents, (d1, d2) -> d1.getName().compareTo(d2.getName()));
+        return documents;
+    }
+
+    private static List<String> listResources() throws IOException {
+        URL anchor = getClassLoader().getResource(ANCHOR_RESOURCE);
+        if (anchor == null) {
+            throw new IllegalStateException(
+                    "Could not find the Doxia test documents artefact i.e. doxia-test-docs-XXX.jar");
+        }
+
+        List<String> names = new ArrayList<>();
+        if ("jar".equals(anchor.getProtocol())) {
+            JarFile jarFile = ((JarURLConnection) anchor.openConnection()).getJarFile();
+            for (Enumeration<JarEntry> e = jarFile.entries(); e.hasMoreElements(); ) {
+                JarEntry entry = e.nextElement();
+                if (!entry.isDirectory() && !entry.getName().startsWith("META-INF")) {
+                    names.add(entry.getName());
+                }
+            }
+        } else {
+            try {
+                Path anchorPath = new File(anchor.toURI()).toPath();
+                Path root = anchorPath;
+                for (int i = 0; i < ANCHOR_RESOURCE.split("/").length; i++) {
+                    root = root.getParent();
+                }
+                final Path base = root;
+                try (Stream<Path> files = Files.walk(base)) {
+                    names.addAll(files.filter(Files::isRegularFile)
+                            .map(p -> base.relativize(p).toString().replace(File.separatorChar, '/'))
+                            .collect(Collectors.toList()));
+                }
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid test documents location " + anchor, e);
+            }
+        }
+        return names;
+    }
+
+    private static ClassLoader getClassLoader() {
+        return TestDocuments.class.getClassLoader();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Converts many documents at once, using several threads.
+ *
+ * @since 2.1.1
+ */
+public interface BatchConverter {
+
+    /**
+     * Converts all given documents concurrently, each one with a parser of its own.
+     * Errors do not stop the conversion of the other documents, they are collected in the results.
+     *
+     * @param jobs the documents to convert
+     * @param executor the executor running the conversions, e.g. a virtual thread executor with Java 21 or later,
+     *  or {@code null} for a pool with one thread per available processor, created for this batch only
+     * @param listener notified of each completed job, in the order of the jobs, may be {@code null}
+     * @return the results, in the order of the jobs
+     * @throws InterruptedException if the current thread is interrupted while waiting for the conversions
+     */
+    List<ConversionResult> convert(Collection<ConversionJob> jobs, Executor executor, ConversionListener listener)
+            throws InterruptedException;
+}
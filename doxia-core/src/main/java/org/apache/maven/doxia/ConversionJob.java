@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.apache.maven.doxia.sink.SinkFactory;
+
+/**
+ * A document to convert with {@link BatchConverter}: a source file, parsed by the parser with the given id,
+ * and rendered into an output file by the sink created by the given factory.
+ *
+ * @since 2.1.1
+ */
+public final class ConversionJob {
+    private final File source;
+
+    private final String sourceEncoding;
+
+    private final String parserId;
+
+    private final SinkFactory sinkFactory;
+
+    private final File output;
+
+    private final String outputEncoding;
+
+    /**
+     * Creates a job reading and writing UTF-8 files.
+     *
+     * @param source the source document
+     * @param parserId the id of the parser to use, or {@code null} to use the parser of the
+     *  {@link org.apache.maven.doxia.parser.module.ParserModule ParserModule} supporting the extension of the source
+     * @param sinkFactory the factory of the sink rendering the document
+     * @param output the output file
+     */
+    public ConversionJob(File source, String parserId, SinkFactory sinkFactory, File output) {
+        this(
+                source,
+                StandardCharsets.UTF_8.name(),
+                parserId,
+                sinkFactory,
+                output,
+                StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @param source the source document
+     * @param sourceEncoding the encoding of the source document
+     * @param parserId the id of the parser to use, or {@code null} to use the parser of the
+     *  {@link org.apache.maven.doxia.parser.module.ParserModule ParserModule} supporting the extension of the source
+     * @param sinkFactory the factory of the sink rendering the document
+     * @param output the output file
+     * @param outputEncoding the encoding of the output file
+     */
+    public ConversionJob(
+            File source,
+            String sourceEncoding,
+            String parserId,
+            SinkFactory sinkFactory,
+            File output,
+            String outputEncoding) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.sourceEncoding = Objects.requireNonNull(sourceEncoding, "sourceEncoding");
+        this.parserId = parserId;
+        this.sinkFactory = Objects.requireNonNull(sinkFactory, "sinkFactory");
+        this.output = Objects.requireNonNull(output, "output");
+        this.outputEncoding = Objects.requireNonNull(outputEncoding, "outputEncoding");
+    }
+
+    public File getSource() {
+        return source;
+    }
+
+    public String getSourceEncoding() {
+        return sourceEncoding;
+    }
+
+    /**
+     * @return the id of the parser to use, or {@code null} if it is selected by the extension of the source
+     */
+    public String getParserId() {
+        return parserId;
+    }
+
+    public SinkFactory getSinkFactory() {
+        return sinkFactory;
+    }
+
+    public File getOutput() {
+        return output;
+    }
+
+    public String getOutputEncoding() {
+        return outputEncoding;
+    }
+
+    @Override
+    public String toString() {
+        return source + " -> " + output;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia;
+
+/**
+ * Receives the progress of a {@link BatchConverter}.
+ *
+ * @since 2.1.1
+ */
+@FunctionalInterface
+public interface ConversionListener {
+
+    /**
+     * Called once per job, serially and in the order of the jobs, as soon as the job and all jobs before
+     * it are completed.
+     *
+     * @param result the result of the job
+     * @param completed the number of jobs completed so far, including this one
+     * @param total the total number of jobs
+     */
+    void jobCompleted(ConversionResult result, int completed, int total);
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia;
+
+/**
+ * The outcome of a {@link ConversionJob}.
+ *
+ * @since 2.1.1
+ */
+public final class ConversionResult {
+    private final ConversionJob job;
+
+    private final Throwable error;
+
+    ConversionResult(ConversionJob job, Throwable error) {
+        this.job = job;
+        this.error = error;
+    }
+
+    public ConversionJob getJob() {
+        return job;
+    }
+
+    /**
+     * @return {@code true} if the document has been converted
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the reason why the document could not be converted, typically a
+     * {@link org.apache.maven.doxia.parser.ParseException ParseException},
+     * a {@link org.apache.maven.doxia.parser.manager.ParserNotFoundException ParserNotFoundException}
+     * or an {@link java.io.IOException IOException}, but also an {@link Error} thrown while converting the document.
+     *
+     * @return the error, or {@code null} if the document has been converted
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return job + (error == null ? ": converted" : ": " + error);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.manager.ParserManager;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Simple implementation of the BatchConverter interface: each document is parsed by a
+ * {@link ParserManager#createParser(String) parser of its own}.
+ *
+ * @since 2.1.1
+ */
+@Singleton
+@Named
+public class DefaultBatchConverter implements BatchConverter {
+    @Inject
+    private ParserManager parserManager;
+
+    @Inject
+    private ParserModuleManager parserModuleManager;
+
+    @Override
+    public List<ConversionResult> convert(
+            Collection<ConversionJob> jobs, Executor executor, ConversionListener listener)
+            throws InterruptedException {
+        ExecutorService ownExecutor = null;
+        Executor effectiveExecutor = executor;
+        if (effectiveExecutor == null) {
+            ownExecutor = Executors.newFixedThreadPool(
+                    Math.max(1, Math.min(jobs.size(), Runtime.getRuntime().availableProcessors())));
+            effectiveExecutor = ownExecutor;
+        }
+        try {
+            Batch batch = new Batch(jobs, listener);
+            for (int i = 0; i < batch.jobs.size(); i++) {
+                int index = i;
+                try {
+                    effectiveExecutor.execute(() -> batch.run(index));
+                } catch (RejectedExecutionException e) {
+                    batch.complete(index, e);
+                }
+            }
+            return batch.await();
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void convert(ConversionJob job) throws ParserNotFoundException, ParseException, IOException {
+        String parserId = job.getParserId() != null ? job.getParserId() : getParserId(job.getSource());
+        Parser parser = parserManager.createParser(parserId);
+
+        File output = job.getOutput().getAbsoluteFile();
+        Files.createDirectories(output.getParentFile().toPath());
+        try (Reader reader =
+                        new InputStreamReader(Files.newInputStream(job.getSource().toPath()), job.getSourceEncoding());
+                Sink sink = job.getSinkFactory()
+                        .createSink(output.getParentFile(), output.getName(), job.getOutputEncoding())) {
+            parser.parse(reader, sink, job.getSource().getPath());
+        }
+    }
+
+    private String getParserId(File source) throws ParserNotFoundException {
+        String name = source.getName().toLowerCase(Locale.ROOT);
+        for (ParserModule module : parserModuleManager.getParserModules()) {
+            for (String extension : module.getExtensions()) {
+                if (name.endsWith('.' + extension.toLowerCase(Locale.ROOT))) {
+                    return module.getParserId();
+                }
+            }
+        }
+        throw new ParserNotFoundException("Cannot find parser module for '" + source.getName() + "'");
+    }
+
+    /**
+     * The state of one call to {@link #convert(Collection, Executor, ConversionListener)}.
+     */
+    private class Batch {
+        private final List<ConversionJob> jobs;
+
+        private final ConversionListener listener;
+
+        private final ConversionResult[] results;
+
+        private final CountDownLatch remaining;
+
+        /** The index of the next result to report to the listener, guarded by this. */
+        private int nextReported;
+
+        Batch(Collection<ConversionJob> jobs, ConversionListener listener) {
+            this.jobs = new ArrayList<>(jobs);
+            this.listener = listener;
+            this.results = new ConversionResult[this.jobs.size()];
+            this.remaining = new CountDownLatch(this.jobs.size());
+        }
+
+        void run(int index) {
+            Throwable error = null;
+            try {
+                convert(jobs.get(index));
+            } catch (Exception e) {
+                error = e;
+            } catch (Error e) {
+                // reported as a failure of the job, but still fatal for the thread
+                error = e;
+                throw e;
+            } finally {
+                complete(index, error);
+            }
+        }
+
+        void complete(int index, Throwable error) {
+            try {
+                report(index, new ConversionResult(jobs.get(index), error));
+            } finally {
+                remaining.countDown();
+            }
+        }
+
+        private synchronized void report(int index, ConversionResult result) {
+            results[index] = result;
+            while (nextReported < results.length && results[nextReported] != null) {
+                ConversionResult next = results[nextReported++];
+                if (listener != null) {
+                    listener.jobCompleted(next, nextReported, results.length);
+                }
+            }
+        }
+
+        List<ConversionResult> await() throws InterruptedException {
+            remaining.await();
+            synchronized (this) {
+                return Arrays.asList(results.clone());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * A macro which may be executed while the document is still being parsed, typically because it waits for I/O.
+ * If the parser {@link org.apache.maven.doxia.parser.AbstractParser#setMacroConcurrency(int) allows it}, the events
+ * of the macro are recorded and take their place in the document once the macro is complete.
+ * <p>
+ * An asynchronous macro may be executed by several threads at the same time, and must not use the parser of the
+ * request in a way depending on its current state.
+ *
+ * @see DeferredMacroSink
+ * @since 2.1.1
+ */
+public interface AsyncMacro extends Macro {
+
+    /**
+     * Execute the current macro using the given MacroRequest in the background,
+     * and emit events into the given sink. The sink is only used by this execution.
+     * By default, {@link #execute(Sink, MacroRequest)} is run by the given executor.
+     *
+     * @param sink The sink to receive the events.
+     * @param request The corresponding MacroRequest.
+     * @param executor The executor to run the macro with.
+     * @return The future completed once all the events are emitted, exceptionally with a
+     * {@link MacroExecutionException} if an error occurred during execution.
+     */
+    default CompletableFuture<Void> executeAsync(Sink sink, MacroRequest request, Executor executor) {
+        return CompletableFuture.runAsync(
+                () -> {
+                    try {
+                        execute(sink, request);
+                    } catch (MacroExecutionException e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                executor);
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventTape;
+import org.apache.maven.doxia.sink.impl.SinkWrapper;
+
+/**
+ * Sink wrapper which lets {@link AsyncMacro asynchronous macros} run while the parser goes on.
+ * The events of each macro are recorded, as well as the events following it, up to the next macro. When the body
+ * ends, and before the sink is flushed or closed, the recordings are written in document order, waiting for each
+ * macro in turn.
+ * <p>
+ * This wrapper is the outermost one of the pipeline, so that the events of the macros go through all the other
+ * wrappers. A macro failure is reported by {@link #complete()}, which the parser calls once the document is parsed,
+ * as a {@link ParseException} located at the macro. The events following the failed macro are dropped. If the sink
+ * is flushed or closed before, the failure is reported as an {@link IllegalStateException} whose cause is the
+ * {@link MacroExecutionException}. The macros following a failed one are cancelled, as are all the pending
+ * macros once {@link #cancel()} is called by a parser which fails.
+ * <p>
+ * The macros of all the sinks are run by a shared pool of at most {@link #MAX_THREADS} threads, further macros
+ * waiting for a thread.
+ *
+ * @since 2.1.1
+ */
+public class DeferredMacroSink extends SinkWrapper {
+
+    /** The maximal number of threads running the asynchronous macros of all the sinks. */
+    public static final int MAX_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    /** Runs the asynchronous macros, the concurrency being also limited by each sink. */
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    private final Sink pipeline;
+
+    private final Semaphore permits;
+
+    private final List<Region> regions = new ArrayList<>();
+
+    private Locator locator;
+
+    /** The failure of a macro, not reported yet. */
+    private ParseException failure;
+
+    /**
+     * @param pipeline the sink receiving the events in document order
+     * @param concurrency the maximal number of macros executed at the same time
+     */
+    public DeferredMacroSink(Sink pipeline, int concurrency) {
+        super(pipeline);
+        this.pipeline = pipeline;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    private static ExecutorService newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "doxia-macro");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // the threads are only kept while macros are executed
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return the sink receiving the events in document order, even while events are being recorded
+     */
+    public Sink getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Starts the given macro and records the following events until it is complete.
+     * This waits as long as the maximal number of macros are being executed.
+     *
+     * @param macro the macro to execute
+     * @param request the corresponding MacroRequest
+     * @throws MacroExecutionException if the macro cannot be started
+     */
+    public void execute(AsyncMacro macro, MacroRequest request) throws MacroExecutionException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MacroExecutionException("Interrupted while waiting to execute a macro", e);
+        }
+
+        // the macro events are located at the macro, the locator of the parser moving on in the meantime
+        SinkEventTape output = new SinkEventTape(locator != null);
+        Locator macroLocator = locator != null ? new FixedLocator(locator) : null;
+        if (macroLocator != null) {
+            output.setDocumentLocator(macroLocator);
+        }
+
+        // the tasks of the macro are kept to interrupt them on cancellation
+        List<Future<?>> tasks = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> future;
+        try {
+            future = macro.executeAsync(output, request, task -> tasks.add(EXECUTOR.submit(task)));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        future.whenComplete((result, failure) -> permits.release());
+
+        SinkEventTape following = new SinkEventTape(locator != null);
+        if (locator != null) {
+            following.setDocumentLocator(locator);
+        }
+        regions.add(new Region(future, tasks, macroLocator, output, following));
+        setWrappedSink(following);
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        this.locator = locator;
+        super.setDocumentLocator(locator);
+    }
+
+    @Override
+    public void body_() {
+        super.body_();
+        writeRegions();
+    }
+
+    @Override
+    public void flush() {
+        writeRegions();
+        reportFailure();
+        super.flush();
+    }
+
+    @Override
+    public void close() {
+        writeRegions();
+        reportFailure();
+        super.close();
+    }
+
+    /**
+     * Writes the recorded events into the pipeline, in document order, waiting for each macro.
+     *
+     * @throws ParseException if a macro failed, located at the macro
+     */
+    public void complete() throws ParseException {
+        writeRegions();
+        if (failure != null) {
+            ParseException e = failure;
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels the pending macros, interrupting the running ones, and drops the recorded events.
+     * Parsers call this method when they fail.
+     */
+    public void cancel() {
+        setWrappedSink(pipeline);
+        for (Region region : regions) {
+            region.cancel();
+        }
+        regions.clear();
+        if (locator != null) {
+            pipeline.setDocumentLocator(locator);
+        }
+    }
+
+    private void reportFailure() {
+        if (failure != null) {
+            ParseException e = failure;
+            failure = null;
+            throw new IllegalStateException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Writes the recorded events into the pipeline, in document order, waiting for each macro, up to the first
+     * failed macro, if any: the following macros are cancelled.
+     */
+    private void writeRegions() {
+        if (regions.isEmpty()) {
+            return;
+        }
+
+        setWrappedSink(pipeline);
+        int i = 0;
+        try {
+            for (; i < regions.size(); i++) {
+                Region region = regions.get(i);
+                region.await();
+                region.output.replay(pipeline);
+                region.following.replay(pipeline);
+            }
+        } catch (ParseException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            for (i++; i < regions.size(); i++) {
+                regions.get(i).cancel();
+            }
+        } finally {
+            regions.clear();
+            if (locator != null) {
+                // the tapes replaced the locator by their own
+                pipeline.setDocumentLocator(locator);
+            }
+        }
+    }
+
+    /** A macro, its events and the events following it, up to the next macro. */
+    private static final class Region {
+        private final CompletableFuture<Void> future;
+
+        /** The tasks submitted by the macro to the executor. */
+        private final List<Future<?>> tasks;
+
+        /** The position of the macro, may be null. */
+        private final Locator locator;
+
+        private final SinkEventTape output;
+
+        private final SinkEventTape following;
+
+        Region(
+                CompletableFuture<Void> future,
+                List<Future<?>> tasks,
+                Locator locator,
+                SinkEventTape output,
+                SinkEventTape following) {
+            this.future = future;
+            this.tasks = tasks;
+            this.locator = locator;
+            this.output = output;
+            this.following = following;
+        }
+
+        void cancel() {
+            // a task which never runs does not complete the future, which gives its permit back
+            future.cancel(true);
+            synchronized (tasks) {
+                for (Future<?> task : tasks) {
+                    task.cancel(true);
+                }
+            }
+        }
+
+        void await() throws ParseException {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw newParseException("Interrupted while waiting for a macro", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw newParseException("Unable to execute macro in the document", (Exception) cause);
+            }
+        }
+
+        private ParseException newParseException(String message, Exception e) {
+            if (locator == null) {
+                return new ParseException(message, e);
+            }
+            return new ParseException(
+                    message, e, locator.getReference(), locator.getLineNumber(), locator.getColumnNumber());
+        }
+    }
+
+    /** The position of a locator at a given time. */
+    private static final class FixedLocator implements Locator {
+        private final String reference;
+
+        private final int lineNumber;
+
+        private final int columnNumber;
+
+        FixedLocator(Locator locator) {
+            this.reference = locator.getReference();
+            this.lineNumber = locator.getLineNumber();
+            this.columnNumber = locator.getColumnNumber();
+        }
+
+        @Override
+        public String getReference() {
+            return reference;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return columnNumber;
+        }
+    }
+}
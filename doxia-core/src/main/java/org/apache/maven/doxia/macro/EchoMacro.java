@@ -25,10 +25,11 @@ import org.apache.maven.doxia.sink.Sink;
 
 /**
  * A simple macro that prints out the key and value of some supplied parameters.
+ * Its events may be {@link MemoizableMacro replayed}.
  */
 @Singleton
 @Named("echo")
-public class EchoMacro extends AbstractMacro {
+public class EchoMacro extends AbstractMacro implements MemoizableMacro {
     public void execute(Sink sink, MacroRequest request) {
         sink.verbatim();
 
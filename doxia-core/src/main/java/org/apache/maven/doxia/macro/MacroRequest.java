@@ -20,6 +20,7 @@ package org.apache.maven.doxia.macro;
 
 import java.io.File;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.Parser;
@@ -40,6 +41,9 @@ public class MacroRequest {
     /** A map of parameters. */
     private Map<String, Object> parameters;
 
+    /** The source content, until it is read. */
+    private Supplier<String> sourceContent;
+
     /**
      * <p>Constructor for MacroRequest.</p>
      *
@@ -56,6 +60,25 @@ public class MacroRequest {
         param.put(PARAM_PARSER, parser);
     }
 
+    /**
+     * Constructor for a MacroRequest whose source content is only read if the macro needs it. The
+     * <code>sourceContent</code> parameter is set by {@link #getSourceContent()}.
+     *
+     * @param parser a new {@link org.apache.maven.doxia.parser.AbstractParser} object acting as secondary parser.
+     * @param param a {@link java.util.Map} object.
+     * @param basedir a {@link java.io.File} object.
+     * @param sourceContent the supplier of the source content, called at most once.
+     * @since 2.1.1
+     */
+    public MacroRequest(
+            AbstractParser parser, Map<String, Object> param, File basedir, Supplier<String> sourceContent) {
+        this.parameters = param;
+        this.basedir = basedir;
+        this.sourceContent = sourceContent;
+        parser.setSecondParsing(true);
+        param.put(PARAM_PARSER, parser);
+    }
+
     /**
      * Returns the current base directory.
      *
@@ -100,6 +123,10 @@ public class MacroRequest {
      * @return a {@link java.lang.String} object.
      */
     public String getSourceContent() {
+        if (sourceContent != null) {
+            parameters.put(PARAM_SOURCE_CONTENT, sourceContent.get());
+            sourceContent = null;
+        }
         return (String) getParameter(PARAM_SOURCE_CONTENT);
     }
 
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+/**
+ * A macro whose events only depend on its parameters, its base directory and the resources identified by its
+ * {@link #getFingerprint(MacroRequest) fingerprint}: a {@link MemoizingMacroExecutor} replays the events of a
+ * previous execution instead of executing it again.
+ *
+ * @since 2.1.1
+ */
+public interface MemoizableMacro extends Macro {
+
+    /**
+     * Identifies the state of the resources the macro depends on besides its parameters, for example the
+     * modification time of a file it reads.
+     *
+     * @param request The corresponding MacroRequest.
+     * @return The fingerprint of the dependencies, empty if there is none, or null if the events of this request
+     * must not be replayed.
+     */
+    default String getFingerprint(MacroRequest request) {
+        return "";
+    }
+}
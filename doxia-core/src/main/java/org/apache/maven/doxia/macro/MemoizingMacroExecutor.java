@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.doxia.macro.manager.MacroManager;
+import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventTape;
+
+/**
+ * Macro executor which records the events of {@link MemoizableMacro memoizable macros} and replays them when the
+ * same macro is executed again with the same parameters, base directory and fingerprint. Other macros are executed
+ * as usual. It may be shared by the parsers of several documents, through
+ * {@link org.apache.maven.doxia.parser.Parser#setMacroExecutor(MacroExecutor)}.
+ *
+ * @since 2.1.1
+ */
+public class MemoizingMacroExecutor implements MacroExecutor {
+    /** The default maximal number of recordings. */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final MacroManager macroManager;
+
+    private final int maxEntries;
+
+    /** Guarded by itself, in access order. */
+    private final Map<List<Object>, SinkEventTape> recordings;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * @param macroManager the manager to look up the macros
+     */
+    public MemoizingMacroExecutor(MacroManager macroManager) {
+        this(macroManager, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param macroManager the manager to look up the macros
+     * @param maxEntries the maximal number of recordings kept, the least recently used ones being evicted
+     */
+    public MemoizingMacroExecutor(MacroManager macroManager, int maxEntries) {
+        this.macroManager = macroManager;
+        this.maxEntries = maxEntries;
+        this.recordings = new LinkedHashMap<List<Object>, SinkEventTape>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, SinkEventTape> eldest) {
+                return size() > MemoizingMacroExecutor.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public void executeMacro(String macroId, MacroRequest request, Sink sink)
+            throws MacroExecutionException, MacroNotFoundException {
+        Macro macro = macroManager.getMacro(macroId);
+        if (!(macro instanceof MemoizableMacro)) {
+            macro.execute(sink, request);
+            return;
+        }
+
+        String fingerprint = ((MemoizableMacro) macro).getFingerprint(request);
+        if (fingerprint == null) {
+            macro.execute(sink, request);
+            return;
+        }
+
+        List<Object> key = Arrays.asList(macroId, getParameters(request), request.getBasedir(), fingerprint);
+        SinkEventTape recording;
+        synchronized (recordings) {
+            recording = recordings.get(key);
+            if (recording != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+
+        if (recording == null) {
+            // a failing execution is not recorded, concurrent identical executions may both be recorded
+            recording = new SinkEventTape();
+            macro.execute(recording, request);
+            synchronized (recordings) {
+                recordings.put(key, recording);
+            }
+        }
+        recording.replay(sink);
+    }
+
+    /**
+     * @return the number of executions replayed from a recording
+     */
+    public long getHitCount() {
+        synchronized (recordings) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * @return the number of executions of memoizable macros which were not recorded yet
+     */
+    public long getMissCount() {
+        synchronized (recordings) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Removes all the recordings.
+     */
+    public void clear() {
+        synchronized (recordings) {
+            recordings.clear();
+        }
+    }
+
+    /**
+     * The parameters of the request, except the {@link MacroRequest#isInternalParameter(String) internal ones}.
+     */
+    private static Map<String, Object> getParameters(MacroRequest request) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> parameter : request.getParameters().entrySet()) {
+            if (!MacroRequest.isInternalParameter(parameter.getKey())) {
+                parameters.put(parameter.getKey(), parameter.getValue());
+            }
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.snippet;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache of the snippets read by the {@link SnippetMacro} and of the {@link SnippetIndex indexes} of local files,
+ * shared by concurrent builds.
+ * <p>
+ * The cache is bounded by the total length of the snippets and indexed lines it holds, the least recently used ones
+ * being evicted first. A snippet or an index of a local file is valid as long as the last modification time and the
+ * size of the file are unchanged, a snippet of another URL until a timeout expires.
+ *
+ * @since 2.1.1
+ */
+class SnippetCache {
+    /** The maximal total length of the snippets and indexed lines of the {@link #SHARED} cache. */
+    private static final long SHARED_MAX_WEIGHT = 16 * 1024 * 1024;
+
+    /** The cache shared by all the builds of the JVM. */
+    static final SnippetCache SHARED = new SnippetCache(SHARED_MAX_WEIGHT);
+
+    private final long maxWeight;
+
+    /** Guarded by <code>this</code>, in access order: the keys of snippets are strings, of indexes IndexKeys. */
+    private final Map<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    /**
+     * @param maxWeight the maximal total length of the cached snippets
+     */
+    SnippetCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @param url the URL of the snippet
+     * @param id the id of the snippet, may be null
+     * @param timeout the time in milliseconds a snippet of a remote URL stays valid
+     * @return the cached snippet, or null if there is no valid one
+     */
+    String get(URL url, String id, long timeout) {
+        String key = key(url, id);
+        FileStamp stamp = FileStamp.of(url);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isValid(stamp, timeout)) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return (String) entry.value;
+        }
+    }
+
+    /**
+     * @param url the URL of the snippet
+     * @param id the id of the snippet, may be null
+     * @param content the snippet
+     * @param stamp the state of the snippet file before it was read, null if it is not a local file
+     */
+    synchronized void put(URL url, String id, String content, FileStamp stamp) {
+        add(key(url, id), new Entry(content, content.length(), stamp, System.currentTimeMillis()));
+    }
+
+    /**
+     * @param url the URL of a local file
+     * @param encoding the encoding of the file, may be null
+     * @param stamp the current state of the file, not null
+     * @return the cached index of the file, or null if there is none or if the file changed
+     */
+    synchronized SnippetIndex getIndex(URL url, String encoding, FileStamp stamp) {
+        IndexKey key = new IndexKey(url, encoding);
+        Entry entry = entries.get(key);
+        if (entry != null && !stamp.equals(entry.stamp)) {
+            remove(key);
+            entry = null;
+        }
+        return entry != null ? (SnippetIndex) entry.value : null;
+    }
+
+    /**
+     * @param url the URL of a local file
+     * @param encoding the encoding of the file, may be null
+     * @param index the index of the file
+     * @param stamp the state of the file before it was read, not null
+     */
+    synchronized void putIndex(URL url, String encoding, SnippetIndex index, FileStamp stamp) {
+        add(new IndexKey(url, encoding), new Entry(index, index.getWeight(), stamp, System.currentTimeMillis()));
+    }
+
+    private void add(Object key, Entry entry) {
+        remove(key);
+        if (entry.weight > maxWeight) {
+            return;
+        }
+
+        entries.put(key, entry);
+        weight += entry.weight;
+
+        Iterator<Entry> it = entries.values().iterator();
+        while (weight > maxWeight) {
+            weight -= it.next().weight;
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "entries=" + entries.size() + ", weight=" + weight + ", hits=" + hitCount + ", misses=" + missCount
+                + ", evictions=" + evictionCount;
+    }
+
+    private void remove(Object key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    /**
+     * @return an identifier, concatenated url and id, or just url.toString() if id is empty or null.
+     */
+    private static String key(URL url, String id) {
+        if (id == null || id.isEmpty()) {
+            return url.toString();
+        }
+
+        return url + " " + id;
+    }
+
+    /**
+     * The key of the index of a file, never equal to the key of a snippet.
+     */
+    private static final class IndexKey {
+        private final String url;
+
+        private final String encoding;
+
+        IndexKey(URL url, String encoding) {
+            this.url = url.toString();
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof IndexKey)) {
+                return false;
+            }
+            IndexKey other = (IndexKey) obj;
+            return url.equals(other.url) && Objects.equals(encoding, other.encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return url.hashCode() * 31 + Objects.hashCode(encoding);
+        }
+    }
+
+    private static final class Entry {
+        /** A snippet or an index. */
+        private final Object value;
+
+        /** The number of characters held by the value. */
+        private final long weight;
+
+        private final FileStamp stamp;
+
+        private final long time;
+
+        Entry(Object value, long weight, FileStamp stamp, long time) {
+            this.value = value;
+            this.weight = weight;
+            this.stamp = stamp;
+            this.time = time;
+        }
+
+        boolean isValid(FileStamp currentStamp, long timeout) {
+            if (stamp != null || currentStamp != null) {
+                return stamp != null && stamp.equals(currentStamp);
+            }
+            return System.currentTimeMillis() - time < timeout;
+        }
+    }
+
+    /**
+     * The last modification time and the size of a local file.
+     */
+    static final class FileStamp {
+        private final long lastModified;
+
+        private final long length;
+
+        private FileStamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * @param url the URL of a snippet
+         * @return the current state of the file, or null if the URL is not a local file
+         */
+        static FileStamp of(URL url) {
+            if (!"file".equals(url.getProtocol())) {
+                return null;
+            }
+
+            File file;
+            try {
+                file = new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return null;
+            }
+            return new FileStamp(file.lastModified(), file.length());
+        }
+
+        /**
+         * @return the size of the file in bytes
+         */
+        long getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 + Long.hashCode(length);
+        }
+
+        @Override
+        public String toString() {
+            return lastModified + ":" + length;
+        }
+    }
+}
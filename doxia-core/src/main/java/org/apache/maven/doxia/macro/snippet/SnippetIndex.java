@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.snippet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The lines of a snippet source, read once, and the lines which may delimit a snippet: extracting any snippet
+ * only looks at these. The indexes of local files are kept in the {@link SnippetCache} until the files change or
+ * they are evicted, so that all the snippets of a file cost a single read.
+ *
+ * @since 2.1.1
+ */
+final class SnippetIndex {
+    static final Pattern SNIPPET_PATTERN = Pattern.compile("(^|\\W)(?i:SNIPPET)($|\\W)");
+
+    static final Pattern START_PATTERN = Pattern.compile("(^|\\W)(?i:START)($|\\W)");
+
+    static final Pattern END_PATTERN = Pattern.compile("(^|\\W)(?i:END)($|\\W)");
+
+    private final URL source;
+
+    private final List<String> lines;
+
+    /** The total length of the lines. */
+    private final long weight;
+
+    /** The indexes of the lines with the START or END and SNIPPET words, in ascending order. */
+    private final int[] demarcators;
+
+    private SnippetIndex(URL source, List<String> lines) {
+        this.source = source;
+        this.lines = lines;
+
+        int[] indexes = new int[8];
+        int count = 0;
+        long length = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            length += line.length();
+            if (SNIPPET_PATTERN.matcher(line).find()
+                    && (START_PATTERN.matcher(line).find() || END_PATTERN.matcher(line).find())) {
+                if (count == indexes.length) {
+                    int[] grown = new int[count * 2];
+                    System.arraycopy(indexes, 0, grown, 0, count);
+                    indexes = grown;
+                }
+                indexes[count++] = i;
+            }
+        }
+        this.demarcators = new int[count];
+        System.arraycopy(indexes, 0, demarcators, 0, count);
+        this.weight = length;
+    }
+
+    /**
+     * @param source the snippet source
+     * @param encoding the encoding of the source, may be null
+     * @return the index of the source, read again only if it is not a local file or if the file changed
+     * @throws IOException if the source cannot be read
+     */
+    static SnippetIndex of(URL source, String encoding) throws IOException {
+        return of(source, encoding, SnippetCache.SHARED);
+    }
+
+    /**
+     * @param source the snippet source
+     * @param encoding the encoding of the source, may be null
+     * @param cache the cache of the indexes of local files
+     * @return the index of the source, read again only if it is not a local file or if the file changed
+     * @throws IOException if the source cannot be read
+     */
+    static SnippetIndex of(URL source, String encoding, SnippetCache cache) throws IOException {
+        SnippetCache.FileStamp stamp = SnippetCache.FileStamp.of(source);
+        if (stamp == null) {
+            return new SnippetIndex(source, readAllLines(source, encoding));
+        }
+
+        SnippetIndex index = cache.getIndex(source, encoding, stamp);
+        if (index == null) {
+            // the file state is taken before reading, so that a concurrent change invalidates the index
+            index = new SnippetIndex(source, readAllLines(source, encoding));
+            cache.putIndex(source, encoding, index, stamp);
+        }
+        return index;
+    }
+
+    /**
+     * @return the total length of the lines
+     */
+    long getWeight() {
+        return weight;
+    }
+
+    private static List<String> readAllLines(URL source, String encoding) throws IOException {
+        InputStreamReader reader = (encoding == null || encoding.isEmpty())
+                ? new InputStreamReader(source.openStream())
+                : new InputStreamReader(source.openStream(), encoding);
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader withReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = withReader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * The lines between the first START demarcator of the snippet and its following END demarcator, except other
+     * START demarcators.
+     *
+     * @param snippetId the id of the snippet, or null or empty for all the lines
+     * @return the lines of the snippet
+     * @throws IOException if the snippet has no START or no END demarcator
+     */
+    List<String> getLines(String snippetId) throws IOException {
+        if (snippetId == null || snippetId.isEmpty()) {
+            return lines;
+        }
+
+        Pattern idPattern = Pattern.compile("(^|\\W)" + snippetId + "($|\\W)");
+        int start = -1;
+        List<Integer> otherStarts = new ArrayList<>();
+        for (int i : demarcators) {
+            String line = lines.get(i);
+            if (!idPattern.matcher(line).find()) {
+                continue;
+            }
+            if (START_PATTERN.matcher(line).find()) {
+                if (start == -1) {
+                    start = i;
+                } else {
+                    otherStarts.add(i);
+                }
+            } else {
+                if (start == -1) {
+                    break;
+                }
+                if (otherStarts.isEmpty()) {
+                    return lines.subList(start + 1, i);
+                }
+
+                List<String> snippet = new ArrayList<>(i - start);
+                int from = start + 1;
+                for (int otherStart : otherStarts) {
+                    snippet.addAll(lines.subList(from, otherStart));
+                    from = otherStart + 1;
+                }
+                snippet.addAll(lines.subList(from, i));
+                return snippet;
+            }
+        }
+
+        if (start == -1) {
+            throw new IOException("Failed to find START of snippet " + snippetId + " in file at URL: " + source);
+        }
+        throw new IOException("Failed to find END of snippet " + snippetId + " in file at URL: " + source);
+    }
+}
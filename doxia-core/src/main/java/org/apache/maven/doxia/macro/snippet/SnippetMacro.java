@@ -21,16 +21,18 @@ package org.apache.maven.doxia.macro.snippet;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.maven.doxia.macro.AbstractMacro;
+import org.apache.maven.doxia.macro.AsyncMacro;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.MemoizableMacro;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.slf4j.Logger;
@@ -38,56 +40,66 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A macro that prints out the (source code) content of a file or a URL.
+ * It may be executed {@link AsyncMacro asynchronously}, while the document is being parsed, and the snippets of
+ * local files may be {@link MemoizableMacro replayed}.
  */
 @Singleton
 @Named("snippet")
-public class SnippetMacro extends AbstractMacro {
+public class SnippetMacro extends AbstractMacro implements AsyncMacro, MemoizableMacro {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnippetMacro.class);
 
     /**
-     * Holds the cache.
+     * Holds the cache, shared by all the builds of the JVM unless given.
      */
-    private static Map<String, String> cache = new HashMap<>();
+    private final SnippetCache cache;
 
     private static final int HOUR = 60;
 
     /**
-     * One hour default cache.
+     * One hour default cache, for snippets which are not local files.
      */
     private long timeout = HOUR * HOUR * 1000;
 
     /**
-     * Holds the time cache.
+     * The size in bytes from which local files are streamed to the sink, 4 MB by default.
      */
-    private static Map<String, Long> timeCached = new HashMap<>();
+    private long streamingThreshold = 4L * 1024 * 1024;
 
     /**
-     * Debug.
+     * The length of the text events of a streamed snippet.
      */
-    private boolean debug = false;
+    private static final int CHUNK_SIZE = 8192;
+
+    public SnippetMacro() {
+        this(SnippetCache.SHARED);
+    }
 
     /**
-     * in case of Exception during snippet download error will ignored and empty content returned.
+     * @param cache the cache of the snippets
      */
-    private boolean ignoreDownloadError = true;
+    SnippetMacro(SnippetCache cache) {
+        this.cache = cache;
+    }
 
     public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
         String id = (String) request.getParameter("id");
 
-        String urlParam = (String) request.getParameter("url");
-
-        String fileParam = (String) request.getParameter("file");
+        // request settings are kept in local variables, as this single instance may execute concurrent requests
+        boolean debug = false;
 
         String debugParam = (String) request.getParameter("debug");
 
         if (debugParam != null) {
-            this.debug = Boolean.parseBoolean(debugParam);
+            debug = Boolean.parseBoolean(debugParam);
         }
 
+        // in case of Exception during snippet download error will ignored and empty content returned
+        boolean ignoreDownloadError = true;
+
         String ignoreDownloadErrorParam = (String) request.getParameter("ignoreDownloadError");
 
         if (ignoreDownloadErrorParam != null) {
-            this.ignoreDownloadError = Boolean.parseBoolean(ignoreDownloadErrorParam);
+            ignoreDownloadError = Boolean.parseBoolean(ignoreDownloadErrorParam);
         }
 
         boolean verbatim = true;
@@ -108,11 +120,51 @@ public class SnippetMacro extends AbstractMacro {
 
         String encoding = (String) request.getParameter("encoding");
 
-        URL url;
+        URL url = getSnippetUrl(request);
+
+        SnippetCache.FileStamp stamp = SnippetCache.FileStamp.of(url);
+        if (stamp != null && stamp.getLength() >= streamingThreshold) {
+            writeLargeSnippet(sink, url, encoding, id, debug, ignoreDownloadError, verbatim, source);
+            return;
+        }
+
+        StringBuffer snippet;
+
+        try {
+            snippet = getSnippet(url, encoding, id, debug, ignoreDownloadError);
+        } catch (IOException e) {
+            throw new MacroExecutionException("Error reading snippet", e);
+        }
+
+        if (verbatim) {
+            sink.verbatim(source ? SinkEventAttributeSet.SOURCE : null);
+
+            sink.text(snippet.toString());
+
+            sink.verbatim_();
+        } else {
+            sink.rawText(snippet.toString());
+        }
+    }
+
+    /**
+     * Snippets of local files are replayed as long as the files are unchanged, except the streamed ones.
+     * Other snippets are not replayed.
+     */
+    @Override
+    public String getFingerprint(MacroRequest request) {
+        SnippetCache.FileStamp stamp = SnippetCache.FileStamp.of(getSnippetUrl(request));
+        return stamp != null && stamp.getLength() < streamingThreshold ? stamp.toString() : null;
+    }
+
+    private static URL getSnippetUrl(MacroRequest request) {
+        String urlParam = (String) request.getParameter("url");
+
+        String fileParam = (String) request.getParameter("file");
 
         if (!(urlParam == null || urlParam.isEmpty())) {
             try {
-                url = new URL(urlParam);
+                return new URL(urlParam);
             } catch (MalformedURLException e) {
                 throw new IllegalArgumentException(urlParam + " is a malformed URL", e);
             }
@@ -124,30 +176,52 @@ public class SnippetMacro extends AbstractMacro {
             }
 
             try {
-                url = f.toURI().toURL();
+                return f.toURI().toURL();
             } catch (MalformedURLException e) {
                 throw new IllegalArgumentException(fileParam + " is a malformed URL", e);
             }
         } else {
             throw new IllegalArgumentException("Either the 'url' or the 'file' param has to be provided");
         }
+    }
 
-        StringBuffer snippet;
+    /**
+     * Writes a snippet of a large local file to the sink while it is read, in chunks, without caching it.
+     */
+    private void writeLargeSnippet(
+            Sink sink,
+            URL url,
+            String encoding,
+            String id,
+            boolean debug,
+            boolean ignoreDownloadError,
+            boolean verbatim,
+            boolean source)
+            throws MacroExecutionException {
+        if (verbatim) {
+            sink.verbatim(source ? SinkEventAttributeSet.SOURCE : null);
+        }
 
-        try {
-            snippet = getSnippet(url, encoding, id);
+        try (Writer out = new BufferedWriter(new SinkTextWriter(sink, verbatim), CHUNK_SIZE)) {
+            try {
+                new SnippetReader(url, encoding).readSnippet(id, out);
+                if (debug) {
+                    out.write("(Streamed from url, not cached)");
+                }
+            } catch (IOException e) {
+                if (!ignoreDownloadError) {
+                    throw new MacroExecutionException("Error reading snippet", e);
+                }
+                LOGGER.debug("Exception while reading '{}'", url, e);
+                out.write("Error during retrieving content skip as ignoreDownloadError activated.");
+            }
         } catch (IOException e) {
-            throw new MacroExecutionException("Error reading snippet", e);
+            // the sink writer does not fail
+            throw new MacroExecutionException("Error writing snippet", e);
         }
 
         if (verbatim) {
-            sink.verbatim(source ? SinkEventAttributeSet.SOURCE : null);
-
-            sink.text(snippet.toString());
-
             sink.verbatim_();
-        } else {
-            sink.rawText(snippet.toString());
         }
     }
 
@@ -157,13 +231,16 @@ public class SnippetMacro extends AbstractMacro {
      * @param url The URL to parse.
      * @param encoding The encoding of the URL to parse.
      * @param id  The id of the snippet.
+     * @param debug Whether to append debug information to the snippet.
+     * @param ignoreDownloadError Whether to return an error message instead of failing if the snippet cannot be read.
      * @return The snippet.
      * @throws IOException if something goes wrong.
      */
-    private StringBuffer getSnippet(URL url, String encoding, String id) throws IOException {
+    private StringBuffer getSnippet(URL url, String encoding, String id, boolean debug, boolean ignoreDownloadError)
+            throws IOException {
         StringBuffer result;
 
-        String cachedSnippet = getCachedSnippet(url, id);
+        String cachedSnippet = cache.get(url, id, timeout);
 
         if (cachedSnippet != null) {
             result = new StringBuffer(cachedSnippet);
@@ -173,12 +250,12 @@ public class SnippetMacro extends AbstractMacro {
             }
         } else {
             try {
+                // the file state is taken before reading, so that a concurrent change invalidates the snippet
+                SnippetCache.FileStamp stamp = SnippetCache.FileStamp.of(url);
                 result = new SnippetReader(url, encoding).readSnippet(id);
-                cacheSnippet(url, id, result.toString());
+                cache.put(url, id, result.toString(), stamp);
                 if (debug) {
-                    result.append("(Fetched from url, cache content ")
-                            .append(cache)
-                            .append(")");
+                    result.append("(Fetched from url, cache ").append(cache).append(")");
                 }
             } catch (IOException e) {
                 if (ignoreDownloadError) {
@@ -193,104 +270,114 @@ public class SnippetMacro extends AbstractMacro {
     }
 
     /**
-     * Return a snippet from the cache.
+     * Puts the given snippet into the cache.
      *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
-     * @return The snippet.
+     * @param url     The URL to parse.
+     * @param id      The id of the snippet.
+     * @param content The content of the snippet.
      */
-    private String getCachedSnippet(URL url, String id) {
-        if (isCacheTimedout(url, id)) {
-            removeFromCache(url, id);
-        }
-        return cache.get(globalSnippetId(url, id));
+    public void cacheSnippet(URL url, String id, String content) {
+        cache.put(url, id, content, SnippetCache.FileStamp.of(url));
     }
 
     /**
-     * Return true if the snippet has been cached longer than
-     * the current timeout.
+     * Set the size from which snippets of local files are not cached but streamed to the sink.
      *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
-     * @return True if timeout exceeded.
+     * @param bytes The size in bytes.
+     * @since 2.1.1
      */
-    boolean isCacheTimedout(URL url, String id) {
-        return timeInCache(url, id) >= timeout;
+    public void setStreamingThreshold(long bytes) {
+        this.streamingThreshold = bytes;
     }
 
     /**
-     * Return the time the snippet has been cached.
+     * Set the cache timeout, for snippets which are not local files: these are valid as long as they are unchanged.
      *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
-     * @return The cache time.
+     * @param time The timeout to set.
      */
-    long timeInCache(URL url, String id) {
-        return System.currentTimeMillis() - getTimeCached(url, id);
+    public void setCacheTimeout(int time) {
+        this.timeout = time;
     }
 
     /**
-     * Return the absolute value of when the snippet has been cached.
-     *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
-     * @return The cache time.
+     * @return the number of snippets served from the cache shared by all the builds of the JVM
+     * @since 2.1.1
      */
-    long getTimeCached(URL url, String id) {
-        String globalId = globalSnippetId(url, id);
-
-        return timeCached.containsKey(globalId) ? timeCached.get(globalId) : 0;
+    public static long getCacheHitCount() {
+        return SnippetCache.SHARED.getHitCount();
     }
 
     /**
-     * Removes the snippet from the cache.
-     *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
+     * @return the number of snippets which were not in the shared cache, or no longer valid
+     * @since 2.1.1
      */
-    private void removeFromCache(URL url, String id) {
-        String globalId = globalSnippetId(url, id);
-
-        timeCached.remove(globalId);
-
-        cache.remove(globalId);
+    public static long getCacheMissCount() {
+        return SnippetCache.SHARED.getMissCount();
     }
 
     /**
-     * Return a global identifier for the snippet.
-     *
-     * @param url The URL to parse.
-     * @param id  The id of the snippet.
-     * @return An identifier, concatenated url and id,
-     *         or just url.toString() if id is empty or null.
+     * @return the number of snippets and file indexes evicted from the shared cache to keep it under its size limit
+     * @since 2.1.1
      */
-    private String globalSnippetId(URL url, String id) {
-        if (id == null || id.isEmpty()) {
-            return url.toString();
-        }
-
-        return url + " " + id;
+    public static long getCacheEvictionCount() {
+        return SnippetCache.SHARED.getEvictionCount();
     }
 
     /**
-     * Puts the given snippet into the cache.
-     *
-     * @param url     The URL to parse.
-     * @param id      The id of the snippet.
-     * @param content The content of the snippet.
+     * Emits the characters written as text, or raw text, events. A high surrogate or a carriage return ending the
+     * characters written is held back until the next write, so that a surrogate pair or a CRLF line separator is
+     * never split across two events.
      */
-    public void cacheSnippet(URL url, String id, String content) {
-        cache.put(globalSnippetId(url, id), content);
+    private static final class SinkTextWriter extends Writer {
+        private final Sink sink;
 
-        timeCached.put(globalSnippetId(url, id), System.currentTimeMillis());
-    }
+        private final boolean text;
 
-    /**
-     * Set the cache timeout.
-     *
-     * @param time The timeout to set.
-     */
-    public void setCacheTimeout(int time) {
-        this.timeout = time;
+        /** The character held back, or -1. */
+        private int pending = -1;
+
+        SinkTextWriter(Sink sink, boolean text) {
+            this.sink = sink;
+            this.text = text;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return;
+            }
+            char last = cbuf[off + len - 1];
+            boolean holdBack = Character.isHighSurrogate(last) || last == '\r';
+            String chunk = new String(cbuf, off, holdBack ? len - 1 : len);
+            if (pending >= 0) {
+                chunk = (char) pending + chunk;
+            }
+            pending = holdBack ? last : -1;
+            emit(chunk);
+        }
+
+        private void emit(String chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (text) {
+                sink.text(chunk);
+            } else {
+                sink.rawText(chunk);
+            }
+        }
+
+        @Override
+        public void flush() {
+            // nop
+        }
+
+        @Override
+        public void close() {
+            if (pending >= 0) {
+                emit(String.valueOf((char) pending));
+                pending = -1;
+            }
+        }
     }
 }
@@ -21,6 +21,7 @@ package org.apache.maven.doxia.macro.snippet;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +34,10 @@ public class SnippetReader {
     /** System-dependent EOL. */
     private static final String EOL = System.getProperty("line.separator");
 
+    private static final int START = 1;
+
+    private static final int END = 2;
+
     /** The source. */
     private URL source;
 
@@ -77,6 +82,82 @@ public class SnippetReader {
         return result;
     }
 
+    /**
+     * Writes the snippet with given id, without holding it in memory: the source is read a first time to find the
+     * snippet and its minimal indent, and a second time to write its lines.
+     *
+     * @param snippetId The id of the snippet.
+     * @param out The writer of the snippet, not closed.
+     * @throws java.io.IOException if something goes wrong, nothing being written if the snippet is not found.
+     * @since 2.1.1
+     */
+    public void readSnippet(String snippetId, Writer out) throws IOException {
+        boolean hasSnippetId = snippetId != null && !snippetId.isEmpty();
+
+        // the lines of the snippet are strictly between these ones
+        long start = hasSnippetId ? -1 : Long.MIN_VALUE;
+        long end = hasSnippetId ? -1 : Long.MAX_VALUE;
+        int minIndent = Integer.MAX_VALUE;
+        try (BufferedReader reader = openReader()) {
+            String line;
+            for (long i = 0; (line = reader.readLine()) != null; i++) {
+                if (!hasSnippetId) {
+                    minIndent = Math.min(minIndent, indent(line));
+                } else {
+                    int demarcator = demarcator(snippetId, line);
+                    if (demarcator == START) {
+                        if (start == -1) {
+                            start = i;
+                        }
+                    } else if (demarcator == END) {
+                        end = i;
+                        break;
+                    } else if (start != -1) {
+                        minIndent = Math.min(minIndent, indent(line));
+                    }
+                }
+            }
+        }
+
+        if (start == -1) {
+            throw new IOException("Failed to find START of snippet " + snippetId + " in file at URL: " + source);
+        }
+        if (end == -1) {
+            throw new IOException("Failed to find END of snippet " + snippetId + " in file at URL: " + source);
+        }
+
+        try (BufferedReader reader = openReader()) {
+            String line;
+            for (long i = 0; i < end && (line = reader.readLine()) != null; i++) {
+                if (i > start && (!hasSnippetId || demarcator(snippetId, line) != START)) {
+                    out.write(line, minIndent, line.length() - minIndent);
+                    out.write(EOL);
+                }
+            }
+        }
+    }
+
+    private BufferedReader openReader() throws IOException {
+        if (encoding == null || "".equals(encoding)) {
+            return new BufferedReader(new InputStreamReader(source.openStream()));
+        }
+        return new BufferedReader(new InputStreamReader(source.openStream(), encoding));
+    }
+
+    /**
+     * @return {@link #START} or {@link #END} if the line is a demarcator of the snippet, 0 otherwise.
+     */
+    private int demarcator(String snippetId, String line) {
+        if (getClass() == SnippetReader.class && !SnippetIndex.SNIPPET_PATTERN.matcher(line).find()) {
+            // the demarcators are not overridden, the line cannot be one
+            return 0;
+        }
+        if (isStart(snippetId, line)) {
+            return START;
+        }
+        return isEnd(snippetId, line) ? END : 0;
+    }
+
     /**
      * Returns the minimal indent of all the lines in the given List.
      *
@@ -98,12 +179,9 @@ public class SnippetReader {
      * @return the indent.
      */
     int indent(String line) {
-        char[] chars = line.toCharArray();
         int indent = 0;
-        for (; indent < chars.length; indent++) {
-            if (chars[indent] != ' ') {
-                break;
-            }
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            indent++;
         }
         return indent;
     }
@@ -116,6 +194,11 @@ public class SnippetReader {
      * @throws IOException if something goes wrong.
      */
     private List<String> readLines(String snippetId) throws IOException {
+        if (getClass() == SnippetReader.class) {
+            // the demarcators are not overridden, the index of the source applies
+            return SnippetIndex.of(source, encoding).getLines(snippetId);
+        }
+
         BufferedReader reader;
         if (encoding == null || "".equals(encoding)) {
             reader = new BufferedReader(new InputStreamReader(source.openStream()));
@@ -178,13 +261,21 @@ public class SnippetReader {
     protected static boolean isDemarcator(String snippetId, String what, String line) {
         // SNIPPET and what are case insensitive
         // SNIPPET and what can switch order
-        String snippetRegExp = "(^|\\W)(?i:SNIPPET)($|\\W)";
-        String snippetIdRegExp = "(^|\\W)" + snippetId + "($|\\W)";
-        String whatRegExp = "(^|\\W)(?i:" + what + ")($|\\W)";
+        Pattern whatPattern;
+        if ("START".equalsIgnoreCase(what)) {
+            whatPattern = SnippetIndex.START_PATTERN;
+        } else if ("END".equalsIgnoreCase(what)) {
+            whatPattern = SnippetIndex.END_PATTERN;
+        } else {
+            whatPattern = Pattern.compile("(^|\\W)(?i:" + what + ")($|\\W)");
+        }
 
-        return Pattern.compile(snippetRegExp).matcher(line).find()
-                && Pattern.compile(whatRegExp).matcher(line).find()
-                && Pattern.compile(snippetIdRegExp).matcher(line).find();
+        // the id pattern is only compiled for the lines which may be demarcators
+        return SnippetIndex.SNIPPET_PATTERN.matcher(line).find()
+                && whatPattern.matcher(line).find()
+                && Pattern.compile("(^|\\W)" + snippetId + "($|\\W)")
+                        .matcher(line)
+                        .find();
     }
 
     /**
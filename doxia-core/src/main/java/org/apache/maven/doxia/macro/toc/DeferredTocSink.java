@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.toc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.doxia.index.IndexEntry;
+import org.apache.maven.doxia.index.IndexingSink;
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkEventTape;
+import org.apache.maven.doxia.sink.impl.SinkWrapper;
+
+/**
+ * Sink wrapper which lets the {@link TocMacro} write a table of contents without parsing the document again.
+ * The index tree is collected from the events of the document while they pass through. A table of contents only
+ * leaves a placeholder, and the events following it are recorded until the end of the document body: then the
+ * index is complete, so each table of contents is written in place of its placeholder, followed by the recorded
+ * events.
+ * <p>
+ * This wrapper must be the outermost one of the pipeline, as the macro only detects it on the sink it is given.
+ * Documents without a table of contents pass through unchanged.
+ *
+ * @see DeferredTocSinkFactory
+ * @since 2.1.1
+ */
+public class DeferredTocSink extends IndexingSink {
+
+    /** The name of the {@link #unknown(String, Object[], SinkEventAttributes) unknown} placeholder event. */
+    private static final String PLACEHOLDER = DeferredTocSink.class.getName();
+
+    private final RegionSink regions;
+
+    public DeferredTocSink(Sink delegate) {
+        this(new RegionSink(delegate));
+    }
+
+    private DeferredTocSink(RegionSink regions) {
+        super(regions);
+        this.regions = regions;
+    }
+
+    /**
+     * Leaves a placeholder for a table of contents, written once the index of the whole document is known.
+     *
+     * @param listAttributes the attributes of the outermost list
+     * @param section the section to display, or all sections if 0
+     * @param fromDepth the minimal depth of entries to display
+     * @param toDepth the maximum depth of entries to display
+     */
+    public void toc(SinkEventAttributes listAttributes, int section, int fromDepth, int toDepth) {
+        toc(this, listAttributes, section, fromDepth, toDepth);
+    }
+
+    /**
+     * Leaves a placeholder for a table of contents in a sink wrapping a {@link DeferredTocSink}, in the order of
+     * the events of the given sink.
+     */
+    static void toc(Sink sink, SinkEventAttributes listAttributes, int section, int fromDepth, int toDepth) {
+        // the placeholder passes through the buffer of the current index entry, if any, to keep its position
+        sink.unknown(PLACEHOLDER, new Object[] {new Toc(listAttributes, section, fromDepth, toDepth)}, null);
+    }
+
+    @Override
+    public void body_() {
+        super.body_();
+        regions.complete(getIndexRoot());
+    }
+
+    @Override
+    public void close() {
+        regions.complete(getIndexRoot());
+        super.close();
+    }
+
+    /**
+     * Unlike {@link #getRootEntry()}, this does not require the sink to be closed: when the body ends, all the
+     * entries are complete.
+     */
+    private IndexEntry getIndexRoot() {
+        IndexEntry entry = peek();
+        while (entry.getParent() != null) {
+            entry = entry.getParent();
+        }
+        return entry;
+    }
+
+    /** The parameters of a deferred table of contents. */
+    private static final class Toc {
+        private final SinkEventAttributes listAttributes;
+
+        private final int section;
+
+        private final int fromDepth;
+
+        private final int toDepth;
+
+        Toc(SinkEventAttributes listAttributes, int section, int fromDepth, int toDepth) {
+            this.listAttributes = listAttributes;
+            this.section = section;
+            this.fromDepth = fromDepth;
+            this.toDepth = toDepth;
+        }
+    }
+
+    /** A table of contents and the events following it, up to the next table of contents. */
+    private static final class Region {
+        private final Toc toc;
+
+        private final SinkEventTape tape;
+
+        Region(Toc toc, SinkEventTape tape) {
+            this.toc = toc;
+            this.tape = tape;
+        }
+    }
+
+    /**
+     * Records the events following the first placeholder, in one tape per table of contents.
+     */
+    private static final class RegionSink extends SinkWrapper {
+        private final Sink target;
+
+        private final List<Region> regions = new ArrayList<>();
+
+        private Locator locator;
+
+        RegionSink(Sink target) {
+            super(target);
+            this.target = target;
+        }
+
+        @Override
+        public void unknown(String name, Object[] requiredParams, SinkEventAttributes attributes) {
+            if (!PLACEHOLDER.equals(name)) {
+                super.unknown(name, requiredParams, attributes);
+                return;
+            }
+
+            SinkEventTape tape = new SinkEventTape(locator != null);
+            if (locator != null) {
+                tape.setDocumentLocator(locator);
+            }
+            regions.add(new Region((Toc) requiredParams[0], tape));
+            setWrappedSink(tape);
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            super.setDocumentLocator(locator);
+        }
+
+        void complete(IndexEntry rootEntry) {
+            if (regions.isEmpty()) {
+                return;
+            }
+
+            setWrappedSink(target);
+            for (Region region : regions) {
+                Toc toc = region.toc;
+                TocMacro.writeTocForIndexEntry(
+                        target, toc.listAttributes, rootEntry, toc.section, toc.fromDepth, toc.toDepth);
+                region.tape.replay(target);
+            }
+            regions.clear();
+
+            if (locator != null) {
+                // the tapes replaced the locator by their own
+                target.setDocumentLocator(locator);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.toc;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkWrapperFactory;
+
+/**
+ * Creates the {@link DeferredTocSink} for the sink pipeline of a parser. It is not registered automatically: the
+ * events of every document would be indexed and, after a table of contents, buffered up to the end of the body.
+ * Register it on the parsers of documents with a TOC macro, so that the macro does not parse the document again:
+ * <pre>
+ * parser.addSinkWrapperFactory(new DeferredTocSinkFactory());
+ * </pre>
+ *
+ * @since 2.1.1
+ */
+public class DeferredTocSinkFactory implements SinkWrapperFactory {
+
+    @Override
+    public Sink createWrapper(Sink sink) {
+        return new DeferredTocSink(sink);
+    }
+
+    @Override
+    public int getPriority() {
+        // should come first, the TOC macro is given the outermost sink
+        return Integer.MAX_VALUE;
+    }
+}
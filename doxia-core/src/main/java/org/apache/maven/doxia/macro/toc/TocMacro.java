@@ -22,10 +22,13 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.maven.doxia.index.IndexEntry;
 import org.apache.maven.doxia.index.IndexingSink;
 import org.apache.maven.doxia.macro.AbstractMacro;
+import org.apache.maven.doxia.macro.DeferredMacroSink;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.parser.ParseException;
@@ -73,49 +76,77 @@ import org.apache.maven.doxia.util.DoxiaUtils;
  *   &lt;param name="toDepth" value="2" /&gt;
  * &lt;/macro&gt;
  * </pre>
+ * When the macro is given a {@link DeferredTocSink}, possibly through a {@link DeferredMacroSink}, the TOC is written
+ * once the enclosing parse has indexed the whole document. Otherwise the source content is parsed again to build the
+ * index.
  *
  * @author <a href="mailto:vincent.siveton@gmail.com">Vincent Siveton</a>
  */
 @Singleton
 @Named("toc")
 public class TocMacro extends AbstractMacro {
-    /** The section to display. */
-    private int section;
-
-    /** Start depth. */
-    private int fromDepth;
-
-    /** End depth. */
-    private int toDepth = DEFAULT_DEPTH;
-
     /** The default end depth. */
     private static final int DEFAULT_DEPTH = 5;
 
     public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
-        String source = request.getSourceContent();
-        Parser parser = request.getParser();
-
-        section = getInt(request, "section", 0);
-        fromDepth = getInt(request, "fromDepth", 0);
-        toDepth = getInt(request, "toDepth", DEFAULT_DEPTH);
+        // local variables only: a single instance executes the macro for all parsers, maybe concurrently
+        int section = getInt(request, "section", 0);
+        int fromDepth = getInt(request, "fromDepth", 0);
+        int toDepth = getInt(request, "toDepth", DEFAULT_DEPTH);
 
         if (fromDepth > toDepth) {
             return;
         }
 
+        Sink pipeline = sink instanceof DeferredMacroSink ? ((DeferredMacroSink) sink).getPipeline() : sink;
+        if (pipeline instanceof DeferredTocSink) {
+            // the enclosing parse collects the index itself, no need to parse the source again
+            DeferredTocSink.toc(sink, getListAttributes(request), section, fromDepth, toDepth);
+            return;
+        }
+
         IndexingSink tocSink = new IndexingSink(new SinkAdapter());
         try {
-            parser.parse(new StringReader(source), tocSink);
+            Parser parser = request.getParser();
+            parser.parse(new StringReader(request.getSourceContent()), tocSink);
         } catch (ParseException e) {
             throw new MacroExecutionException(e);
         } finally {
             tocSink.close();
         }
 
-        writeTocForIndexEntry(sink, getAttributesFromMap(request.getParameters()), tocSink.getRootEntry());
+        writeTocForIndexEntry(
+                sink,
+                getListAttributes(request),
+                tocSink.getRootEntry(),
+                section,
+                fromDepth,
+                toDepth);
+    }
+
+    /**
+     * The attributes of the TOC list: the macro parameters, except the internal source content and parser.
+     *
+     * @param request the macro request.
+     * @return the list attributes, or null if there are none.
+     */
+    private static SinkEventAttributes getListAttributes(MacroRequest request) {
+        Map<String, Object> parameters = new LinkedHashMap<>(request.getParameters());
+        parameters.keySet().removeIf(MacroRequest::isInternalParameter);
+        return getAttributesFromMap(parameters);
     }
 
     void writeTocForIndexEntry(Sink sink, SinkEventAttributes listAttributes, IndexEntry rootEntry) {
+        writeTocForIndexEntry(sink, listAttributes, rootEntry, 0, 0, DEFAULT_DEPTH);
+    }
+
+    static void writeTocForIndexEntry(
+            Sink sink,
+            SinkEventAttributes listAttributes,
+            IndexEntry rootEntry,
+            int section,
+            int fromDepth,
+            int toDepth) {
         IndexEntry index = rootEntry;
         if (index.getChildEntries().size() > 0) {
             sink.list(listAttributes);
@@ -124,7 +155,7 @@ public class TocMacro extends AbstractMacro {
 
             for (IndexEntry sectionIndex : index.getChildEntries()) {
                 if ((i == section) || (section == 0)) {
-                    writeSubSectionN(sink, sectionIndex, 1);
+                    writeSubSectionN(sink, sectionIndex, 1, fromDepth, toDepth);
                 }
 
                 i++;
@@ -139,8 +170,10 @@ public class TocMacro extends AbstractMacro {
      * @param sink The sink to write to.
      * @param sectionIndex The section index.
      * @param n The toc depth.
+     * @param fromDepth The start depth.
+     * @param toDepth The end depth.
      */
-    private void writeSubSectionN(Sink sink, IndexEntry sectionIndex, int n) {
+    private static void writeSubSectionN(Sink sink, IndexEntry sectionIndex, int n, int fromDepth, int toDepth) {
         boolean isRelevantIndex = isRelevantIndexEntry(sectionIndex);
         if (fromDepth <= n && isRelevantIndex) {
             sink.listItem();
@@ -163,7 +196,7 @@ public class TocMacro extends AbstractMacro {
                         sink.link_();
                         sink.listItem_();
                     } else {
-                        writeSubSectionN(sink, subsectionIndex, n + 1);
+                        writeSubSectionN(sink, subsectionIndex, n + 1, fromDepth, toDepth);
                     }
                 }
 
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.markup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The HTML5 tags of {@link HtmlMarkup}, without depending on <code>javax.swing</code>: using them does not load the
+ * Swing text classes, whose initialization is costly in headless JVMs.
+ * <p>
+ * Each tag has the name and the block flag of the corresponding {@link HtmlMarkup} constant, so that
+ * <code>HtmlTag.forName(tag.toString())</code> adapts a {@link javax.swing.text.html.HTML.Tag} from the existing API.
+ *
+ * @since 2.1.1
+ */
+public enum HtmlTag {
+    /** HTML5 tag for <code>a</code>. */
+    A("a"),
+
+    /** HTML5 tag for <code>abbr</code>. */
+    ABBR("abbr"),
+
+    /** HTML5 tag for <code>address</code>. */
+    ADDRESS("address"),
+
+    /** HTML5 tag for <code>area</code>. */
+    AREA("area"),
+
+    /** HTML5 tag for <code>article</code>. */
+    ARTICLE("article"),
+
+    /** HTML5 tag for <code>aside</code>. */
+    ASIDE("aside"),
+
+    /** HTML5 tag for <code>audio</code>. */
+    AUDIO("audio"),
+
+    /** HTML5 tag for <code>b</code>. */
+    B("b"),
+
+    /** HTML5 tag for <code>base</code>. */
+    BASE("base"),
+
+    /** HTML5 tag for <code>bdi</code>. */
+    BDI("bdi"),
+
+    /** HTML5 tag for <code>bdo</code>. */
+    BDO("bdo"),
+
+    /** HTML5 tag for <code>blockquote</code>. */
+    BLOCKQUOTE("blockquote", true),
+
+    /** HTML5 tag for <code>body</code>. */
+    BODY("body", true),
+
+    /** HTML5 tag for <code>br</code>. */
+    BR("br"),
+
+    /** HTML5 tag for <code>button</code>. */
+    BUTTON("button"),
+
+    /** HTML5 tag for <code>canvas</code>. */
+    CANVAS("canvas"),
+
+    /** HTML5 tag for <code>caption</code>. */
+    CAPTION("caption"),
+
+    /** HTML5 tag for <code>cite</code>. */
+    CITE("cite"),
+
+    /** HTML5 tag for <code>code</code>. */
+    CODE("code"),
+
+    /** HTML5 tag for <code>col</code>. */
+    COL("col"),
+
+    /** HTML5 tag for <code>colgroup</code>. */
+    COLGROUP("colgroup"),
+
+    /** HTML5 tag for <code>command</code>. */
+    COMMAND("command"),
+
+    /** HTML5 tag for <code>data</code>. */
+    DATA("data"),
+
+    /** HTML5 tag for <code>datalist</code>. */
+    DATALIST("datalist"),
+
+    /** HTML5 tag for <code>dd</code>. */
+    DD("dd", true),
+
+    /** HTML5 tag for <code>del</code>. */
+    DEL("del"),
+
+    /** HTML5 tag for <code>details</code>. */
+    DETAILS("details"),
+
+    /** HTML5 tag for <code>dfn</code>. */
+    DFN("dfn"),
+
+    /** HTML5 tag for <code>dialog</code>. */
+    DIALOG("dialog"),
+
+    /** HTML5 tag for <code>div</code>. */
+    DIV("div", true),
+
+    /** HTML5 tag for <code>dl</code>. */
+    DL("dl", true),
+
+    /** HTML5 tag for <code>dt</code>. */
+    DT("dt", true),
+
+    /** HTML5 tag for <code>em</code>. */
+    EM("em"),
+
+    /** HTML5 tag for <code>embed</code>. */
+    EMBED("embed"),
+
+    /** HTML5 tag for <code>fieldset</code>. */
+    FIELDSET("fieldset"),
+
+    /** HTML5 tag for <code>figcaption</code>. */
+    FIGCAPTION("figcaption"),
+
+    /** HTML5 tag for <code>figure</code>. */
+    FIGURE("figure"),
+
+    /** HTML5 tag for <code>footer</code>. */
+    FOOTER("footer"),
+
+    /** HTML5 tag for <code>form</code>. */
+    FORM("form"),
+
+    /** HTML5 tag for <code>h1</code>. */
+    H1("h1", true),
+
+    /** HTML5 tag for <code>h2</code>. */
+    H2("h2", true),
+
+    /** HTML5 tag for <code>h3</code>. */
+    H3("h3", true),
+
+    /** HTML5 tag for <code>h4</code>. */
+    H4("h4", true),
+
+    /** HTML5 tag for <code>h5</code>. */
+    H5("h5", true),
+
+    /** HTML5 tag for <code>h6</code>. */
+    H6("h6", true),
+
+    /** HTML5 tag for <code>head</code>. */
+    HEAD("head", true),
+
+    /** HTML5 tag for <code>header</code>. */
+    HEADER("header"),
+
+    /** HTML5 tag for <code>hgroup</code>. */
+    HGROUP("hgroup"),
+
+    /** HTML5 tag for <code>hr</code>. */
+    HR("hr"),
+
+    /** HTML5 tag for <code>html</code>. */
+    HTML("html"),
+
+    /** HTML5 tag for <code>i</code>. */
+    I("i"),
+
+    /** HTML5 tag for <code>iframe</code>. */
+    IFRAME("iframe"),
+
+    /** HTML5 tag for <code>img</code>. */
+    IMG("img"),
+
+    /** HTML5 tag for <code>input</code>. */
+    INPUT("input"),
+
+    /** HTML5 tag for <code>ins</code>. */
+    INS("ins"),
+
+    /** HTML5 tag for <code>kbd</code>. */
+    KBD("kbd"),
+
+    /** HTML5 tag for <code>keygen</code>. */
+    KEYGEN("keygen"),
+
+    /** HTML5 tag for <code>label</code>. */
+    LABEL("label"),
+
+    /** HTML5 tag for <code>legend</code>. */
+    LEGEND("legend"),
+
+    /** HTML5 tag for <code>li</code>. */
+    LI("li", true),
+
+    /** HTML5 tag for <code>link</code>. */
+    LINK("link"),
+
+    /** HTML5 tag for <code>main</code>. */
+    MAIN("main"),
+
+    /** HTML5 tag for <code>map</code>. */
+    MAP("map"),
+
+    /** HTML5 tag for <code>mark</code>. */
+    MARK("mark"),
+
+    /** HTML5 tag for <code>menu</code>. */
+    MENU("menu", true),
+
+    /** HTML5 tag for <code>menuitem</code>. */
+    MENUITEM("menuitem"),
+
+    /** HTML5 tag for <code>meta</code>. */
+    META("meta"),
+
+    /** HTML5 tag for <code>meter</code>. */
+    METER("meter"),
+
+    /** HTML5 tag for <code>nav</code>. */
+    NAV("nav"),
+
+    /** HTML5 tag for <code>noscript</code>. */
+    NOSCRIPT("noscript"),
+
+    /** HTML5 tag for <code>object</code>. */
+    OBJECT("object"),
+
+    /** HTML5 tag for <code>ol</code>. */
+    OL("ol", true),
+
+    /** HTML5 tag for <code>optgroup</code>. */
+    OPTGROUP("optgroup"),
+
+    /** HTML5 tag for <code>option</code>. */
+    OPTION("option"),
+
+    /** HTML5 tag for <code>output</code>. */
+    OUTPUT("output"),
+
+    /** HTML5 tag for <code>p</code>. */
+    P("p", true),
+
+    /** HTML5 tag for <code>param</code>. */
+    PARAM("param"),
+
+    /** HTML5 tag for <code>picture</code>. */
+    PICTURE("picture"),
+
+    /** HTML5 tag for <code>pre</code>. */
+    PRE("pre", true),
+
+    /** HTML5 tag for <code>progress</code>. */
+    PROGRESS("progress"),
+
+    /** HTML5 tag for <code>q</code>. */
+    Q("q"),
+
+    /** HTML5 tag for <code>rb</code>. */
+    RB("rb"),
+
+    /** HTML5 tag for <code>rp</code>. */
+    RP("rp"),
+
+    /** HTML5 tag for <code>rt</code>. */
+    RT("rt"),
+
+    /** HTML5 tag for <code>rtc</code>. */
+    RTC("rtc"),
+
+    /** HTML5 tag for <code>ruby</code>. */
+    RUBY("ruby"),
+
+    /** HTML5 tag for <code>s</code>. */
+    S("s"),
+
+    /** HTML5 tag for <code>samp</code>. */
+    SAMP("samp"),
+
+    /** HTML5 tag for <code>script</code>. */
+    SCRIPT("script"),
+
+    /** HTML5 tag for <code>section</code>. */
+    SECTION("section"),
+
+    /** HTML5 tag for <code>select</code>. */
+    SELECT("select"),
+
+    /** HTML5 tag for <code>small</code>. */
+    SMALL("small"),
+
+    /** HTML5 tag for <code>source</code>. */
+    SOURCE("source"),
+
+    /** HTML5 tag for <code>span</code>. */
+    SPAN("span"),
+
+    /** HTML5 tag for <code>strong</code>. */
+    STRONG("strong"),
+
+    /** HTML5 tag for <code>style</code>. */
+    STYLE("style"),
+
+    /** HTML5 tag for <code>sub</code>. */
+    SUB("sub"),
+
+    /** HTML5 tag for <code>summary</code>. */
+    SUMMARY("summary"),
+
+    /** HTML5 tag for <code>sup</code>. */
+    SUP("sup"),
+
+    /** HTML5 tag for <code>svg</code>. */
+    SVG("svg"),
+
+    /** HTML5 tag for <code>table</code>. */
+    TABLE("table", true),
+
+    /** HTML5 tag for <code>tbody</code>. */
+    TBODY("tbody"),
+
+    /** HTML5 tag for <code>td</code>. */
+    TD("td", true),
+
+    /** HTML5 tag for <code>template</code>. */
+    TEMPLATE("template"),
+
+    /** HTML5 tag for <code>textarea</code>. */
+    TEXTAREA("textarea"),
+
+    /** HTML5 tag for <code>tfoot</code>. */
+    TFOOT("tfoot"),
+
+    /** HTML5 tag for <code>th</code>. */
+    TH("th", true),
+
+    /** HTML5 tag for <code>thead</code>. */
+    THEAD("thead"),
+
+    /** HTML5 tag for <code>time</code>. */
+    TIME("time"),
+
+    /** HTML5 tag for <code>title</code>. */
+    TITLE("title", true),
+
+    /** HTML5 tag for <code>tr</code>. */
+    TR("tr", true),
+
+    /** HTML5 tag for <code>track</code>. */
+    TRACK("track"),
+
+    /** HTML5 tag for <code>u</code>. */
+    U("u"),
+
+    /** HTML5 tag for <code>ul</code>. */
+    UL("ul", true),
+
+    /** HTML5 tag for <code>var</code>. */
+    VAR("var"),
+
+    /** HTML5 tag for <code>video</code>. */
+    VIDEO("video"),
+
+    /** HTML5 tag for <code>wbr</code>. */
+    WBR("wbr");
+
+    private static final Map<String, HtmlTag> TAGS = new HashMap<>();
+
+    static {
+        for (HtmlTag tag : values()) {
+            TAGS.put(tag.name, tag);
+        }
+    }
+
+    private final String name;
+
+    private final boolean block;
+
+    HtmlTag(String name) {
+        this(name, false);
+    }
+
+    HtmlTag(String name, boolean block) {
+        this.name = name;
+        this.block = block;
+    }
+
+    /**
+     * Returns the tag with the given name.
+     *
+     * @param name the name of the tag, in lower case
+     * @return the tag, or {@code null} if there is no HTML5 tag with this name
+     */
+    public static HtmlTag forName(String name) {
+        return TAGS.get(name);
+    }
+
+    /**
+     * Indicates if this is a block tag, like {@link javax.swing.text.html.HTML.Tag#isBlock()} for the same tag of
+     * {@link HtmlMarkup}: the XML sinks write a line break before the start of block tags.
+     *
+     * @return true if this is a block tag
+     */
+    public boolean isBlock() {
+        return block;
+    }
+
+    /**
+     * Returns the name of the tag.
+     *
+     * @return the name of the tag, in lower case
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
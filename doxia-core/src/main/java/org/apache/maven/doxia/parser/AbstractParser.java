@@ -25,13 +25,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Supplier;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.function.IOSupplier;
+
+import org.apache.maven.doxia.macro.AsyncMacro;
+import org.apache.maven.doxia.macro.DeferredMacroSink;
 import org.apache.maven.doxia.macro.Macro;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroExecutor;
@@ -71,6 +78,11 @@ public abstract class AbstractParser implements Parser, MacroExecutor {
 
     private MacroExecutor macroExecutor = null;
 
+    private int macroConcurrency = 0;
+
+    /** Opens the source being parsed again, if it is parsed through {@link #parse(IOSupplier, Sink, String)}. */
+    private IOSupplier<? extends Reader> sourceSupplier;
+
     private static final String DOXIA_VERSION;
 
     static {
@@ -133,6 +145,94 @@ public abstract class AbstractParser implements Parser, MacroExecutor {
     public void setMacroExecutor(MacroExecutor macroExecutor) {
         this.macroExecutor = macroExecutor;
     }
+
+    /**
+     * Returns the macro executor set with {@link #setMacroExecutor(MacroExecutor)}.
+     *
+     * @return the macro executor overriding the macro execution, or {@code null} if macros are looked up
+     * through the {@link MacroManager}
+     * @since 2.1.1
+     */
+    public MacroExecutor getMacroExecutor() {
+        return macroExecutor;
+    }
+
+    /**
+     * Lets {@link AsyncMacro asynchronous macros} run while the document is being parsed, up to the given number
+     * at the same time. Their events are written in document order once the body ends, or before the sink is
+     * flushed or closed, through a {@link DeferredMacroSink}. A failed macro is reported as a {@link ParseException}
+     * once the document is parsed.
+     *
+     * @param macroConcurrency the maximal number of macros executed at the same time, 0 to execute all macros
+     * synchronously (the default)
+     * @since 2.1.1
+     */
+    public void setMacroConcurrency(int macroConcurrency) {
+        this.macroConcurrency = macroConcurrency;
+    }
+
+    /**
+     * @return the maximal number of asynchronous macros executed at the same time, 0 if they are executed
+     * synchronously
+     * @since 2.1.1
+     */
+    public int getMacroConcurrency() {
+        return macroConcurrency;
+    }
+
+    /**
+     * Creates a new parser of the same type, sharing the configuration of this one (settings, macro manager and
+     * sink wrapper factories) but none of its parsing state. Parsers keep the state of the document being parsed
+     * in their fields, so a parser must not be used by several threads at the same time: copies of a shared
+     * parser allow to parse several documents concurrently.
+     * <p>
+     * The new instance is created with the no-arg constructor of the parser class, then configured with
+     * {@link #copyConfiguration(AbstractParser)}.
+     *
+     * @return a new parser, configured as this one
+     * @since 2.1.1
+     */
+    public AbstractParser copy() {
+        AbstractParser copy;
+        try {
+            copy = getClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create a new instance of " + getClass().getName(), e);
+        }
+        copyConfiguration(copy);
+        return copy;
+    }
+
+    /**
+     * Copies the configuration of this parser to a new instance created by {@link #copy()}.
+     * Parsers with configuration of their own (including injected components) override this method,
+     * calling the overridden one.
+     *
+     * @param copy the new parser, of the same class as this one
+     * @since 2.1.1
+     */
+    protected void copyConfiguration(AbstractParser copy) {
+        copy.macroManager = macroManager;
+        copy.automaticallyRegisteredSinkWrapperFactories = automaticallyRegisteredSinkWrapperFactories;
+        copy.manuallyRegisteredSinkWrapperFactories.addAll(manuallyRegisteredSinkWrapperFactories);
+        copy.emitComments = emitComments;
+        copy.emitAnchors = emitAnchors;
+        copy.macroExecutor = macroExecutor;
+        copy.macroConcurrency = macroConcurrency;
+    }
+
+    /**
+     * Describes the settings of this parser which change the events it emits, so that events recorded with
+     * other settings are not reused, e.g. by the {@link org.apache.maven.doxia.parser.cache.ParseCache}.
+     * Parsers with such settings of their own override this method, adding them to the overridden one.
+     *
+     * @return the configuration fingerprint of this parser
+     * @since 2.1.1
+     */
+    public String getConfigurationFingerprint() {
+        return "emitComments=" + emitComments + ",emitAnchors=" + emitAnchors;
+    }
+
     /**
      * Execute a macro on the given sink.
      *
@@ -149,7 +249,11 @@ public abstract class AbstractParser implements Parser, MacroExecutor {
             macroExecutor.executeMacro(macroId, request, sink);
         } else {
             Macro macro = getMacroManager().getMacro(macroId);
-            macro.execute(sink, request);
+            if (macro instanceof AsyncMacro && sink instanceof DeferredMacroSink) {
+                ((DeferredMacroSink) sink).execute((AsyncMacro) macro, request);
+            } else {
+                macro.execute(sink, request);
+            }
         }
     }
 
@@ -203,6 +307,62 @@ public abstract class AbstractParser implements Parser, MacroExecutor {
         parse(source, sink, null);
     }
 
+    /**
+     * Parses a source which can be read several times. Parsers giving the
+     * {@link MacroRequest#getSourceContent() source content} to macros then read it again when a macro needs it,
+     * instead of keeping a copy of the whole source while parsing.
+     *
+     * @param source opens a new reader on the source each time it is called, the reader is closed by the parser
+     * @param sink the sink to receive the events
+     * @param reference the reference of the source, e.g. the file name, may be {@code null}
+     * @throws ParseException if the source cannot be read or parsed
+     * @since 2.1.1
+     */
+    public void parse(IOSupplier<? extends Reader> source, Sink sink, String reference) throws ParseException {
+        try (Reader reader = source.get()) {
+            sourceSupplier = source;
+            parse(reader, sink, reference);
+        } catch (IOException e) {
+            throw new ParseException("Error reading the input source", e);
+        } finally {
+            sourceSupplier = null;
+        }
+    }
+
+    /**
+     * Indicates if the source being parsed can be read again by {@link #getSourceContent(String)}, so that there is
+     * no need to keep a copy of its content.
+     *
+     * @return true if the source is parsed through {@link #parse(IOSupplier, Sink, String)}
+     * @since 2.1.1
+     */
+    protected boolean isSourceReadable() {
+        return sourceSupplier != null;
+    }
+
+    /**
+     * Gives the content of the source being parsed to macros, reading it only if they need it.
+     *
+     * @param content the content of the source if the parser keeps it, or {@code null} to read the source again
+     * @return the supplier of the source content, which throws an {@link UncheckedIOException} if the source cannot
+     * be read again
+     * @since 2.1.1
+     */
+    protected Supplier<String> getSourceContent(String content) {
+        IOSupplier<? extends Reader> source = sourceSupplier;
+        if (content != null || source == null) {
+            return () -> content;
+        }
+
+        return () -> {
+            try (Reader reader = source.get()) {
+                return IOUtils.toString(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read the source again for macro execution", e);
+            }
+        };
+    }
+
     /**
      * Creates a sink pipeline built from all registered {@link SinkWrapperFactory} objects.
      * For secondary parsers (i.e. ones with {@link #isSecondParsing()} returning {@code true} just the given original sink is returned.
@@ -218,9 +378,41 @@ public abstract class AbstractParser implements Parser, MacroExecutor {
         for (SinkWrapperFactory factory : getSinkWrapperFactories()) {
             currentSink = factory.createWrapper(currentSink);
         }
+        if (macroConcurrency > 0) {
+            currentSink = new DeferredMacroSink(currentSink, macroConcurrency);
+        }
         return currentSink;
     }
 
+    /**
+     * Completes the {@link AsyncMacro asynchronous macros} of a sink pipeline created by
+     * {@link #getWrappedSink(Sink)}, so that their failures are reported before the parser returns.
+     * Parsers call this method once the document is parsed.
+     *
+     * @param wrappedSink the sink pipeline
+     * @throws ParseException if an asynchronous macro failed, located at the macro
+     * @since 2.1.1
+     */
+    protected void completeMacros(Sink wrappedSink) throws ParseException {
+        if (wrappedSink instanceof DeferredMacroSink) {
+            ((DeferredMacroSink) wrappedSink).complete();
+        }
+    }
+
+    /**
+     * Cancels the {@link AsyncMacro asynchronous macros} still pending in a sink pipeline created by
+     * {@link #getWrappedSink(Sink)}, interrupting the running ones. Parsers call this method once the document is
+     * parsed, successfully or not: the macros completed by {@link #completeMacros(Sink)} are not affected.
+     *
+     * @param wrappedSink the sink pipeline, may be <code>null</code>
+     * @since 2.1.1
+     */
+    protected void cancelMacros(Sink wrappedSink) {
+        if (wrappedSink instanceof DeferredMacroSink) {
+            ((DeferredMacroSink) wrappedSink).cancel();
+        }
+    }
+
     /**
      * Set <code>secondParsing</code> to true, if this represents a secondary parsing of the same source.
      *
@@ -22,15 +22,39 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.Hashtable;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -60,6 +84,8 @@ import org.xml.sax.SAXException;
  * @since 1.0
  */
 public abstract class AbstractXmlParser extends AbstractParser implements XmlMarkup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractXmlParser.class);
+
     /**
      * Entity pattern for HTML entity, i.e. &#38;nbsp;
      * "<!ENTITY(\\s)+([^>|^\\s]+)(\\s)+\"(\\s)*(&[a-zA-Z]{2,6};)(\\s)*\"(\\s)*>
@@ -78,6 +104,35 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
     private static final Pattern PATTERN_ENTITY_2 =
             Pattern.compile(ENTITY_START + "(\\s)+([^>|^\\s]+)(\\s)+\"(\\s)*(&(#x?[0-9a-fA-F]{1,5};)*)(\\s)*\"(\\s)*>");
 
+    /**
+     * The external identifier of a doctype or of a parameter entity declaration, its system literal being in the
+     * group 1 or 2.
+     */
+    private static final Pattern PATTERN_EXTERNAL_ID = Pattern.compile(
+            "(?:SYSTEM|PUBLIC\\s+(?:\"[^\"]*\"|'[^']*'))\\s+(?:\"([^\"]*)\"|'([^']*)')");
+
+    /** The start of the doctype text, i.e. the root element name followed by the external identifier. */
+    private static final Pattern PATTERN_DOCTYPE_EXTERNAL_ID =
+            Pattern.compile("^\\s*[^\\s\\[>]+\\s+" + PATTERN_EXTERNAL_ID.pattern());
+
+    /** A parameter entity declaration followed by its external identifier. */
+    private static final Pattern PATTERN_PARAMETER_ENTITY_EXTERNAL_ID =
+            Pattern.compile(ENTITY_START + "\\s+%\\s+[^\\s>]+\\s+" + PATTERN_EXTERNAL_ID.pattern());
+
+    /**
+     * The external DTDs, keyed by the content resolved by {@link CachedFileEntityResolver}: each cached DTD is parsed
+     * once, being dropped with its content once it is evicted from {@link CachedFileEntityResolver#ENTITY_CACHE}, and
+     * a DTD read again is parsed again.
+     */
+    private static final Map<byte[], ExternalDtd> EXTERNAL_DTDS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Runs the validators of parallel validation. */
+    private static final ExecutorService VALIDATION_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "doxia-xml-validator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private boolean ignorableWhitespace;
 
     private boolean collapsibleWhitespace;
@@ -88,6 +143,8 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
 
     private boolean validate = false;
 
+    private boolean parallelValidation = false;
+
     /**
      * If set the parser will be loaded with all single characters
      * from the XHTML specification.
@@ -100,9 +157,20 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
      */
     private boolean addDefaultEntities = true;
 
+    /**
+     * The validator of this parser, reused for all the documents it parses so that its readers are pooled.
+     * The compiled XML Schemas are shared by all validators.
+     */
+    private XmlValidator validator;
+
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
         init();
 
+        if (isValidate() && isParallelValidation()) {
+            parseWithParallelValidation(source, sink, reference);
+            return;
+        }
+
         Reader src = source;
 
         // 1 first parsing if validation is required
@@ -114,16 +182,67 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
                 throw new ParseException("Error reading the model", e);
             }
 
-            XmlValidator validator = new XmlValidator();
-            validator.setDefaultHandler(new XmlValidator.MessagesErrorHandler());
-            validator.setEntityResolver(new CachedFileEntityResolver());
-
-            validator.validate(content);
+            getValidator().validate(content);
 
             src = new StringReader(content);
         }
 
         // 2 second parsing to process
+        parsePull(src, sink, reference);
+
+        setSecondParsing(false);
+        init();
+    }
+
+    /**
+     * Parses the source once, the characters read by the pull parser being validated on another thread.
+     * Validation errors take precedence over parsing errors, as with sequential validation.
+     */
+    private void parseWithParallelValidation(Reader source, Sink sink, String reference) throws ParseException {
+        ParallelValidation validation = new ParallelValidation(getValidator());
+        Reader src = validation.tee(source);
+        try {
+            parsePull(src, sink, reference);
+        } catch (ParseException e) {
+            // let the validator see the whole document, its error (if any) explains this one
+            validation.drain(src);
+            validation.close();
+            validation.await();
+            throw e;
+        } finally {
+            validation.close();
+        }
+        validation.await();
+
+        setSecondParsing(false);
+        init();
+    }
+
+    /**
+     * @return the validator of this parser, a parser being used by one thread at a time
+     */
+    private XmlValidator getValidator() {
+        if (validator == null) {
+            validator = createValidator();
+        }
+        return validator;
+    }
+
+    /**
+     * Creates the validator of this parser, reused for all the documents it validates.
+     *
+     * @return a new validator, not null
+     * @since 2.1.1
+     */
+    protected XmlValidator createValidator() {
+        XmlValidator xmlValidator = new XmlValidator();
+        xmlValidator.setDefaultHandler(new XmlValidator.MessagesErrorHandler());
+        xmlValidator.setEntityResolver(new CachedFileEntityResolver());
+        return xmlValidator;
+    }
+
+    private void parsePull(Reader src, Sink sink, String reference) throws ParseException {
+        Sink wrappedSink = null;
         try {
             XmlPullParser parser = addDefaultEntities
                     ? new MXParser(EntityReplacementMap.defaultEntityReplacementMap)
@@ -135,15 +254,16 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
             // Note: do it after input is set, otherwise values are reset
             initXmlParser(parser);
 
-            parseXml(parser, getWrappedSink(sink), reference);
+            wrappedSink = getWrappedSink(sink);
+            parseXml(parser, wrappedSink, reference);
+            completeMacros(wrappedSink);
         } catch (XmlPullParserException ex) {
             throw new ParseException("Error parsing the model", ex, ex.getLineNumber(), ex.getColumnNumber());
         } catch (MacroExecutionException ex) {
             throw new ParseException("Macro execution failed", ex);
+        } finally {
+            cancelMacros(wrappedSink);
         }
-
-        setSecondParsing(false);
-        init();
     }
 
     /**
@@ -244,10 +364,7 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
                 // nop
             } else if (eventType == XmlPullParser.DOCDECL) {
                 addLocalEntities(parser, parser.getText());
-
-                for (byte[] res : CachedFileEntityResolver.ENTITY_CACHE.values()) {
-                    addDTDEntities(parser, new String(res));
-                }
+                addExternalEntities(parser, parser.getText());
             }
 
             try {
@@ -511,6 +628,25 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
         return entities;
     }
 
+    @Override
+    protected void copyConfiguration(AbstractParser copy) {
+        super.copyConfiguration(copy);
+        AbstractXmlParser xmlCopy = (AbstractXmlParser) copy;
+        xmlCopy.ignorableWhitespace = ignorableWhitespace;
+        xmlCopy.collapsibleWhitespace = collapsibleWhitespace;
+        xmlCopy.trimmableWhitespace = trimmableWhitespace;
+        xmlCopy.validate = validate;
+        xmlCopy.parallelValidation = parallelValidation;
+        xmlCopy.addDefaultEntities = addDefaultEntities;
+    }
+
+    @Override
+    public String getConfigurationFingerprint() {
+        return super.getConfigurationFingerprint() + ",ignorableWhitespace=" + ignorableWhitespace
+                + ",collapsibleWhitespace=" + collapsibleWhitespace + ",trimmableWhitespace=" + trimmableWhitespace
+                + ",validate=" + validate + ",addDefaultEntities=" + addDefaultEntities;
+    }
+
     /**
      * <p>isValidate.</p>
      *
@@ -532,6 +668,29 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
         this.validate = validate;
     }
 
+    /**
+     * @return <code>true</code> if XML content is validated while it is parsed, <code>false</code> otherwise.
+     * @see #setParallelValidation(boolean)
+     * @since 2.1.1
+     */
+    public boolean isParallelValidation() {
+        return parallelValidation;
+    }
+
+    /**
+     * Specify a flag to validate the XML content on another thread while it is parsed, instead of validating it
+     * before parsing. The content is then read only once, and the validation time mostly overlaps the parsing
+     * time. As a consequence, the sink may have received events for an invalid document when the
+     * {@link ParseException} reporting the validation error is thrown.
+     * This has no effect if {@link #isValidate() validation} is not enabled.
+     *
+     * @param parallelValidation the parallelValidation to set
+     * @since 2.1.1
+     */
+    public void setParallelValidation(boolean parallelValidation) {
+        this.parallelValidation = parallelValidation;
+    }
+
     /**
      * @since 2.0.0-M4
      */
@@ -551,27 +710,18 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
     // ----------------------------------------------------------------------
 
     /**
-     * Add an entity given by <code>entityName</code> and <code>entityValue</code> to {@link #entities}.
-     * <br>
-     * By default, we exclude the default XML entities: &#38;amp;, &#38;lt;, &#38;gt;, &#38;quot; and &#38;apos;.
+     * Add the given entities to {@link #entities} and define them into the parser.
      *
      * @param parser not null
-     * @param entityName not null
-     * @param entityValue not null
+     * @param entities the entity names and values, not null
      * @throws XmlPullParserException if any
      * @see XmlPullParser#defineEntityReplacementText(String, String)
      */
-    private void addEntity(XmlPullParser parser, String entityName, String entityValue) throws XmlPullParserException {
-        if (entityName.endsWith("amp")
-                || entityName.endsWith("lt")
-                || entityName.endsWith("gt")
-                || entityName.endsWith("quot")
-                || entityName.endsWith("apos")) {
-            return;
+    private void addEntities(XmlPullParser parser, Map<String, String> entities) throws XmlPullParserException {
+        for (Map.Entry<String, String> entity : entities.entrySet()) {
+            parser.defineEntityReplacementText(entity.getKey(), entity.getValue());
+            getLocalEntities().put(entity.getKey(), entity.getValue());
         }
-
-        parser.defineEntityReplacementText(entityName, entityValue);
-        getLocalEntities().put(entityName, entityValue);
     }
 
     /**
@@ -594,13 +744,85 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
             int start = text.indexOf('[');
             int end = text.lastIndexOf(']');
             if (start != -1 && end != -1) {
-                addDTDEntities(parser, text.substring(start + 1, end));
+                addEntities(parser, parseEntities(text.substring(start + 1, end)));
+            }
+        }
+    }
+
+    /**
+     * Handle entities declared in the external DTDs referenced by a doctype, either as its external identifier or as
+     * parameter entities, e.g.
+     * <pre>
+     * &lt;!DOCTYPE html PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
+     *   "http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd"&gt;
+     * </pre>
+     * The DTDs referenced by these DTDs are followed. A DTD is only read from the network when the document is
+     * validated, the validator resolving it anyway; otherwise it is resolved offline, a DTD which cannot be resolved
+     * being skipped.
+     *
+     * @param parser not null
+     * @param text the doctype text, not null
+     * @throws XmlPullParserException if any
+     */
+    private void addExternalEntities(XmlPullParser parser, String text) throws XmlPullParserException {
+        CachedFileEntityResolver resolver = isValidate()
+                ? new CachedFileEntityResolver()
+                : new CachedFileEntityResolver(CachedFileEntityResolver.getDefaultCacheDirectory(), true);
+
+        Set<String> visited = new HashSet<>();
+        Deque<String> systemIds = new ArrayDeque<>();
+        Matcher doctype = PATTERN_DOCTYPE_EXTERNAL_ID.matcher(text);
+        if (doctype.find()) {
+            systemIds.add(getSystemLiteral(doctype));
+        }
+        addParameterEntitySystemIds(systemIds, text, null);
+
+        while (!systemIds.isEmpty()) {
+            String systemId = systemIds.poll();
+            if (!visited.add(systemId)) {
+                continue;
+            }
+
+            byte[] content;
+            try {
+                content = resolver.resolve(systemId);
+            } catch (SAXException | IllegalArgumentException e) {
+                LOGGER.debug("Skipping the entities of the unresolved SYSTEM '{}'", systemId, e);
+                continue;
             }
+
+            ExternalDtd dtd = EXTERNAL_DTDS.computeIfAbsent(content, key -> new ExternalDtd(systemId, key));
+            addEntities(parser, dtd.entities);
+            systemIds.addAll(dtd.systemIds);
+        }
+    }
+
+    /**
+     * @param systemIds the system ids to add to, not null
+     * @param text a doctype or a DTD, not null
+     * @param base the system id of the DTD, relative system ids being resolved against it, null for a doctype
+     */
+    private static void addParameterEntitySystemIds(Collection<String> systemIds, String text, String base) {
+        Matcher matcher = PATTERN_PARAMETER_ENTITY_EXTERNAL_ID.matcher(text);
+        while (matcher.find()) {
+            String systemId = getSystemLiteral(matcher);
+            if (base != null) {
+                try {
+                    systemId = URI.create(base).resolve(systemId).toString();
+                } catch (IllegalArgumentException e) {
+                    // not a URI, e.g. a Windows path: resolved as is
+                }
+            }
+            systemIds.add(systemId);
         }
     }
 
+    private static String getSystemLiteral(Matcher matcher) {
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
     /**
-     * Handle entities defined in external doctypes as the following:
+     * Parses the entities declared in a doctype or in an external DTD, e.g.
      * <pre>
      * &lt;!DOCTYPE foo [
      *   &lt;!-- These are the entity sets for ISO Latin 1 characters for the XHTML --&gt;
@@ -609,54 +831,231 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
      *   %HTMLlat1;
      * ]&gt;
      * </pre>
+     * Each declaration is matched on its own, from its <code>&lt;!ENTITY</code> up to the next one.
+     * <br>
+     * By default, we exclude the default XML entities: &#38;amp;, &#38;lt;, &#38;gt;, &#38;quot; and &#38;apos;.
      *
-     * @param parser not null
      * @param text not null
-     * @throws XmlPullParserException if any
+     * @return the entity names and values, in declaration order (a redeclared entity comes at its last position)
      */
-    private void addDTDEntities(XmlPullParser parser, String text) throws XmlPullParserException {
-        int entitiesCount = DoxiaStringUtils.countMatches(text, ENTITY_START);
-        if (entitiesCount > 0) {
-            final String txt = DoxiaStringUtils.replace(text, ENTITY_START, "\n" + ENTITY_START);
-            try (BufferedReader reader = new BufferedReader(new StringReader(txt))) {
-                String line;
-                String tmpLine = "";
-                Matcher matcher;
-                while ((line = reader.readLine()) != null) {
-                    tmpLine += "\n" + line;
-                    matcher = PATTERN_ENTITY_1.matcher(tmpLine);
-                    if (matcher.find() && matcher.groupCount() == 7) {
-                        String entityName = matcher.group(2);
-                        String entityValue = matcher.group(5);
-
-                        addEntity(parser, entityName, entityValue);
-                        tmpLine = "";
-                    } else {
-                        matcher = PATTERN_ENTITY_2.matcher(tmpLine);
-                        if (matcher.find() && matcher.groupCount() == 8) {
-                            String entityName = matcher.group(2);
-                            String entityValue = matcher.group(5);
-
-                            addEntity(parser, entityName, entityValue);
-                            tmpLine = "";
-                        }
+    static Map<String, String> parseEntities(String text) {
+        Map<String, String> entities = new LinkedHashMap<>();
+        int start = text.indexOf(ENTITY_START);
+        while (start != -1) {
+            int end = text.indexOf(ENTITY_START, start + ENTITY_START.length());
+            String declaration = text.substring(start, end != -1 ? end : text.length());
+
+            Matcher matcher = PATTERN_ENTITY_1.matcher(declaration);
+            if (!matcher.find()) {
+                matcher = PATTERN_ENTITY_2.matcher(declaration);
+                if (!matcher.find()) {
+                    matcher = null;
+                }
+            }
+            if (matcher != null) {
+                String entityName = matcher.group(2);
+                if (!(entityName.endsWith("amp")
+                        || entityName.endsWith("lt")
+                        || entityName.endsWith("gt")
+                        || entityName.endsWith("quot")
+                        || entityName.endsWith("apos"))) {
+                    entities.remove(entityName);
+                    entities.put(entityName, matcher.group(5));
+                }
+            }
+
+            start = end;
+        }
+        return entities.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * The entities declared by an external DTD and the system ids of the DTDs it references.
+     */
+    private static final class ExternalDtd {
+        private final Map<String, String> entities;
+
+        private final List<String> systemIds = new ArrayList<>();
+
+        ExternalDtd(String systemId, byte[] content) {
+            String text = new String(content);
+            entities = parseEntities(text);
+            addParameterEntitySystemIds(systemIds, text, systemId);
+        }
+    }
+
+    /**
+     * A validation running on {@link #VALIDATION_EXECUTOR}, fed with the chunks of characters read by the parser
+     * through a bounded queue: each chunk is validated as soon as it is read.
+     */
+    private static final class ParallelValidation {
+        /** The maximal number of chunks read ahead of the validator, the parser waits for it beyond. */
+        private static final int QUEUE_SIZE = 16;
+
+        /** The chunk marking the end of the document. */
+        private static final char[] END = new char[0];
+
+        private final BlockingQueue<char[]> chunks = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        private final Future<?> result;
+
+        /** Set once the validator stops reading, the chunks being dropped from then on. */
+        private volatile boolean stopped;
+
+        private boolean closed;
+
+        ParallelValidation(XmlValidator validator) {
+            result = VALIDATION_EXECUTOR.submit(() -> {
+                try {
+                    validator.validate(new ChunkReader());
+                } finally {
+                    stopped = true;
+                    chunks.clear();
+                }
+                return null;
+            });
+        }
+
+        /**
+         * @param source the source of the parser, not null
+         * @return a reader handing a copy of each chunk read from the source to the validator
+         */
+        Reader tee(Reader source) {
+            return new Reader() {
+                @Override
+                public int read(char[] cbuf, int off, int len) throws IOException {
+                    int n = source.read(cbuf, off, len);
+                    if (n > 0) {
+                        put(Arrays.copyOfRange(cbuf, off, off + n));
                     }
+                    return n;
                 }
+
+                @Override
+                public void close() throws IOException {
+                    source.close();
+                }
+            };
+        }
+
+        private void put(char[] chunk) throws InterruptedIOException {
+            try {
+                // the validator may stop on error while the queue is full
+                while (!stopped && !chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    // wait for the validator
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while validating the model");
+            }
+        }
+
+        void drain(Reader source) {
+            try {
+                IOUtils.consume(source);
             } catch (IOException e) {
-                // nop
+                // the validator stopped reading, on error
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                try {
+                    put(END);
+                } catch (InterruptedIOException e) {
+                    // the interruption is reported by await()
+                }
+            }
+        }
+
+        void await() throws ParseException {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParseException("Interrupted while validating the model", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ParseException) {
+                    throw (ParseException) e.getCause();
+                }
+                throw new ParseException("Error validating the model", e);
+            }
+        }
+
+        /**
+         * The reader of the validator, returning the chunks in turn up to the end of the document.
+         */
+        private final class ChunkReader extends Reader {
+            private char[] chunk;
+
+            private int pos;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                try {
+                    while (chunk != END && (chunk == null || pos == chunk.length)) {
+                        chunk = chunks.take();
+                        pos = 0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while validating the model");
+                }
+                if (chunk == END) {
+                    return -1;
+                }
+                int n = Math.min(len, chunk.length - pos);
+                System.arraycopy(chunk, pos, cbuf, off, n);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+                // the chunks left are dropped once the validator stops
             }
         }
     }
 
     /**
      * Implementation of the callback mechanism <code>EntityResolver</code>.
-     * Using a mechanism of cached files in temp dir to improve performance when using the <code>XMLReader</code>.
+     * Using a mechanism of cached files to improve performance when using the <code>XMLReader</code>.
+     * <p>
+     * The resolved remote entities are kept in memory, for the most recently used ones, and optionally in a local cache
+     * directory shared by successive builds, configured by the <code>doxia.entityCache.directory</code> system
+     * property. In offline mode, configured by the <code>doxia.entityCache.offline</code> system property, an entity
+     * which is neither cached nor local is not resolved. Local files are read again each time, so that they never
+     * go stale.
      */
     public static class CachedFileEntityResolver implements EntityResolver {
         private static final Logger LOGGER = LoggerFactory.getLogger(CachedFileEntityResolver.class);
 
-        /** Map with systemId as key and the content of systemId as byte[]. */
-        protected static final Map<String, byte[]> ENTITY_CACHE = new Hashtable<>();
+        /** The system property defining the default cache directory, none by default. */
+        public static final String CACHE_DIRECTORY_PROPERTY = "doxia.entityCache.directory";
+
+        /** The system property defining the default offline mode, <code>false</code> by default. */
+        public static final String OFFLINE_PROPERTY = "doxia.entityCache.offline";
+
+        /** The maximal number of entities kept in {@link #ENTITY_CACHE}. */
+        private static final int MAX_CACHED_ENTITIES = 64;
+
+        /**
+         * Map with systemId as key and the content of systemId as byte[], in access order: the least recently used
+         * entities are evicted. Iterating requires to synchronize on the map.
+         */
+        protected static final Map<String, byte[]> ENTITY_CACHE =
+                Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                        return size() > MAX_CACHED_ENTITIES;
+                    }
+                });
 
         private static final Map<String, String> WELL_KNOWN_SYSTEM_IDS = new HashMap<>();
 
@@ -671,7 +1070,46 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
             WELL_KNOWN_SYSTEM_IDS.put("https://www.w3.org/TR/xhtml1/DTD/xhtml-lat1.ent", "xhtml-lat1.ent");
         }
 
+        private final Path cacheDirectory;
+
+        private final boolean offline;
+
+        /**
+         * Creates a resolver configured by the {@link #CACHE_DIRECTORY_PROPERTY} and {@link #OFFLINE_PROPERTY}
+         * system properties.
+         */
+        public CachedFileEntityResolver() {
+            this(getDefaultCacheDirectory(), Boolean.getBoolean(OFFLINE_PROPERTY));
+        }
+
+        /**
+         * @param cacheDirectory the directory where remote entities are cached, may be null
+         * @param offline if true, remote entities are only resolved from the caches
+         * @since 2.1.1
+         */
+        public CachedFileEntityResolver(Path cacheDirectory, boolean offline) {
+            this.cacheDirectory = cacheDirectory;
+            this.offline = offline;
+        }
+
+        /**
+         * @return the cache directory configured by the {@link #CACHE_DIRECTORY_PROPERTY} system property, or null
+         */
+        static Path getDefaultCacheDirectory() {
+            String directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+            return directory != null ? Paths.get(directory) : null;
+        }
+
         public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+            return toInputSource(publicId, systemId, resolve(systemId));
+        }
+
+        /**
+         * @param systemId not null
+         * @return the content of the entity, the very array kept in {@link #ENTITY_CACHE} for a cached entity
+         * @throws SAXException if the entity cannot be resolved
+         */
+        byte[] resolve(String systemId) throws SAXException {
             byte[] res = ENTITY_CACHE.get(systemId);
             // already cached?
             if (res == null) {
@@ -691,8 +1129,13 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
                         uri = Paths.get(systemId).toUri();
                     }
 
-                    LOGGER.debug("Resolving SYSTEM '{}' from URI resource '{}'", systemId, uri);
-                    res = toByteArray(uri.toURL());
+                    if ("file".equals(uri.getScheme())) {
+                        // local files are read again each time, never kept in the cache where they would go stale
+                        LOGGER.debug("Resolving SYSTEM '{}' from URI resource '{}'", systemId, uri);
+                        return toByteArray(toUrl(uri));
+                    }
+
+                    res = resolveUri(systemId, uri);
                 }
 
                 ENTITY_CACHE.put(systemId, res);
@@ -700,6 +1143,10 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
                 LOGGER.debug("Resolved SYSTEM '{}' from cache", systemId);
             }
 
+            return res;
+        }
+
+        private static InputSource toInputSource(String publicId, String systemId, byte[] res) {
             InputSource is = new InputSource(new ByteArrayInputStream(res));
             is.setPublicId(publicId);
             is.setSystemId(systemId);
@@ -707,6 +1154,77 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
             return is;
         }
 
+        /**
+         * Remote URIs are first looked up in the cache directory.
+         */
+        private byte[] resolveUri(String systemId, URI uri) throws SAXException {
+            Path cached = cacheDirectory != null ? cacheDirectory.resolve(getCacheFileName(systemId)) : null;
+            if (cached != null && Files.isRegularFile(cached)) {
+                try {
+                    LOGGER.debug("Resolving SYSTEM '{}' from cache file '{}'", systemId, cached);
+                    return Files.readAllBytes(cached);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot read cache file '{}', resolving '{}' again", cached, systemId, e);
+                }
+            }
+
+            if (offline) {
+                throw new SAXException("Cannot resolve SYSTEM '" + systemId + "' in offline mode: it is not cached");
+            }
+
+            LOGGER.debug("Resolving SYSTEM '{}' from URI resource '{}'", systemId, uri);
+            byte[] res = toByteArray(toUrl(uri));
+            if (cached != null) {
+                writeCacheFile(cached, res);
+            }
+            return res;
+        }
+
+        /**
+         * The cache file of an entity is named after the SHA-256 digest of its system id.
+         */
+        private static String getCacheFileName(String systemId) {
+            try {
+                byte[] digest =
+                        MessageDigest.getInstance("SHA-256").digest(systemId.getBytes(StandardCharsets.UTF_8));
+                StringBuilder name = new StringBuilder(digest.length * 2);
+                for (byte b : digest) {
+                    name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return name.toString();
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform supports SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Writes the cache file through a temporary file, so that concurrent builds never read a partial one.
+         * The cache being optional, a failure is only logged.
+         */
+        private static void writeCacheFile(Path cached, byte[] content) {
+            try {
+                Files.createDirectories(cached.getParent());
+                Path tmp = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".tmp");
+                try {
+                    Files.write(tmp, content);
+                    Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Cannot write cache file '{}'", cached, e);
+            }
+        }
+
+        private static URL toUrl(URI uri) throws SAXException {
+            try {
+                return uri.toURL();
+            } catch (MalformedURLException | IllegalArgumentException e) {
+                throw new SAXException("Invalid URI: " + uri, e);
+            }
+        }
+
         /**
          * @param url not null
          * @return return an array of byte
@@ -18,8 +18,6 @@
  */
 package org.apache.maven.doxia.parser;
 
-import javax.swing.text.html.HTML.Attribute;
-
 import java.io.Reader;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
@@ -31,6 +29,7 @@ import java.util.regex.Pattern;
 
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.markup.HtmlMarkup;
+import org.apache.maven.doxia.markup.HtmlTag;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.EventCapturingSinkProxy;
@@ -57,51 +56,51 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     private static final Set<String> UNMATCHED_XHTML5_SIMPLE_ELEMENTS = new HashSet<>();
 
     static {
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.AREA.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.AUDIO.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.BUTTON.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.CANVAS.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.COL.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.COLGROUP.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.COMMAND.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.DATA.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.DATALIST.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.DETAILS.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.DIALOG.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.EMBED.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.FIELDSET.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.FORM.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.HGROUP.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.IFRAME.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.INPUT.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.KEYGEN.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.LABEL.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.LEGEND.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.MAP.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.MENU.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.MENUITEM.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.METER.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.NOSCRIPT.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.OBJECT.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.OPTGROUP.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.OPTION.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.OUTPUT.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.PARAM.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.PICTURE.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.PROGRESS.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.SELECT.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.SOURCE.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.SUMMARY.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.SVG.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.TEMPLATE.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.TEXTAREA.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.TBODY.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.THEAD.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.TFOOT.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.TIME.toString());
-        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlMarkup.TRACK.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.VAR.toString());
-        UNMATCHED_XHTML5_ELEMENTS.add(HtmlMarkup.VIDEO.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.AREA.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.AUDIO.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.BUTTON.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.CANVAS.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.COL.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.COLGROUP.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.COMMAND.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.DATA.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.DATALIST.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.DETAILS.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.DIALOG.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.EMBED.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.FIELDSET.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.FORM.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.HGROUP.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.IFRAME.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.INPUT.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.KEYGEN.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.LABEL.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.LEGEND.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.MAP.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.MENU.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.MENUITEM.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.METER.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.NOSCRIPT.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.OBJECT.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.OPTGROUP.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.OPTION.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.OUTPUT.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.PARAM.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.PICTURE.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.PROGRESS.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.SELECT.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.SOURCE.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.SUMMARY.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.SVG.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.TEMPLATE.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.TEXTAREA.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.TBODY.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.THEAD.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.TFOOT.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.TIME.toString());
+        UNMATCHED_XHTML5_SIMPLE_ELEMENTS.add(HtmlTag.TRACK.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.VAR.toString());
+        UNMATCHED_XHTML5_ELEMENTS.add(HtmlTag.VIDEO.toString());
     }
 
     /**
@@ -985,13 +984,13 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     }
 
     private void handleAStart(Sink sink, SinkEventAttributeSet attribs) {
-        String href = (String) attribs.getAttribute(Attribute.HREF.toString());
+        String href = (String) attribs.getAttribute(SinkEventAttributes.HREF);
 
         if (href != null) {
             int hashIndex = href.indexOf('#');
             if (hashIndex != -1
                     && !DoxiaUtils.isExternalLink(href)
-                    && !"external".equals(attribs.getAttribute(Attribute.REL.toString()))) {
+                    && !"external".equals(attribs.getAttribute(SinkEventAttributes.REL))) {
                 String hash = href.substring(hashIndex + 1);
 
                 if (!DoxiaUtils.isValidId(hash)) {
@@ -1003,11 +1002,11 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
             sink.link(href, attribs);
             isLink = true;
         } else {
-            String id = (String) attribs.getAttribute(Attribute.ID.toString());
+            String id = (String) attribs.getAttribute(SinkEventAttributes.ID);
             if (id == null) {
                 // although the "name" attribute is obsolete in HTML5, it is still allowed
                 // (https://www.w3.org/TR/html5-diff/#obsolete-attributes)
-                id = (String) attribs.getAttribute(Attribute.NAME.toString());
+                id = (String) attribs.getAttribute(SinkEventAttributes.NAME);
             }
             if (id != null) {
                 sink.anchor(validAnchor(id), attribs);
@@ -1017,7 +1016,7 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     }
 
     private boolean handleDivStart(SinkEventAttributeSet attribs, Sink sink) {
-        String divClass = (String) attribs.getAttribute(Attribute.CLASS.toString());
+        String divClass = (String) attribs.getAttribute(SinkEventAttributes.CLASS);
 
         this.divStack.push(divClass);
 
@@ -1051,7 +1050,7 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     }
 
     private void handleImgStart(Sink sink, SinkEventAttributeSet attribs) {
-        String src = (String) attribs.getAttribute(Attribute.SRC.toString());
+        String src = (String) attribs.getAttribute(SinkEventAttributes.SRC);
 
         if (src != null) {
             sink.figureGraphics(src, attribs);
@@ -1077,7 +1076,7 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     private void handleOLStart(Sink sink, SinkEventAttributeSet attribs) {
         int numbering = Sink.NUMBERING_DECIMAL;
         // this will have to be generalized if we handle styles
-        String style = (String) attribs.getAttribute(Attribute.STYLE.toString());
+        String style = (String) attribs.getAttribute(SinkEventAttributes.STYLE);
 
         if (style != null) {
             switch (style) {
@@ -1143,7 +1142,7 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
 
     private void handleTableStart(Sink sink, SinkEventAttributeSet attribs) {
         sink.table(attribs);
-        String givenTableClass = (String) attribs.getAttribute(Attribute.CLASS.toString());
+        String givenTableClass = (String) attribs.getAttribute(SinkEventAttributes.CLASS);
         boolean grid = false;
         if (givenTableClass != null
                 && BODYTABLEBORDER_CLASS_PATTERN.matcher(givenTableClass).matches()) {
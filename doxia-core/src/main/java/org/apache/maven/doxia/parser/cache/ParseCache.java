@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.MacroExecutor;
+import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.parser.AbstractParser;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.manager.ParserManager;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventLogReader;
+import org.apache.maven.doxia.sink.impl.SinkEventLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An opt-in cache of parsed documents on local disk, for incremental builds of large sites.
+ * <p>
+ * Instead of parsing a document, a parser created through the {@link ParserManager} records its events
+ * in a {@link SinkEventLogWriter Sink event log}, stored in the cache directory and replayed into the given sink.
+ * Further parsing of the same document just replays the stored log. Entries are keyed by a hash of the source
+ * content, its reference, the parser id and class, and the parser settings
+ * ({@link AbstractParser#getConfigurationFingerprint()}).
+ * <p>
+ * Files read by macros, i.e. given as {@code file} parameter or as {@code file:} URL in the {@code url} parameter
+ * (like the snippet macro does), are recorded along with the entry, which is invalidated as soon as one of them
+ * is modified. Their state is taken before the macro reads them, so that a file modified while the document
+ * is parsed invalidates the entry. Documents using a macro with a URL of any other protocol are not cached.
+ * Macros reading files through other parameters are not tracked.
+ * <p>
+ * Each entry is checked against a checksum before its events are replayed: a corrupted entry is parsed again.
+ * <p>
+ * Only parsers extending {@link AbstractParser} are cached, documents of other parsers are parsed as usual.
+ * As the events are only replayed once the whole document has been parsed, the sink does not receive any
+ * event for a document failing to parse.
+ *
+ * @since 2.1.1
+ */
+public class ParseCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParseCache.class);
+
+    /** The version of the format of the entries, part of their key. */
+    private static final int VERSION = 2;
+
+    private static final String ENTRY_EXTENSION = ".dxel";
+
+    private final ParserManager parserManager;
+
+    private final Path directory;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param parserManager the parser manager to look up parsers
+     * @param directory the directory holding the cache entries, created if needed
+     */
+    public ParseCache(ParserManager parserManager, Path directory) {
+        this.parserManager = parserManager;
+        this.directory = directory;
+    }
+
+    /**
+     * Parses the given source model using a parser with given id, or replays the events of a previous parsing
+     * of the same source, and emits Doxia events into the given sink.
+     *
+     * @param source not null reader that provides the source document
+     * @param parserId identifier for the parser to use
+     * @param sink a sink that consumes the Doxia events
+     * @param reference string containing the reference to the source (e.g. filename)
+     * @throws ParserNotFoundException if no parser could be found for the given id
+     * @throws ParseException if the model could not be parsed
+     */
+    public void parse(Reader source, String parserId, Sink sink, String reference)
+            throws ParserNotFoundException, ParseException {
+        // a parser of its own, as its macro executor is replaced while recording
+        Parser parser = parserManager.createParser(parserId);
+        if (!(parser instanceof AbstractParser)) {
+            parser.parse(source, sink, reference);
+            return;
+        }
+
+        String content;
+        try {
+            content = IOUtils.toString(source);
+        } catch (IOException e) {
+            throw new ParseException("Failed reading source document", e);
+        }
+
+        Path entry =
+                directory.resolve(getKey((AbstractParser) parser, parserId, content, reference) + ENTRY_EXTENSION);
+        if (replay(entry, sink)) {
+            hitCount.incrementAndGet();
+            return;
+        }
+        missCount.incrementAndGet();
+
+        byte[] log = record((AbstractParser) parser, content, reference, entry);
+        try {
+            new SinkEventLogReader(new ByteArrayInputStream(log)).replay(sink);
+        } catch (IOException e) {
+            // cannot happen with a log in memory
+            throw new ParseException("Failed replaying recorded events", e);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache directory.
+     *
+     * @throws IOException if an entry cannot be deleted
+     */
+    public void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + ENTRY_EXTENSION)) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the number of documents whose events have been replayed from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of documents which have been parsed
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static String getKey(AbstractParser parser, String parserId, String content, String reference) {
+        StringBuilder settings = new StringBuilder();
+        settings.append(VERSION).append('\n');
+        settings.append(parserId).append('\n');
+        settings.append(parser.getClass().getName()).append('\n');
+        settings.append(parser.getClass().getPackage().getImplementationVersion())
+                .append('\n');
+        settings.append(parser.getConfigurationFingerprint()).append('\n');
+        settings.append(reference).append('\n');
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(settings.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return {@code true} if the events have been replayed from an up to date entry
+     */
+    private boolean replay(Path entry, Sink sink) throws ParseException {
+        if (!Files.isRegularFile(entry)) {
+            return false;
+        }
+        ByteArrayInputStream in;
+        try {
+            byte[] content = Files.readAllBytes(entry);
+            in = new ByteArrayInputStream(content);
+            if (!isUpToDate(new DataInputStream(in))) {
+                return false;
+            }
+            if (!isIntact(new DataInputStream(in), content)) {
+                LOGGER.warn("Corrupted parse cache entry '{}', parsing the document again", entry);
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed reading parse cache entry '{}'", entry, e);
+            return false;
+        }
+        try {
+            new SinkEventLogReader(in).replay(sink);
+        } catch (IOException e) {
+            // cannot happen with a log matching its checksum
+            throw new ParseException("Corrupted parse cache entry " + entry, e);
+        }
+        return true;
+    }
+
+    private static boolean isUpToDate(DataInputStream in) throws IOException {
+        if (in.readInt() != VERSION) {
+            return false;
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            File file = new File(in.readUTF());
+            long lastModified = in.readLong();
+            long length = in.readLong();
+            if (file.lastModified() != lastModified || file.length() != length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the length and checksum of the log following the header, which is left to be read from the stream.
+     */
+    private static boolean isIntact(DataInputStream in, byte[] content) throws IOException {
+        int length = in.readInt();
+        long checksum = in.readLong();
+        int offset = content.length - in.available();
+        if (length != content.length - offset) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content, offset, length);
+        return crc.getValue() == checksum;
+    }
+
+    private byte[] record(AbstractParser parser, String content, String reference, Path entry)
+            throws ParseException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        SinkEventLogWriter writer = new SinkEventLogWriter(log);
+        DependencyRecorder recorder = new DependencyRecorder(parser);
+        parser.setMacroExecutor(recorder);
+        parser.parse(new StringReader(content), writer, reference);
+        writer.finish();
+
+        byte[] bytes = log.toByteArray();
+        if (recorder.cacheable) {
+            store(entry, recorder.dependencies, bytes);
+        }
+        return bytes;
+    }
+
+    private void store(Path entry, Map<String, FileStamp> dependencies, byte[] log) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                try (DataOutputStream out =
+                        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(VERSION);
+                    out.writeInt(dependencies.size());
+                    for (Map.Entry<String, FileStamp> dependency : dependencies.entrySet()) {
+                        out.writeUTF(dependency.getKey());
+                        out.writeLong(dependency.getValue().lastModified);
+                        out.writeLong(dependency.getValue().length);
+                    }
+                    CRC32 crc = new CRC32();
+                    crc.update(log, 0, log.length);
+                    out.writeInt(log.length);
+                    out.writeLong(crc.getValue());
+                    out.write(log);
+                }
+                try {
+                    Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed writing parse cache entry '{}': {}", entry, e.getMessage());
+        }
+    }
+
+    /**
+     * The state of a file read by a macro, taken before the macro reads it.
+     */
+    private static class FileStamp {
+        private final long lastModified;
+
+        private final long length;
+
+        FileStamp(String path) {
+            File file = new File(path);
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+    }
+
+    /**
+     * Collects the files read by the macros executed while parsing a document.
+     */
+    private static class DependencyRecorder implements MacroExecutor {
+        private final AbstractParser parser;
+
+        private final MacroExecutor delegate;
+
+        private final Map<String, FileStamp> dependencies = new TreeMap<>();
+
+        private boolean cacheable = true;
+
+        DependencyRecorder(AbstractParser parser) {
+            this.parser = parser;
+            this.delegate = parser.getMacroExecutor();
+        }
+
+        @Override
+        public void executeMacro(String macroId, MacroRequest request, Sink sink)
+                throws MacroExecutionException, MacroNotFoundException {
+            for (Map.Entry<String, Object> parameter : request.getParameters().entrySet()) {
+                if (!(parameter.getValue() instanceof String) || ((String) parameter.getValue()).isEmpty()) {
+                    continue;
+                }
+                String value = (String) parameter.getValue();
+                if ("file".equals(parameter.getKey())) {
+                    File file = new File(value);
+                    if (!file.isAbsolute()) {
+                        file = new File(request.getBasedir(), value);
+                    }
+                    addDependency(file.getAbsolutePath());
+                } else if ("url".equals(parameter.getKey())) {
+                    recordUrl(value);
+                }
+            }
+
+            if (delegate != null) {
+                delegate.executeMacro(macroId, request, sink);
+            } else {
+                // let the parser look up the macro itself
+                parser.setMacroExecutor(null);
+                try {
+                    parser.executeMacro(macroId, request, sink);
+                } finally {
+                    parser.setMacroExecutor(this);
+                }
+            }
+        }
+
+        private void addDependency(String path) {
+            dependencies.computeIfAbsent(path, FileStamp::new);
+        }
+
+        private void recordUrl(String url) {
+            try {
+                URI uri = new URI(url);
+                if ("file".equals(uri.getScheme())) {
+                    addDependency(Paths.get(uri).toString());
+                    return;
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // not a local file
+            }
+            cacheable = false;
+        }
+    }
+}
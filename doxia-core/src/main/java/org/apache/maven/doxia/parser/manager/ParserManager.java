@@ -18,6 +18,7 @@
  */
 package org.apache.maven.doxia.parser.manager;
 
+import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.Parser;
 
 /**
@@ -37,4 +38,25 @@ public interface ParserManager {
      * for the given id.
      */
     Parser getParser(String id) throws ParserNotFoundException;
+
+    /**
+     * Returns a new parser for the given id, configured as the one returned by {@link #getParser(String)} but
+     * not shared with any other caller. Unlike the shared parser, which must not parse several documents
+     * at the same time, each thread may use a parser of its own to parse documents concurrently.
+     * Parsers not extending {@link AbstractParser} cannot be copied and are returned as is.
+     *
+     * @param id The identifier.
+     * @return A new parser.
+     * @throws org.apache.maven.doxia.parser.manager.ParserNotFoundException if no parser could be found
+     * for the given id.
+     * @see AbstractParser#copy()
+     * @since 2.1.1
+     */
+    default Parser createParser(String id) throws ParserNotFoundException {
+        Parser parser = getParser(id);
+        if (parser instanceof AbstractParser) {
+            return ((AbstractParser) parser).copy();
+        }
+        return parser;
+    }
 }
@@ -39,6 +39,9 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
 
     private boolean insertNewline = true;
 
+    /** The scratch buffer reused to build each tag, see {@link #writeMarkup(StringBuilder)}. */
+    private final StringBuilder tagBuffer = new StringBuilder();
+
     /**
      * <p>Setter for the field <code>insertNewline</code>.</p>
      *
@@ -108,7 +111,8 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
     protected void writeStartTag(Tag t, MutableAttributeSet att, boolean isEmptyElement) {
         Objects.requireNonNull(t, "t cannot be null");
 
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = tagBuffer;
+        sb.setLength(0);
 
         if (insertNewline && t.isBlock() && !firstTag) {
             sb.append(EOL);
@@ -123,7 +127,7 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
 
         sb.append(t.toString());
 
-        sb.append(SinkUtils.getAttributeString(att));
+        SinkUtils.appendAttributes(sb, att);
 
         if (isEmptyElement) {
             sb.append(SPACE).append(SLASH);
@@ -131,7 +135,7 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
 
         sb.append(GREATER_THAN);
 
-        write(sb.toString());
+        writeMarkup(sb);
     }
 
     /**
@@ -151,7 +155,8 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
     protected void writeEndTag(Tag t) {
         Objects.requireNonNull(t, "t cannot be null");
 
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = tagBuffer;
+        sb.setLength(0);
         sb.append(LESS_THAN);
         sb.append(SLASH);
 
@@ -162,7 +167,7 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
         sb.append(t.toString());
         sb.append(GREATER_THAN);
 
-        write(sb.toString());
+        writeMarkup(sb);
     }
 
     /**
@@ -192,6 +197,18 @@ public abstract class AbstractXmlSink extends SinkAdapter implements XmlMarkup {
         writeStartTag(t, att, true);
     }
 
+    /**
+     * Writes markup built in the scratch buffer of the sink, which is reused for the next tag.
+     * By default, it is written as a string with {@link #write(String)}: sinks able to copy the buffer straight to
+     * their output should override it, so that writing a tag creates no garbage.
+     *
+     * @param markup the markup to write, only valid during the call.
+     * @since 2.1.1
+     */
+    protected void writeMarkup(StringBuilder markup) {
+        write(markup.toString());
+    }
+
     /**
      * Write a text to the sink.
      *
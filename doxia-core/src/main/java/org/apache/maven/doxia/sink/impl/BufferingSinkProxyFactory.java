@@ -18,92 +18,47 @@
  */
 package org.apache.maven.doxia.sink.impl;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.util.LinkedList;
-import java.util.Queue;
-
+import org.apache.maven.doxia.sink.Locator;
 import org.apache.maven.doxia.sink.Sink;
 
 /**
  * Buffers all method calls on the proxied Sink until its {@link Sink#flush()} is called.
+ * The events are recorded on a {@link SinkEventTape}.
  */
 public class BufferingSinkProxyFactory implements SinkWrapperFactory {
 
-    private static final class MethodWithArguments {
-        private final Method method;
-        private final Object[] args;
-
-        MethodWithArguments(Method method, Object[] args) {
-            super();
-            this.method = method;
-            this.args = args;
-        }
-
-        void invoke(Object object) {
-            try {
-                method.invoke(object, args);
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                throw new IllegalStateException("Could not call buffered method " + method, e);
-            }
-        }
-    }
-
     public interface BufferingSink extends Sink {
         // just a marker interface
         Sink getBufferedSink();
     }
 
-    private static final class BufferingSinkProxy implements InvocationHandler {
-        private final Queue<MethodWithArguments> bufferedInvocations;
+    private static final class BufferingSinkProxy extends SinkEventTape implements BufferingSink {
         private final Sink delegate;
-        private static final Method FLUSH_METHOD;
-        private static final Method GET_BUFFERED_SINK_METHOD;
-        private static final Method GET_DOCUMENT_LOCATOR_METHOD;
-
-        static {
-            try {
-                FLUSH_METHOD = Sink.class.getMethod("flush");
-                GET_BUFFERED_SINK_METHOD = BufferingSink.class.getMethod("getBufferedSink");
-                GET_DOCUMENT_LOCATOR_METHOD = BufferingSink.class.getMethod("getDocumentLocator");
-            } catch (NoSuchMethodException | SecurityException e) {
-                throw new IllegalStateException("Could not find flush method in Sink!", e);
-            }
-        }
 
         BufferingSinkProxy(Sink delegate) {
-            bufferedInvocations = new LinkedList<>();
             this.delegate = delegate;
         }
 
         @Override
-        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            if (method.equals(FLUSH_METHOD)) {
-                bufferedInvocations.forEach(i -> i.invoke(delegate));
-                bufferedInvocations.clear();
-            } else if (method.equals(GET_BUFFERED_SINK_METHOD)) {
-                return delegate;
-            } else if (method.equals(GET_DOCUMENT_LOCATOR_METHOD)) {
-                return delegate.getDocumentLocator();
-            } else {
-                bufferedInvocations.add(new MethodWithArguments(method, args));
-            }
-            if (method.getReturnType() != Void.TYPE) {
-                throw new IllegalStateException(
-                        "BufferingSinkProxy only works for methods returning void, but given method " + method
-                                + " requires another return type");
-            }
-            return null;
+        public void flush() {
+            replay(delegate);
+            clear();
+        }
+
+        @Override
+        public Sink getBufferedSink() {
+            return delegate;
+        }
+
+        @Override
+        public Locator getDocumentLocator() {
+            return delegate.getDocumentLocator();
         }
     }
 
     @Override
     public Sink createWrapper(Sink delegate) {
-        BufferingSinkProxy proxy = new BufferingSinkProxy(delegate);
-        return (Sink) Proxy.newProxyInstance(
-                delegate.getClass().getClassLoader(), new Class<?>[] {BufferingSink.class}, proxy);
+        return new BufferingSinkProxy(delegate);
     }
 
     public static BufferingSink castAsBufferingSink(Sink sink) {
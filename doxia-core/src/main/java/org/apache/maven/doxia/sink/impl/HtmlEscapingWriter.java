@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+import org.apache.maven.doxia.markup.Markup;
+
+/**
+ * Writer escaping HTML text the way {@link Xhtml5BaseSink} does, in one pass straight into the underlying writer:
+ * the special characters and the non-ASCII characters are escaped as by
+ * {@link org.apache.maven.doxia.util.HtmlTools#escapeHTML(String, boolean) HtmlTools.escapeHTML(text, false)}, and
+ * the line separators are replaced by the system EOL as by {@link AbstractSink#unifyEOLs(String)}.
+ * <p>
+ * Optionally, an ampersand followed by <code>#</code> is kept as is, so that numeric character references in the
+ * text are written unchanged (DOXIA-314).
+ * <p>
+ * If the charset of the output is given, the non-ASCII characters it can encode are written as is, except the
+ * control characters: only the characters significant to markup are escaped then.
+ * <p>
+ * The writer the escaped text is written to may be changed, so that a sink reuses the same escaping writer, and
+ * charset encoder, for all its outputs.
+ */
+final class HtmlEscapingWriter extends FilterWriter {
+
+    /** Non-ASCII characters above this one are written as numeric character references. */
+    private static final int ASCII = 0x7E;
+
+    /** The first non-ASCII character which is not a control character. */
+    private static final char NO_BREAK_SPACE = '\u00a0';
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final boolean keepCharacterReferences;
+
+    /** Indicates that the line separators are replaced by the system EOL. */
+    private final boolean unifyEOLs;
+
+    /** Encodes the output, or null to escape all non-ASCII characters. */
+    private final CharsetEncoder encoder;
+
+    /** Indicates that the output charset is a Unicode one, which encodes all the valid characters. */
+    private final boolean unicode;
+
+    /** Holds the character written by {@link #write(int)}. */
+    private final char[] single = new char[1];
+
+    /** Holds a surrogate pair to check if the output charset can encode it. */
+    private final char[] pair = new char[2];
+
+    /** Wraps {@link #pair} for the charset encoder. */
+    private final CharBuffer pairBuffer = CharBuffer.wrap(pair);
+
+    /** Holds the hexadecimal digits of a numeric character reference, the longest being <code>&amp;#x10ffff;</code>. */
+    private final char[] reference = new char[10];
+
+    /**
+     * @param out the writer to write the escaped text to
+     * @param keepCharacterReferences true to keep the numeric character references of the text, see DOXIA-314
+     */
+    HtmlEscapingWriter(Writer out, boolean keepCharacterReferences) {
+        this(out, keepCharacterReferences, null);
+    }
+
+    /**
+     * @param out the writer to write the escaped text to
+     * @param keepCharacterReferences true to keep the numeric character references of the text, see DOXIA-314
+     * @param charset the charset of the output, or null to escape all non-ASCII characters
+     */
+    HtmlEscapingWriter(Writer out, boolean keepCharacterReferences, Charset charset) {
+        this(out, keepCharacterReferences, charset, true);
+    }
+
+    /**
+     * @param out the writer to write the escaped text to
+     * @param keepCharacterReferences true to keep the numeric character references of the text, see DOXIA-314
+     * @param charset the charset of the output, or null to escape all non-ASCII characters
+     * @param unifyEOLs true to replace the line separators by the system EOL, false to keep them as in attributes
+     */
+    HtmlEscapingWriter(Writer out, boolean keepCharacterReferences, Charset charset, boolean unifyEOLs) {
+        super(out);
+        this.keepCharacterReferences = keepCharacterReferences;
+        this.unifyEOLs = unifyEOLs;
+        this.encoder = charset != null && charset.canEncode() ? charset.newEncoder() : null;
+        this.unicode = charset != null && charset.name().startsWith("UTF-");
+    }
+
+    /**
+     * @param out the writer to write the escaped text to from now on
+     */
+    void setOut(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        single[0] = (char) c;
+        escape(null, single, 0, 1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        escape(null, cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        escape(str, null, off, len);
+    }
+
+    /**
+     * Escapes the characters of either a string or an array, without copying them.
+     *
+     * @param str the string to escape, or null to escape the array
+     * @param cbuf the array to escape if the string is null
+     */
+    private void escape(String str, char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        // start of the characters not written yet, which need no escaping
+        int start = off;
+
+        for (int i = off; i < end; i++) {
+            char c = charAt(str, cbuf, i);
+            String replacement;
+            switch (c) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement =
+                            keepCharacterReferences && i + 1 < end && charAt(str, cbuf, i + 1) == '#' ? null : "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\r':
+                    if (!unifyEOLs) {
+                        continue;
+                    }
+                    replacement = Markup.EOL;
+                    if (i + 1 < end && charAt(str, cbuf, i + 1) == '\n') {
+                        writeAsIs(str, cbuf, start, i - start);
+                        out.write(replacement);
+                        start = ++i + 1;
+                        continue;
+                    }
+                    break;
+                case '\n':
+                    replacement = unifyEOLs ? Markup.EOL : null;
+                    break;
+                default:
+                    replacement = null;
+                    if (c > ASCII) {
+                        char low = i + 1 < end ? charAt(str, cbuf, i + 1) : 0;
+                        boolean pair = Character.isHighSurrogate(c) && Character.isLowSurrogate(low);
+                        if (pair ? canEncode(c, low) : canEncode(c)) {
+                            // kept in the characters to write as is
+                            i += pair ? 1 : 0;
+                            continue;
+                        }
+
+                        writeAsIs(str, cbuf, start, i - start);
+                        int codePoint = pair ? Character.toCodePoint(c, charAt(str, cbuf, ++i)) : c;
+                        writeCharacterReference(codePoint);
+                        start = i + 1;
+                        continue;
+                    }
+            }
+
+            if (replacement != null) {
+                writeAsIs(str, cbuf, start, i - start);
+                out.write(replacement);
+                start = i + 1;
+            }
+        }
+
+        writeAsIs(str, cbuf, start, end - start);
+    }
+
+    private static char charAt(String str, char[] cbuf, int index) {
+        return str != null ? str.charAt(index) : cbuf[index];
+    }
+
+    private void writeAsIs(String str, char[] cbuf, int off, int len) throws IOException {
+        if (str != null) {
+            out.write(str, off, len);
+        } else {
+            out.write(cbuf, off, len);
+        }
+    }
+
+    /** Indicates if the given non-ASCII character can be written as is. */
+    private boolean canEncode(char c) {
+        if (encoder == null || c < NO_BREAK_SPACE || Character.isSurrogate(c)) {
+            // lone surrogates cannot be encoded
+            return false;
+        }
+
+        return unicode || encoder.canEncode(c);
+    }
+
+    /** Indicates if the given surrogate pair can be written as is. */
+    private boolean canEncode(char high, char low) {
+        if (encoder == null) {
+            return false;
+        }
+
+        if (unicode) {
+            return true;
+        }
+
+        pair[0] = high;
+        pair[1] = low;
+        return encoder.canEncode(pairBuffer);
+    }
+
+    /** Writes <code>&amp;#x<i>hex</i>;</code> without creating a string. */
+    private void writeCharacterReference(int codePoint) throws IOException {
+        int pos = reference.length;
+        reference[--pos] = ';';
+        do {
+            reference[--pos] = HEX_DIGITS[codePoint & 0xF];
+            codePoint >>>= 4;
+        } while (codePoint != 0);
+        reference[--pos] = 'x';
+        reference[--pos] = '#';
+        reference[--pos] = '&';
+        out.write(reference, pos, reference.length - pos);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import javax.swing.text.AttributeSet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * The binary format of a serialized Sink event log, shared by {@link SinkEventLogWriter} and
+ * {@link SinkEventLogReader}.
+ * <p>
+ * A log starts with a magic number, a version and a flag telling whether locations are recorded. It is
+ * followed by parts, each one being the content of a {@link SinkEventTape}: the number of codes and the
+ * codes themselves, then the number of values and the values. A part with no code ends the log.
+ * All integers are written as variable length quantities (zigzag encoded when they may be negative),
+ * strings as their UTF-8 length and bytes.
+ * <p>
+ * Values are tagged with their type. Attribute sets are stored with their names, values and resolve parent,
+ * and restored as {@link SinkEventAttributeSet}. Locators are not stored (the positions are, as part of the
+ * codes), and values of any other type are stored as their string representation.
+ *
+ * @since 2.1.1
+ */
+final class SinkEventLogFormat {
+
+    /** "DXEL" */
+    static final int MAGIC = 0x4458454C;
+
+    static final int VERSION = 1;
+
+    private static final int NULL = 0;
+
+    private static final int STRING = 1;
+
+    private static final int ATTRIBUTES = 2;
+
+    private static final int INT_ARRAY = 3;
+
+    private static final int OBJECT_ARRAY = 4;
+
+    private static final int INTEGER = 5;
+
+    private static final int BOOLEAN = 6;
+
+    private SinkEventLogFormat() {
+        // utility class
+    }
+
+    static void writeHeader(DataOutputStream out, boolean recordLocations) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeBoolean(recordLocations);
+    }
+
+    /**
+     * @return whether the log contains locations
+     */
+    static boolean readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Sink event log");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported Sink event log version " + version);
+        }
+        return in.readBoolean();
+    }
+
+    static void writePart(DataOutputStream out, SinkEventTape tape) throws IOException {
+        int[] codes = tape.getCodes();
+        int codeCount = tape.getCodeCount();
+        writeUnsigned(out, codeCount);
+        for (int i = 0; i < codeCount; i++) {
+            writeSigned(out, codes[i]);
+        }
+        Object[] values = tape.getValues();
+        int valueCount = tape.getValueCount();
+        writeUnsigned(out, valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            writeValue(out, values[i]);
+        }
+    }
+
+    static void writeEnd(DataOutputStream out) throws IOException {
+        writeUnsigned(out, 0);
+    }
+
+    /**
+     * Reads the next part of a log into the given tape.
+     *
+     * @return {@code false} if the end of the log has been reached
+     */
+    static boolean readPart(DataInputStream in, SinkEventTape tape) throws IOException {
+        int codeCount = readUnsigned(in);
+        if (codeCount == 0) {
+            return false;
+        }
+        int[] codes = new int[codeCount];
+        for (int i = 0; i < codeCount; i++) {
+            codes[i] = readSigned(in);
+        }
+        int valueCount = readUnsigned(in);
+        Object[] values = new Object[Math.max(valueCount, 1)];
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = readValue(in);
+        }
+        tape.load(codes, codeCount, values, valueCount);
+        return true;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null || value instanceof Locator) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof AttributeSet) {
+            AttributeSet attributes = (AttributeSet) value;
+            out.writeByte(ATTRIBUTES);
+            writeUnsigned(out, attributes.getAttributeCount());
+            for (Enumeration<?> names = attributes.getAttributeNames(); names.hasMoreElements(); ) {
+                Object name = names.nextElement();
+                writeString(out, name.toString());
+                writeValue(out, attributes.getAttribute(name));
+            }
+            writeValue(out, attributes.getResolveParent());
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            out.writeByte(INT_ARRAY);
+            writeUnsigned(out, array.length);
+            for (int element : array) {
+                writeSigned(out, element);
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            out.writeByte(OBJECT_ARRAY);
+            writeUnsigned(out, array.length);
+            for (Object element : array) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            writeSigned(out, (Integer) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case ATTRIBUTES:
+                int count = readUnsigned(in);
+                SinkEventAttributes attributes = new SinkEventAttributeSet(count);
+                for (int i = 0; i < count; i++) {
+                    String name = readString(in);
+                    attributes.addAttribute(name, readValue(in));
+                }
+                AttributeSet parent = (AttributeSet) readValue(in);
+                if (parent != null) {
+                    attributes.setResolveParent(parent);
+                }
+                return attributes;
+            case INT_ARRAY:
+                int[] ints = new int[readUnsigned(in)];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = readSigned(in);
+                }
+                return ints;
+            case OBJECT_ARRAY:
+                Object[] objects = new Object[readUnsigned(in)];
+                for (int i = 0; i < objects.length; i++) {
+                    objects[i] = readValue(in);
+                }
+                return objects;
+            case INTEGER:
+                return readSigned(in);
+            case BOOLEAN:
+                return in.readBoolean();
+            default:
+                throw new IOException("Unknown value type " + tag + " in Sink event log");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readUnsigned(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeSigned(DataOutputStream out, int value) throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readSigned(DataInputStream in) throws IOException {
+        int value = readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeUnsigned(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readUnsigned(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed integer in Sink event log");
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Reads back a log written by {@link SinkEventLogWriter}, replaying its events into a sink.
+ * When the log contains locations, a locator giving the original position of each event is set on
+ * the sink before the first event.
+ * <p>
+ * The log is read part by part while being replayed, so that memory usage stays bounded whatever
+ * the size of the document.
+ *
+ * @since 2.1.1
+ */
+public class SinkEventLogReader {
+
+    private final InputStream in;
+
+    /**
+     * @param in the stream containing the log, not closed by this reader
+     */
+    public SinkEventLogReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Replays all events of the log into the given sink.
+     *
+     * @param sink the sink receiving the events, not {@code null}
+     * @throws IOException if the log cannot be read or is malformed
+     */
+    public void replay(Sink sink) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        boolean recordLocations = SinkEventLogFormat.readHeader(data);
+        SinkEventTape tape = new SinkEventTape(recordLocations);
+        SinkEventTape.TapeLocator locator = null;
+        if (recordLocations) {
+            locator = new SinkEventTape.TapeLocator();
+            sink.setDocumentLocator(locator);
+        }
+        while (SinkEventLogFormat.readPart(data, tape)) {
+            tape.replay(sink, locator);
+        }
+    }
+}
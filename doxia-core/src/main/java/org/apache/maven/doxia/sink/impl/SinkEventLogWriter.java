@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A sink serializing all events it receives, along with their positions, to a binary log. The log is read
+ * back with {@link SinkEventLogReader}, which allows to parse a document once and render it many times,
+ * into several sinks or later on, without parsing it again.
+ * <p>
+ * Events are written in parts, so that memory usage stays bounded whatever the size of the document.
+ * {@link #flush()} writes the pending events, {@link #close()} completes the log and closes the underlying stream.
+ * {@link #finish()} does the same without recording the close event, for logs of documents whose sinks are closed
+ * by the caller of the parser rather than by the parser itself.
+ * I/O errors are thrown as {@link UncheckedIOException}.
+ *
+ * @since 2.1.1
+ */
+public class SinkEventLogWriter extends SinkEventTape {
+
+    /** The number of codes after which the pending events are written. */
+    private static final int PART_SIZE = 8192;
+
+    private final DataOutputStream out;
+
+    private boolean headerWritten;
+
+    private boolean closed;
+
+    /**
+     * @param out the stream receiving the log, closed with this sink
+     */
+    public SinkEventLogWriter(OutputStream out) {
+        super(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    @Override
+    void eventRecorded() {
+        if (closed) {
+            clear();
+        } else if (getCodeCount() >= PART_SIZE) {
+            writePart();
+        }
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        if (!closed) {
+            writePart();
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        finish();
+    }
+
+    /**
+     * Completes the log and closes the underlying stream, without recording a close event.
+     * Further events are ignored.
+     */
+    public void finish() {
+        if (!closed) {
+            writePart();
+            closed = true;
+            try (DataOutputStream stream = out) {
+                SinkEventLogFormat.writeEnd(stream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void writePart() {
+        try {
+            if (!headerWritten) {
+                SinkEventLogFormat.writeHeader(out, isRecordingLocations());
+                headerWritten = true;
+            }
+            if (!isEmpty()) {
+                SinkEventLogFormat.writePart(out, this);
+                clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
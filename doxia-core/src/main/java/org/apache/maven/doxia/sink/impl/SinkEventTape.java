@@ -0,0 +1,1234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * Records Sink events in a compact form and replays them later on with direct calls to another {@link Sink}.
+ * Each event is stored as an opcode followed by its operands in a growing {@code int} array: integers
+ * and booleans inline, every other argument (strings, attributes, arrays, locators) as an index in a
+ * table of values. This avoids any reflection, boxing or per-event object.
+ * <p>
+ * The convenience methods without attributes are recorded as their counterpart with {@code null}
+ * attributes, as done by {@link AbstractSink}. Arguments are stored by reference, i.e. they must not be
+ * modified by the caller until the events have been replayed.
+ * <p>
+ * Optionally the position of the {@link #getDocumentLocator() document locator} is recorded along with the
+ * events. Such a tape replays the positions through a locator of its own, set on the target sink before the
+ * first event, instead of the locators originally given to {@link #setDocumentLocator(Locator)}.
+ *
+ * @since 2.1.1
+ */
+public class SinkEventTape extends AbstractSink {
+
+    private static final int HEAD = 1;
+    private static final int HEAD_END = 2;
+    private static final int TITLE = 3;
+    private static final int TITLE_END = 4;
+    private static final int AUTHOR = 5;
+    private static final int AUTHOR_END = 6;
+    private static final int DATE = 7;
+    private static final int DATE_END = 8;
+    private static final int BODY = 9;
+    private static final int BODY_END = 10;
+    private static final int ARTICLE = 11;
+    private static final int ARTICLE_END = 12;
+    private static final int NAVIGATION = 13;
+    private static final int NAVIGATION_END = 14;
+    private static final int SIDEBAR = 15;
+    private static final int SIDEBAR_END = 16;
+    private static final int SECTION = 17;
+    private static final int SECTION_END = 18;
+    private static final int SECTION_TITLE = 19;
+    private static final int SECTION_TITLE_END = 20;
+    private static final int HEADER = 21;
+    private static final int HEADER_END = 22;
+    private static final int CONTENT = 23;
+    private static final int CONTENT_END = 24;
+    private static final int FOOTER = 25;
+    private static final int FOOTER_END = 26;
+    private static final int LIST = 27;
+    private static final int LIST_END = 28;
+    private static final int LIST_ITEM = 29;
+    private static final int LIST_ITEM_END = 30;
+    private static final int NUMBERED_LIST = 31;
+    private static final int NUMBERED_LIST_END = 32;
+    private static final int NUMBERED_LIST_ITEM = 33;
+    private static final int NUMBERED_LIST_ITEM_END = 34;
+    private static final int DEFINITION_LIST = 35;
+    private static final int DEFINITION_LIST_END = 36;
+    private static final int DEFINITION_LIST_ITEM = 37;
+    private static final int DEFINITION_LIST_ITEM_END = 38;
+    private static final int DEFINITION = 39;
+    private static final int DEFINITION_END = 40;
+    private static final int DEFINED_TERM = 41;
+    private static final int DEFINED_TERM_END = 42;
+    private static final int FIGURE = 43;
+    private static final int FIGURE_END = 44;
+    private static final int FIGURE_CAPTION = 45;
+    private static final int FIGURE_CAPTION_END = 46;
+    private static final int FIGURE_GRAPHICS = 47;
+    private static final int TABLE = 48;
+    private static final int TABLE_END = 49;
+    private static final int TABLE_ROWS = 50;
+    private static final int TABLE_ROWS_END = 51;
+    private static final int TABLE_ROW = 52;
+    private static final int TABLE_ROW_END = 53;
+    private static final int TABLE_CELL = 54;
+    private static final int TABLE_CELL_END = 55;
+    private static final int TABLE_HEADER_CELL = 56;
+    private static final int TABLE_HEADER_CELL_END = 57;
+    private static final int TABLE_CAPTION = 58;
+    private static final int TABLE_CAPTION_END = 59;
+    private static final int PARAGRAPH = 60;
+    private static final int PARAGRAPH_END = 61;
+    private static final int DATA = 62;
+    private static final int DATA_END = 63;
+    private static final int TIME = 64;
+    private static final int TIME_END = 65;
+    private static final int ADDRESS = 66;
+    private static final int ADDRESS_END = 67;
+    private static final int BLOCKQUOTE = 68;
+    private static final int BLOCKQUOTE_END = 69;
+    private static final int DIVISION = 70;
+    private static final int DIVISION_END = 71;
+    private static final int VERBATIM = 72;
+    private static final int VERBATIM_END = 73;
+    private static final int HORIZONTAL_RULE = 74;
+    private static final int PAGE_BREAK = 75;
+    private static final int ANCHOR = 76;
+    private static final int ANCHOR_END = 77;
+    private static final int LINK = 78;
+    private static final int LINK_END = 79;
+    private static final int INLINE = 80;
+    private static final int INLINE_END = 81;
+    private static final int ITALIC = 82;
+    private static final int ITALIC_END = 83;
+    private static final int BOLD = 84;
+    private static final int BOLD_END = 85;
+    private static final int MONOSPACED = 86;
+    private static final int MONOSPACED_END = 87;
+    private static final int LINE_BREAK = 88;
+    private static final int LINE_BREAK_OPPORTUNITY = 89;
+    private static final int NON_BREAKING_SPACE = 90;
+    private static final int TEXT = 91;
+    private static final int RAW_TEXT = 92;
+    private static final int COMMENT = 93;
+    private static final int MARKUP_LINE_BREAK = 94;
+    private static final int UNKNOWN = 95;
+    private static final int FLUSH = 96;
+    private static final int CLOSE = 97;
+    private static final int SET_DOCUMENT_LOCATOR = 98;
+    /** Not an event: the position of the events that follow (line, column and reference). */
+    private static final int LOCATION = 99;
+
+    private static final int NULL_VALUE = -1;
+
+    /**
+     * The locator set on sinks replaying a tape which has recorded locations.
+     */
+    static final class TapeLocator implements Locator {
+        private int lineNumber = -1;
+
+        private int columnNumber = -1;
+
+        private String reference;
+
+        @Override
+        public String getReference() {
+            return reference;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return columnNumber;
+        }
+    }
+
+    /** The opcodes and their inline operands. */
+    private int[] codes = new int[64];
+
+    private int codeCount;
+
+    /** The values referenced from the codes. */
+    private Object[] values = new Object[16];
+
+    private int valueCount;
+
+    private final boolean recordLocations;
+
+    private int lastLineNumber;
+
+    private int lastColumnNumber;
+
+    private String lastReference;
+
+    /**
+     * Creates a tape which does not record locations.
+     */
+    public SinkEventTape() {
+        this(false);
+    }
+
+    /**
+     * @param recordLocations {@code true} to record the position of the document locator along with each event
+     */
+    public SinkEventTape(boolean recordLocations) {
+        this.recordLocations = recordLocations;
+        resetLocation();
+    }
+
+    /**
+     * Replays all recorded events, in recording order, into the given sink.
+     * The tape is left unchanged, so it may be replayed several times.
+     *
+     * @param sink the sink receiving the events, not {@code null}
+     */
+    public void replay(Sink sink) {
+        TapeLocator locator = null;
+        if (recordLocations) {
+            locator = new TapeLocator();
+            sink.setDocumentLocator(locator);
+        }
+        replay(sink, locator);
+    }
+
+    /**
+     * Replays all recorded events with the given locator, which must already be set on the sink if not
+     * {@code null}. Locators spanning several tapes are used to replay a stream of events split in parts.
+     */
+    void replay(Sink sink, TapeLocator locator) {
+        int i = 0;
+        while (i < codeCount) {
+            int opcode = codes[i++];
+            switch (opcode) {
+                case HEAD:
+                    sink.head((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case HEAD_END:
+                    sink.head_();
+                    break;
+                case TITLE:
+                    sink.title((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TITLE_END:
+                    sink.title_();
+                    break;
+                case AUTHOR:
+                    sink.author((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case AUTHOR_END:
+                    sink.author_();
+                    break;
+                case DATE:
+                    sink.date((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DATE_END:
+                    sink.date_();
+                    break;
+                case BODY:
+                    sink.body((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case BODY_END:
+                    sink.body_();
+                    break;
+                case ARTICLE:
+                    sink.article((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case ARTICLE_END:
+                    sink.article_();
+                    break;
+                case NAVIGATION:
+                    sink.navigation((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case NAVIGATION_END:
+                    sink.navigation_();
+                    break;
+                case SIDEBAR:
+                    sink.sidebar((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case SIDEBAR_END:
+                    sink.sidebar_();
+                    break;
+                case SECTION:
+                    sink.section(codes[i], (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case SECTION_END:
+                    sink.section_(codes[i]);
+                    i++;
+                    break;
+                case SECTION_TITLE:
+                    sink.sectionTitle(codes[i], (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case SECTION_TITLE_END:
+                    sink.sectionTitle_(codes[i]);
+                    i++;
+                    break;
+                case HEADER:
+                    sink.header((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case HEADER_END:
+                    sink.header_();
+                    break;
+                case CONTENT:
+                    sink.content((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case CONTENT_END:
+                    sink.content_();
+                    break;
+                case FOOTER:
+                    sink.footer((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case FOOTER_END:
+                    sink.footer_();
+                    break;
+                case LIST:
+                    sink.list((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case LIST_END:
+                    sink.list_();
+                    break;
+                case LIST_ITEM:
+                    sink.listItem((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case LIST_ITEM_END:
+                    sink.listItem_();
+                    break;
+                case NUMBERED_LIST:
+                    sink.numberedList(codes[i], (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case NUMBERED_LIST_END:
+                    sink.numberedList_();
+                    break;
+                case NUMBERED_LIST_ITEM:
+                    sink.numberedListItem((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case NUMBERED_LIST_ITEM_END:
+                    sink.numberedListItem_();
+                    break;
+                case DEFINITION_LIST:
+                    sink.definitionList((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DEFINITION_LIST_END:
+                    sink.definitionList_();
+                    break;
+                case DEFINITION_LIST_ITEM:
+                    sink.definitionListItem((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DEFINITION_LIST_ITEM_END:
+                    sink.definitionListItem_();
+                    break;
+                case DEFINITION:
+                    sink.definition((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DEFINITION_END:
+                    sink.definition_();
+                    break;
+                case DEFINED_TERM:
+                    sink.definedTerm((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DEFINED_TERM_END:
+                    sink.definedTerm_();
+                    break;
+                case FIGURE:
+                    sink.figure((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case FIGURE_END:
+                    sink.figure_();
+                    break;
+                case FIGURE_CAPTION:
+                    sink.figureCaption((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case FIGURE_CAPTION_END:
+                    sink.figureCaption_();
+                    break;
+                case FIGURE_GRAPHICS:
+                    sink.figureGraphics((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case TABLE:
+                    sink.table((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TABLE_END:
+                    sink.table_();
+                    break;
+                case TABLE_ROWS:
+                    sink.tableRows((int[]) value(codes[i]), codes[i + 1] != 0);
+                    i += 2;
+                    break;
+                case TABLE_ROWS_END:
+                    sink.tableRows_();
+                    break;
+                case TABLE_ROW:
+                    sink.tableRow((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TABLE_ROW_END:
+                    sink.tableRow_();
+                    break;
+                case TABLE_CELL:
+                    sink.tableCell((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TABLE_CELL_END:
+                    sink.tableCell_();
+                    break;
+                case TABLE_HEADER_CELL:
+                    sink.tableHeaderCell((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TABLE_HEADER_CELL_END:
+                    sink.tableHeaderCell_();
+                    break;
+                case TABLE_CAPTION:
+                    sink.tableCaption((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case TABLE_CAPTION_END:
+                    sink.tableCaption_();
+                    break;
+                case PARAGRAPH:
+                    sink.paragraph((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case PARAGRAPH_END:
+                    sink.paragraph_();
+                    break;
+                case DATA:
+                    sink.data((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case DATA_END:
+                    sink.data_();
+                    break;
+                case TIME:
+                    sink.time((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case TIME_END:
+                    sink.time_();
+                    break;
+                case ADDRESS:
+                    sink.address((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case ADDRESS_END:
+                    sink.address_();
+                    break;
+                case BLOCKQUOTE:
+                    sink.blockquote((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case BLOCKQUOTE_END:
+                    sink.blockquote_();
+                    break;
+                case DIVISION:
+                    sink.division((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case DIVISION_END:
+                    sink.division_();
+                    break;
+                case VERBATIM:
+                    sink.verbatim((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case VERBATIM_END:
+                    sink.verbatim_();
+                    break;
+                case HORIZONTAL_RULE:
+                    sink.horizontalRule((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case PAGE_BREAK:
+                    sink.pageBreak();
+                    break;
+                case ANCHOR:
+                    sink.anchor((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case ANCHOR_END:
+                    sink.anchor_();
+                    break;
+                case LINK:
+                    sink.link((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case LINK_END:
+                    sink.link_();
+                    break;
+                case INLINE:
+                    sink.inline((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case INLINE_END:
+                    sink.inline_();
+                    break;
+                case ITALIC:
+                    sink.italic();
+                    break;
+                case ITALIC_END:
+                    sink.italic_();
+                    break;
+                case BOLD:
+                    sink.bold();
+                    break;
+                case BOLD_END:
+                    sink.bold_();
+                    break;
+                case MONOSPACED:
+                    sink.monospaced();
+                    break;
+                case MONOSPACED_END:
+                    sink.monospaced_();
+                    break;
+                case LINE_BREAK:
+                    sink.lineBreak((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case LINE_BREAK_OPPORTUNITY:
+                    sink.lineBreakOpportunity((SinkEventAttributes) value(codes[i]));
+                    i++;
+                    break;
+                case NON_BREAKING_SPACE:
+                    sink.nonBreakingSpace();
+                    break;
+                case TEXT:
+                    sink.text((String) value(codes[i]), (SinkEventAttributes) value(codes[i + 1]));
+                    i += 2;
+                    break;
+                case RAW_TEXT:
+                    sink.rawText((String) value(codes[i]));
+                    i++;
+                    break;
+                case COMMENT:
+                    sink.comment((String) value(codes[i]));
+                    i++;
+                    break;
+                case MARKUP_LINE_BREAK:
+                    sink.markupLineBreak(codes[i]);
+                    i++;
+                    break;
+                case UNKNOWN:
+                    sink.unknown(
+                            (String) value(codes[i]),
+                            (Object[]) value(codes[i + 1]),
+                            (SinkEventAttributes) value(codes[i + 2]));
+                    i += 3;
+                    break;
+                case FLUSH:
+                    sink.flush();
+                    break;
+                case CLOSE:
+                    sink.close();
+                    break;
+                case SET_DOCUMENT_LOCATOR:
+                    if (locator == null) {
+                        sink.setDocumentLocator((Locator) value(codes[i]));
+                    }
+                    i++;
+                    break;
+                case LOCATION:
+                    if (locator != null) {
+                        locator.lineNumber = codes[i];
+                        locator.columnNumber = codes[i + 1];
+                        locator.reference = (String) value(codes[i + 2]);
+                    }
+                    i += 3;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + opcode + " at position " + (i - 1));
+            }
+        }
+    }
+
+    /**
+     * Discards all recorded events.
+     */
+    public void clear() {
+        codeCount = 0;
+        Arrays.fill(values, 0, valueCount, null);
+        valueCount = 0;
+        resetLocation();
+    }
+
+    /**
+     * @return {@code true} if no event has been recorded since creation or the last {@link #clear()}
+     */
+    public boolean isEmpty() {
+        return codeCount == 0;
+    }
+
+    boolean isRecordingLocations() {
+        return recordLocations;
+    }
+
+    int[] getCodes() {
+        return codes;
+    }
+
+    int getCodeCount() {
+        return codeCount;
+    }
+
+    Object[] getValues() {
+        return values;
+    }
+
+    int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Replaces the content of this tape, e.g. with a part of a {@link SinkEventLogReader serialized log}.
+     */
+    void load(int[] codes, int codeCount, Object[] values, int valueCount) {
+        clear();
+        this.codes = codes;
+        this.codeCount = codeCount;
+        this.values = values;
+        this.valueCount = valueCount;
+    }
+
+    /**
+     * Called after each recorded event.
+     */
+    void eventRecorded() {
+        // nop
+    }
+
+    private void resetLocation() {
+        lastLineNumber = -1;
+        lastColumnNumber = -1;
+        lastReference = null;
+    }
+
+    private void recordLocation() {
+        Locator locator = getDocumentLocator();
+        int lineNumber = locator.getLineNumber();
+        int columnNumber = locator.getColumnNumber();
+        String reference = locator.getReference();
+        if (codeCount == 0
+                || lineNumber != lastLineNumber
+                || columnNumber != lastColumnNumber
+                || !Objects.equals(reference, lastReference)) {
+            ensureCodeCapacity(4);
+            codes[codeCount++] = LOCATION;
+            codes[codeCount++] = lineNumber;
+            codes[codeCount++] = columnNumber;
+            codes[codeCount++] = value(reference);
+            lastLineNumber = lineNumber;
+            lastColumnNumber = columnNumber;
+            lastReference = reference;
+        }
+    }
+
+    private void add(int opcode) {
+        if (recordLocations) {
+            recordLocation();
+        }
+        ensureCodeCapacity(1);
+        codes[codeCount++] = opcode;
+        eventRecorded();
+    }
+
+    private void add(int opcode, int operand) {
+        if (recordLocations) {
+            recordLocation();
+        }
+        ensureCodeCapacity(2);
+        codes[codeCount++] = opcode;
+        codes[codeCount++] = operand;
+        eventRecorded();
+    }
+
+    private void add(int opcode, int operand1, int operand2) {
+        if (recordLocations) {
+            recordLocation();
+        }
+        ensureCodeCapacity(3);
+        codes[codeCount++] = opcode;
+        codes[codeCount++] = operand1;
+        codes[codeCount++] = operand2;
+        eventRecorded();
+    }
+
+    private void add(int opcode, int operand1, int operand2, int operand3) {
+        if (recordLocations) {
+            recordLocation();
+        }
+        ensureCodeCapacity(4);
+        codes[codeCount++] = opcode;
+        codes[codeCount++] = operand1;
+        codes[codeCount++] = operand2;
+        codes[codeCount++] = operand3;
+        eventRecorded();
+    }
+
+    private void ensureCodeCapacity(int additional) {
+        if (codeCount + additional > codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(codes.length << 1, codeCount + additional));
+        }
+    }
+
+    private int value(Object value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, valueCount << 1);
+        }
+        values[valueCount] = value;
+        return valueCount++;
+    }
+
+    private Object value(int index) {
+        return index == NULL_VALUE ? null : values[index];
+    }
+
+    // ----------------------------------------------------------------------
+    // Recorded events
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void head(SinkEventAttributes attributes) {
+        add(HEAD, value(attributes));
+    }
+
+    @Override
+    public void head_() {
+        add(HEAD_END);
+    }
+
+    @Override
+    public void title(SinkEventAttributes attributes) {
+        add(TITLE, value(attributes));
+    }
+
+    @Override
+    public void title_() {
+        add(TITLE_END);
+    }
+
+    @Override
+    public void author(SinkEventAttributes attributes) {
+        add(AUTHOR, value(attributes));
+    }
+
+    @Override
+    public void author_() {
+        add(AUTHOR_END);
+    }
+
+    @Override
+    public void date(SinkEventAttributes attributes) {
+        add(DATE, value(attributes));
+    }
+
+    @Override
+    public void date_() {
+        add(DATE_END);
+    }
+
+    @Override
+    public void body(SinkEventAttributes attributes) {
+        add(BODY, value(attributes));
+    }
+
+    @Override
+    public void body_() {
+        add(BODY_END);
+    }
+
+    @Override
+    public void article(SinkEventAttributes attributes) {
+        add(ARTICLE, value(attributes));
+    }
+
+    @Override
+    public void article_() {
+        add(ARTICLE_END);
+    }
+
+    @Override
+    public void navigation(SinkEventAttributes attributes) {
+        add(NAVIGATION, value(attributes));
+    }
+
+    @Override
+    public void navigation_() {
+        add(NAVIGATION_END);
+    }
+
+    @Override
+    public void sidebar(SinkEventAttributes attributes) {
+        add(SIDEBAR, value(attributes));
+    }
+
+    @Override
+    public void sidebar_() {
+        add(SIDEBAR_END);
+    }
+
+    @Override
+    public void section(int level, SinkEventAttributes attributes) {
+        add(SECTION, level, value(attributes));
+    }
+
+    @Override
+    public void section_(int level) {
+        add(SECTION_END, level);
+    }
+
+    @Override
+    public void sectionTitle(int level, SinkEventAttributes attributes) {
+        add(SECTION_TITLE, level, value(attributes));
+    }
+
+    @Override
+    public void sectionTitle_(int level) {
+        add(SECTION_TITLE_END, level);
+    }
+
+    @Override
+    public void header(SinkEventAttributes attributes) {
+        add(HEADER, value(attributes));
+    }
+
+    @Override
+    public void header_() {
+        add(HEADER_END);
+    }
+
+    @Override
+    public void content(SinkEventAttributes attributes) {
+        add(CONTENT, value(attributes));
+    }
+
+    @Override
+    public void content_() {
+        add(CONTENT_END);
+    }
+
+    @Override
+    public void footer(SinkEventAttributes attributes) {
+        add(FOOTER, value(attributes));
+    }
+
+    @Override
+    public void footer_() {
+        add(FOOTER_END);
+    }
+
+    @Override
+    public void list(SinkEventAttributes attributes) {
+        add(LIST, value(attributes));
+    }
+
+    @Override
+    public void list_() {
+        add(LIST_END);
+    }
+
+    @Override
+    public void listItem(SinkEventAttributes attributes) {
+        add(LIST_ITEM, value(attributes));
+    }
+
+    @Override
+    public void listItem_() {
+        add(LIST_ITEM_END);
+    }
+
+    @Override
+    public void numberedList(int numbering, SinkEventAttributes attributes) {
+        add(NUMBERED_LIST, numbering, value(attributes));
+    }
+
+    @Override
+    public void numberedList_() {
+        add(NUMBERED_LIST_END);
+    }
+
+    @Override
+    public void numberedListItem(SinkEventAttributes attributes) {
+        add(NUMBERED_LIST_ITEM, value(attributes));
+    }
+
+    @Override
+    public void numberedListItem_() {
+        add(NUMBERED_LIST_ITEM_END);
+    }
+
+    @Override
+    public void definitionList(SinkEventAttributes attributes) {
+        add(DEFINITION_LIST, value(attributes));
+    }
+
+    @Override
+    public void definitionList_() {
+        add(DEFINITION_LIST_END);
+    }
+
+    @Override
+    public void definitionListItem(SinkEventAttributes attributes) {
+        add(DEFINITION_LIST_ITEM, value(attributes));
+    }
+
+    @Override
+    public void definitionListItem_() {
+        add(DEFINITION_LIST_ITEM_END);
+    }
+
+    @Override
+    public void definition(SinkEventAttributes attributes) {
+        add(DEFINITION, value(attributes));
+    }
+
+    @Override
+    public void definition_() {
+        add(DEFINITION_END);
+    }
+
+    @Override
+    public void definedTerm(SinkEventAttributes attributes) {
+        add(DEFINED_TERM, value(attributes));
+    }
+
+    @Override
+    public void definedTerm_() {
+        add(DEFINED_TERM_END);
+    }
+
+    @Override
+    public void figure(SinkEventAttributes attributes) {
+        add(FIGURE, value(attributes));
+    }
+
+    @Override
+    public void figure_() {
+        add(FIGURE_END);
+    }
+
+    @Override
+    public void figureCaption(SinkEventAttributes attributes) {
+        add(FIGURE_CAPTION, value(attributes));
+    }
+
+    @Override
+    public void figureCaption_() {
+        add(FIGURE_CAPTION_END);
+    }
+
+    @Override
+    public void figureGraphics(String src, SinkEventAttributes attributes) {
+        add(FIGURE_GRAPHICS, value(src), value(attributes));
+    }
+
+    @Override
+    public void table(SinkEventAttributes attributes) {
+        add(TABLE, value(attributes));
+    }
+
+    @Override
+    public void table_() {
+        add(TABLE_END);
+    }
+
+    @Override
+    public void tableRows(int[] justification, boolean grid) {
+        add(TABLE_ROWS, value(justification), grid ? 1 : 0);
+    }
+
+    @Override
+    public void tableRows_() {
+        add(TABLE_ROWS_END);
+    }
+
+    @Override
+    public void tableRow(SinkEventAttributes attributes) {
+        add(TABLE_ROW, value(attributes));
+    }
+
+    @Override
+    public void tableRow_() {
+        add(TABLE_ROW_END);
+    }
+
+    @Override
+    public void tableCell(SinkEventAttributes attributes) {
+        add(TABLE_CELL, value(attributes));
+    }
+
+    @Override
+    public void tableCell_() {
+        add(TABLE_CELL_END);
+    }
+
+    @Override
+    public void tableHeaderCell(SinkEventAttributes attributes) {
+        add(TABLE_HEADER_CELL, value(attributes));
+    }
+
+    @Override
+    public void tableHeaderCell_() {
+        add(TABLE_HEADER_CELL_END);
+    }
+
+    @Override
+    public void tableCaption(SinkEventAttributes attributes) {
+        add(TABLE_CAPTION, value(attributes));
+    }
+
+    @Override
+    public void tableCaption_() {
+        add(TABLE_CAPTION_END);
+    }
+
+    @Override
+    public void paragraph(SinkEventAttributes attributes) {
+        add(PARAGRAPH, value(attributes));
+    }
+
+    @Override
+    public void paragraph_() {
+        add(PARAGRAPH_END);
+    }
+
+    @Override
+    public void data(String value, SinkEventAttributes attributes) {
+        add(DATA, value(value), value(attributes));
+    }
+
+    @Override
+    public void data_() {
+        add(DATA_END);
+    }
+
+    @Override
+    public void time(String datetime, SinkEventAttributes attributes) {
+        add(TIME, value(datetime), value(attributes));
+    }
+
+    @Override
+    public void time_() {
+        add(TIME_END);
+    }
+
+    @Override
+    public void address(SinkEventAttributes attributes) {
+        add(ADDRESS, value(attributes));
+    }
+
+    @Override
+    public void address_() {
+        add(ADDRESS_END);
+    }
+
+    @Override
+    public void blockquote(SinkEventAttributes attributes) {
+        add(BLOCKQUOTE, value(attributes));
+    }
+
+    @Override
+    public void blockquote_() {
+        add(BLOCKQUOTE_END);
+    }
+
+    @Override
+    public void division(SinkEventAttributes attributes) {
+        add(DIVISION, value(attributes));
+    }
+
+    @Override
+    public void division_() {
+        add(DIVISION_END);
+    }
+
+    @Override
+    public void verbatim(SinkEventAttributes attributes) {
+        add(VERBATIM, value(attributes));
+    }
+
+    @Override
+    public void verbatim_() {
+        add(VERBATIM_END);
+    }
+
+    @Override
+    public void horizontalRule(SinkEventAttributes attributes) {
+        add(HORIZONTAL_RULE, value(attributes));
+    }
+
+    @Override
+    public void pageBreak() {
+        add(PAGE_BREAK);
+    }
+
+    @Override
+    public void anchor(String name, SinkEventAttributes attributes) {
+        add(ANCHOR, value(name), value(attributes));
+    }
+
+    @Override
+    public void anchor_() {
+        add(ANCHOR_END);
+    }
+
+    @Override
+    public void link(String name, SinkEventAttributes attributes) {
+        add(LINK, value(name), value(attributes));
+    }
+
+    @Override
+    public void link_() {
+        add(LINK_END);
+    }
+
+    @Override
+    public void inline(SinkEventAttributes attributes) {
+        add(INLINE, value(attributes));
+    }
+
+    @Override
+    public void inline_() {
+        add(INLINE_END);
+    }
+
+    @Override
+    public void italic() {
+        add(ITALIC);
+    }
+
+    @Override
+    public void italic_() {
+        add(ITALIC_END);
+    }
+
+    @Override
+    public void bold() {
+        add(BOLD);
+    }
+
+    @Override
+    public void bold_() {
+        add(BOLD_END);
+    }
+
+    @Override
+    public void monospaced() {
+        add(MONOSPACED);
+    }
+
+    @Override
+    public void monospaced_() {
+        add(MONOSPACED_END);
+    }
+
+    @Override
+    public void lineBreak(SinkEventAttributes attributes) {
+        add(LINE_BREAK, value(attributes));
+    }
+
+    @Override
+    public void lineBreakOpportunity(SinkEventAttributes attributes) {
+        add(LINE_BREAK_OPPORTUNITY, value(attributes));
+    }
+
+    @Override
+    public void nonBreakingSpace() {
+        add(NON_BREAKING_SPACE);
+    }
+
+    @Override
+    public void text(String text, SinkEventAttributes attributes) {
+        add(TEXT, value(text), value(attributes));
+    }
+
+    @Override
+    public void rawText(String text) {
+        add(RAW_TEXT, value(text));
+    }
+
+    @Override
+    public void comment(String comment) {
+        add(COMMENT, value(comment));
+    }
+
+    @Override
+    public void markupLineBreak(int indentLevel) {
+        add(MARKUP_LINE_BREAK, indentLevel);
+    }
+
+    @Override
+    public void unknown(String name, Object[] requiredParams, SinkEventAttributes attributes) {
+        add(UNKNOWN, value(name), value(requiredParams), value(attributes));
+    }
+
+    @Override
+    public void flush() {
+        add(FLUSH);
+    }
+
+    @Override
+    public void close() {
+        add(CLOSE);
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        super.setDocumentLocator(locator);
+        add(SET_DOCUMENT_LOCATOR, value(locator));
+    }
+}
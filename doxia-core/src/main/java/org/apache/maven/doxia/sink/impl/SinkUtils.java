@@ -162,6 +162,22 @@ public class SinkUtils {
         }
 
         StringBuilder sb = new StringBuilder();
+        appendAttributes(sb, att);
+        return sb.toString();
+    }
+
+    /**
+     * Appends an AttributeSet to a buffer, in the form of {@link #getAttributeString(AttributeSet)}, without
+     * creating intermediate strings.
+     *
+     * @param sb the buffer to append to.
+     * @param att The AttributeSet. May be null, in which case nothing is appended.
+     * @since 2.1.1
+     */
+    public static void appendAttributes(StringBuilder sb, AttributeSet att) {
+        if (att == null) {
+            return;
+        }
 
         Enumeration<?> names = att.getAttributeNames();
 
@@ -172,29 +188,28 @@ public class SinkUtils {
             if (value instanceof AttributeSet) {
                 // Other AttributeSets are ignored
                 if (SinkEventAttributes.STYLE.equals(key.toString())) {
-                    sb.append(Markup.SPACE)
-                            .append(key.toString())
-                            .append(Markup.EQUAL)
-                            .append(Markup.QUOTE)
-                            .append(asCssString((AttributeSet) value))
-                            .append(Markup.QUOTE);
+                    sb.append(Markup.SPACE).append(key).append(Markup.EQUAL).append(Markup.QUOTE);
+                    appendCss(sb, (AttributeSet) value);
+                    sb.append(Markup.QUOTE);
                 }
             } else {
                 sb.append(Markup.SPACE)
-                        .append(key.toString())
+                        .append(key)
                         .append(Markup.EQUAL)
                         .append(Markup.QUOTE)
-                        .append(value.toString())
+                        .append(value)
                         .append(Markup.QUOTE);
             }
         }
-
-        return sb.toString();
     }
 
     public static String asCssString(AttributeSet att) {
         StringBuilder sb = new StringBuilder();
+        appendCss(sb, att);
+        return sb.toString();
+    }
 
+    private static void appendCss(StringBuilder sb, AttributeSet att) {
         Enumeration<?> names = att.getAttributeNames();
 
         while (names.hasMoreElements()) {
@@ -203,15 +218,14 @@ public class SinkUtils {
 
             // don't go recursive
             if (!(value instanceof AttributeSet)) {
-                sb.append(asCssDeclaration(key.toString(), value.toString()));
+                // same as asCssDeclaration()
+                sb.append(key).append(Markup.COLON).append(Markup.SPACE).append(value);
 
                 if (names.hasMoreElements()) {
                     sb.append(Markup.SEMICOLON).append(Markup.SPACE);
                 }
             }
         }
-
-        return sb.toString();
     }
 
     public static String asCssDeclaration(String property, String value) {
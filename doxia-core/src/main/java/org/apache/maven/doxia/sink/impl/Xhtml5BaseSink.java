@@ -22,9 +22,12 @@ import javax.swing.text.AttributeSet;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.html.HTML.Tag;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.EmptyStackException;
 import java.util.Enumeration;
@@ -59,6 +62,24 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     /** The PrintWriter to write the result. */
     private final PrintWriter writer;
 
+    /** The charset of the output whose characters are written as is, or null to escape all non-ASCII characters. */
+    private Charset outputCharset;
+
+    /** Escapes the text written to the current output, keeping its numeric character references. */
+    private HtmlEscapingWriter contentWriter;
+
+    /** Escapes the verbatim text written to the current output. */
+    private HtmlEscapingWriter verbatimContentWriter;
+
+    /** Escapes the attribute values, if the output charset is set. */
+    private HtmlEscapingWriter attributeWriter;
+
+    /** The scratch buffer reused to escape the text going through {@link #write(String)}, see {@link #writeEscaped}. */
+    private final StringWriter escapedText = new StringWriter();
+
+    /** The scratch buffer reused to copy the markup to {@link #writer}, see {@link #writeMarkup(StringBuilder)}. */
+    private char[] markupChars = new char[256];
+
     /** Used to identify if a class string contains `hidden` */
     private static final Pattern HIDDEN_CLASS_PATTERN = Pattern.compile("(?:.*\\s|^)hidden(?:\\s.*|$)");
 
@@ -102,16 +123,22 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     /** Used to style successive table rows differently. */
     private boolean evenTableRow = true;
 
-    /** The stack of StringWriter to write the table result temporary, so we could play with the output DOXIA-177. */
-    private final LinkedList<StringWriter> tableContentWriterStack;
+    /** The default for {@link #tableBufferLimit}. */
+    private static final int DEFAULT_TABLE_BUFFER_LIMIT = 512 * 1024;
+
+    /**
+     * The stack of the tables being written, buffered so that a caption given after the rows is written first
+     * (DOXIA-177).
+     */
+    private final LinkedList<TableContent> tableContentStack;
+
+    /** The number of characters of a table above which the tables being written are streamed, see {@link #table_()}. */
+    private int tableBufferLimit = DEFAULT_TABLE_BUFFER_LIMIT;
 
     private final LinkedList<StringWriter> tableCaptionWriterStack;
 
     private final LinkedList<PrettyPrintXMLWriter> tableCaptionXMLWriterStack;
 
-    /** The stack of table caption */
-    private final LinkedList<String> tableCaptionStack;
-
     /** used to store attributes passed to table(). */
     protected MutableAttributeSet tableAttributes;
 
@@ -126,14 +153,15 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
      */
     public Xhtml5BaseSink(Writer out) {
         this.writer = new PrintWriter(out);
+        this.contentWriter = new HtmlEscapingWriter(writer, true);
+        this.verbatimContentWriter = new HtmlEscapingWriter(writer, false);
 
         this.cellJustifStack = new LinkedList<>();
         this.isCellJustifStack = new LinkedList<>();
         this.cellCountStack = new LinkedList<>();
-        this.tableContentWriterStack = new LinkedList<>();
+        this.tableContentStack = new LinkedList<>();
         this.tableCaptionWriterStack = new LinkedList<>();
         this.tableCaptionXMLWriterStack = new LinkedList<>();
-        this.tableCaptionStack = new LinkedList<>();
 
         initInternal();
     }
@@ -149,10 +177,48 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
         this.evenTableRow = true;
         this.tableAttributes = null;
     }
+
     // ----------------------------------------------------------------------
     // Accessor methods
     // ----------------------------------------------------------------------
 
+    /**
+     * Sets the charset of the output, so that the text characters it can encode are written as is rather than as
+     * numeric character references: only the characters significant to markup are escaped then, which makes the
+     * output of non-Latin documents several times smaller. By default, all non-ASCII characters are escaped.
+     *
+     * @param charset the charset of the output, or {@code null} to escape all non-ASCII characters
+     * @since 2.1.1
+     */
+    public void setOutputCharset(Charset charset) {
+        this.outputCharset = charset;
+        this.contentWriter = new HtmlEscapingWriter(writer, true, charset);
+        this.verbatimContentWriter = new HtmlEscapingWriter(writer, false, charset);
+        this.attributeWriter = charset != null ? new HtmlEscapingWriter(writer, false, charset, false) : null;
+    }
+
+    /**
+     * @return the charset of the output whose characters are written as is, or {@code null} if all non-ASCII
+     * characters are escaped
+     * @see #setOutputCharset(Charset)
+     * @since 2.1.1
+     */
+    public Charset getOutputCharset() {
+        return outputCharset;
+    }
+
+    /**
+     * Indicates if the text and the markup may be written straight to the output, rather than through
+     * {@link #write(String)}. Subclasses overriding {@link #write(String)} to capture or filter the output have to
+     * override this method to return {@code false}.
+     *
+     * @return {@code true} to write the text and the markup straight to the output
+     * @since 2.1.1
+     */
+    protected boolean isDirectOutput() {
+        return true;
+    }
+
     /**
      * To use mainly when playing with the head events.
      *
@@ -251,10 +317,9 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
         this.cellJustifStack.clear();
         this.isCellJustifStack.clear();
         this.cellCountStack.clear();
-        this.tableContentWriterStack.clear();
+        this.tableContentStack.clear();
         this.tableCaptionWriterStack.clear();
         this.tableCaptionXMLWriterStack.clear();
-        this.tableCaptionStack.clear();
         this.inlineStack.clear();
 
         initInternal();
@@ -894,7 +959,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
 
     @Override
     public void table(SinkEventAttributes attributes) {
-        this.tableContentWriterStack.addLast(new StringWriter());
+        this.tableContentStack.addLast(new TableContent());
 
         if (paragraphFlag) {
             // The content of element type "p" must match
@@ -913,6 +978,12 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * A table is buffered until it ends, so that its caption is written first even if it is given after the rows.
+     * Once a table is larger than the buffer limit though, it is streamed to the output with the tables enclosing
+     * it, so that memory stays bounded: a caption given after the rows of such a table is written in place, after
+     * a warning.
+     *
      * @see javax.swing.text.html.HTML.Tag#TABLE
      */
     @Override
@@ -923,28 +994,50 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
             this.cellCountStack.removeLast().toString();
         }
 
-        if (this.tableContentWriterStack.isEmpty()) {
+        if (this.tableContentStack.isEmpty()) {
             LOGGER.warn("{}No table content", getLocationLogPrefix());
             return;
         }
 
-        String tableContent = this.tableContentWriterStack.removeLast().toString();
-
-        String tableCaption = null;
-        if (!this.tableCaptionStack.isEmpty() && this.tableCaptionStack.getLast() != null) {
-            tableCaption = this.tableCaptionStack.removeLast();
+        TableContent table = this.tableContentStack.removeLast();
+        if (table.buffer != null) {
+            write(table.getContent());
         }
+    }
 
-        if (tableCaption != null) {
-            // DOXIA-177
-            StringBuilder sb = new StringBuilder();
-            sb.append(tableContent, 0, tableContent.indexOf(Markup.GREATER_THAN) + 1);
-            sb.append(tableCaption);
-            sb.append(tableContent.substring(tableContent.indexOf(Markup.GREATER_THAN) + 1));
+    /**
+     * Sets the number of characters of a table above which the tables being written are streamed to the output.
+     *
+     * @param tableBufferLimit the maximum number of characters buffered for a table
+     * @see #table_()
+     */
+    void setTableBufferLimit(int tableBufferLimit) {
+        this.tableBufferLimit = tableBufferLimit;
+    }
 
-            write(sb.toString());
-        } else {
-            write(tableContent);
+    /**
+     * Returns the buffer of the table being written, if it is buffered.
+     *
+     * @return the buffer of the current table, or {@code null} if there is no table or if it is streamed
+     */
+    private StringWriter getTableBuffer() {
+        return this.tableContentStack.isEmpty() ? null : this.tableContentStack.getLast().buffer;
+    }
+
+    /**
+     * Streams all the tables being written to the output once the current one exceeds the buffer limit.
+     * The outermost tables come first in the stack, so their buffered content is written first.
+     */
+    private void checkTableBuffer(StringWriter tableBuffer) {
+        if (tableBuffer.getBuffer().length() <= tableBufferLimit) {
+            return;
+        }
+
+        for (TableContent table : this.tableContentStack) {
+            if (table.buffer != null) {
+                writer.write(table.getContent());
+                table.buffer = null;
+            }
         }
     }
 
@@ -1166,9 +1259,20 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
         writeEndTag(HtmlMarkup.CAPTION);
 
         if (!this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null) {
-            this.tableCaptionStack.addLast(
-                    this.tableCaptionWriterStack.removeLast().toString());
+            String caption = this.tableCaptionWriterStack.removeLast().toString();
             this.tableCaptionXMLWriterStack.removeLast();
+
+            if (getTableBuffer() != null) {
+                this.tableContentStack.getLast().caption = caption;
+            } else {
+                if (!this.tableContentStack.isEmpty()) {
+                    LOGGER.warn(
+                            "{}Table caption written after the rows of a table larger than {} characters",
+                            getLocationLogPrefix(),
+                            tableBufferLimit);
+                }
+                write(caption);
+            }
         }
     }
 
@@ -1670,7 +1774,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
         while (names.hasMoreElements()) {
             Object name = names.nextElement();
 
-            set.addAttribute(name, escapeHTML(attributes.getAttribute(name).toString()));
+            set.addAttribute(name, escapeAttributeValue(attributes.getAttribute(name).toString()));
         }
 
         return set;
@@ -1699,9 +1803,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
      */
     protected void content(String text) {
         // small hack due to DOXIA-314
-        String txt = escapeHTML(text);
-        txt = DoxiaStringUtils.replace(txt, "&amp;#", "&#");
-        write(txt);
+        writeEscaped(text, true);
     }
 
     /**
@@ -1710,7 +1812,70 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
      * @param text The text to write.
      */
     protected void verbatimContent(String text) {
-        write(escapeHTML(text));
+        writeEscaped(text, false);
+    }
+
+    /**
+     * Escapes the text in one pass straight into the current output, without going through {@link #write(String)}.
+     * A table caption is written through its XML writer though, which only accepts whole strings, as well as the text
+     * of a sink without {@link #isDirectOutput() direct output}. The same escaping writers are used for all outputs.
+     *
+     * @see #setOutputCharset(Charset)
+     */
+    private void writeEscaped(String text, boolean keepCharacterReferences) {
+        if (text == null) {
+            return;
+        }
+
+        HtmlEscapingWriter escapingWriter = keepCharacterReferences ? contentWriter : verbatimContentWriter;
+        boolean throughWrite = !isDirectOutput()
+                || !this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null;
+        StringWriter tableBuffer = throughWrite ? null : getTableBuffer();
+        if (throughWrite) {
+            escapedText.getBuffer().setLength(0);
+            escapingWriter.setOut(escapedText);
+        } else if (tableBuffer != null) {
+            escapingWriter.setOut(tableBuffer);
+        } else {
+            escapingWriter.setOut(writer);
+        }
+
+        try {
+            escapingWriter.write(text);
+        } catch (IOException e) {
+            // PrintWriter and StringWriter never throw
+            throw new UncheckedIOException(e);
+        }
+
+        if (throughWrite) {
+            write(escapedText.toString());
+        } else if (tableBuffer != null) {
+            checkTableBuffer(tableBuffer);
+        }
+    }
+
+    /**
+     * Escapes an attribute value as {@link #escapeHTML(String)} does, except that the characters the
+     * {@link #setOutputCharset(Charset) output charset} can encode are kept as is.
+     *
+     * @param text the String to escape, may be null
+     * @return the text escaped, "" if null String input
+     * @since 2.1.1
+     */
+    protected String escapeAttributeValue(String text) {
+        if (attributeWriter == null || text == null) {
+            return escapeHTML(text);
+        }
+
+        StringWriter escaped = new StringWriter(text.length() + 16);
+        attributeWriter.setOut(escaped);
+        try {
+            attributeWriter.write(text);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new UncheckedIOException(e);
+        }
+        return escaped.toString();
     }
 
     /**
@@ -1806,16 +1971,78 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
         return compliantAttributes;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Subclasses may override this method to capture or filter the output, along with {@link #isDirectOutput()} so
+     * that all the text and markup go through it. Otherwise they are written straight to the output.
+     */
+    @Override
     protected void write(String text) {
         if (!this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null) {
             this.tableCaptionXMLWriterStack.getLast().writeMarkup(unifyEOLs(text));
-        } else if (!this.tableContentWriterStack.isEmpty() && this.tableContentWriterStack.getLast() != null) {
-            this.tableContentWriterStack.getLast().write(unifyEOLs(text));
+        } else if (getTableBuffer() != null) {
+            StringWriter tableBuffer = getTableBuffer();
+            tableBuffer.write(unifyEOLs(text));
+            checkTableBuffer(tableBuffer);
         } else {
             writer.write(unifyEOLs(text));
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The markup is copied straight to the current output, unless it needs to go through {@link #write(String)}:
+     * without {@link #isDirectOutput() direct output}, in a table caption, or if its line separators are not the system
+     * EOL.
+     */
+    @Override
+    protected void writeMarkup(StringBuilder markup) {
+        if (!isDirectOutput()
+                || !this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null
+                || !hasUnifiedEOLs(markup)) {
+            write(markup.toString());
+            return;
+        }
+
+        StringWriter tableBuffer = getTableBuffer();
+        if (tableBuffer != null) {
+            tableBuffer.getBuffer().append(markup);
+            checkTableBuffer(tableBuffer);
+        } else {
+            int length = markup.length();
+            if (markupChars.length < length) {
+                markupChars = new char[Math.max(length, 2 * markupChars.length)];
+            }
+            markup.getChars(0, length, markupChars, 0);
+            writer.write(markupChars, 0, length);
+        }
+    }
+
+    /**
+     * Indicates if {@link #unifyEOLs(String)} would leave the given text unchanged.
+     */
+    private static boolean hasUnifiedEOLs(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\r' || c == '\n') {
+                int eolLength = c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n' ? 2 : 1;
+                if (eolLength != EOL.length()) {
+                    return false;
+                }
+                for (int j = 0; j < eolLength; j++) {
+                    if (text.charAt(i + j) != EOL.charAt(j)) {
+                        return false;
+                    }
+                }
+                i += eolLength - 1;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected void writeStartTag(Tag t, MutableAttributeSet att, boolean isSimpleTag) {
         if (this.tableCaptionXMLWriterStack.isEmpty()) {
@@ -1848,4 +2075,28 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
             this.tableCaptionXMLWriterStack.getLast().endElement();
         }
     }
+
+    /** The content of a table being written. */
+    private static final class TableContent {
+        /** The buffered content, or {@code null} once the table is streamed. */
+        private StringWriter buffer = new StringWriter();
+
+        /** The caption given before the table is streamed, written after the start tag of the table. */
+        private String caption;
+
+        /** Returns the buffered content, with the caption after the start tag of the table (DOXIA-177). */
+        String getContent() {
+            String content = buffer.toString();
+            if (caption == null) {
+                return content;
+            }
+
+            int start = content.indexOf(Markup.GREATER_THAN) + 1;
+            StringBuilder sb = new StringBuilder(content.length() + caption.length());
+            sb.append(content, 0, start);
+            sb.append(caption);
+            sb.append(content, start, content.length());
+            return sb.toString();
+        }
+    }
 }
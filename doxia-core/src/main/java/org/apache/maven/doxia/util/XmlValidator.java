@@ -18,20 +18,42 @@
  */
 package org.apache.maven.doxia.util;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.input.SequenceReader;
+import org.apache.commons.io.input.TeeReader;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.maven.doxia.markup.XmlMarkup;
 import org.apache.maven.doxia.parser.ParseException;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -41,15 +63,35 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * A class to validate xml documents.
+ * <p>
+ * Documents declaring their XML Schemas with <code>xsi:schemaLocation</code> or
+ * <code>xsi:noNamespaceSchemaLocation</code> on the root element (and without DTD) are validated against
+ * compiled schemas, which are cached for all validators: each schema is only compiled once, until it is evicted
+ * or, for local files, until one of them changes. Other documents are validated with their DTD or the schemas they
+ * reference, compiled for each document.
+ * <p>
+ * A validator is not thread-safe, but it may validate any number of documents: its readers are reused.
  *
  * @since 1.1.3
  */
 public class XmlValidator {
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlValidator.class);
 
+    /** The maximal number of compiled XML Schemas kept in {@link #SCHEMAS}, and of readers of each validator. */
+    private static final int MAX_CACHED_SCHEMAS = 64;
+
+    /**
+     * Compiled XML Schemas, keyed by the schema locations declared by the documents, in access order: the least
+     * recently used schemas are evicted.
+     */
+    private static final Map<String, CompiledSchema> SCHEMAS = Collections.synchronizedMap(newLruMap());
+
     /** lazy xmlReader to validate xml content*/
     private XMLReader xmlReader;
 
+    /** lazy readers validating against a compiled schema, the least recently used ones being evicted. */
+    private final Map<Schema, XMLReader> schemaReaders = newLruMap();
+
     private boolean validate = true;
     private DefaultHandler defaultHandler;
     private EntityResolver entityResolver;
@@ -85,13 +127,141 @@ public class XmlValidator {
      * @throws ParseException if any.
      */
     public void validate(String content) throws ParseException {
+        validate(new StringReader(content));
+    }
+
+    /**
+     * Validate an XML content with SAX, reading it only once.
+     *
+     * @param content a not null xml content, not closed by this method
+     * @throws ParseException if any.
+     * @since 2.1.1
+     */
+    public void validate(Reader content) throws ParseException {
         try {
-            getXmlReader().parse(new InputSource(new StringReader(content)));
+            Reader input = content;
+            XMLReader reader = null;
+            if (isValidate()) {
+                // the characters read to find the schemas are read again by the validating reader
+                StringBuilderWriter prolog = new StringBuilderWriter();
+                List<String> schemaLocations = getSchemaLocations(new TeeReader(content, prolog));
+                input = new SequenceReader(new StringReader(prolog.toString()), content);
+                reader = getSchemaReader(schemaLocations);
+            }
+            if (reader == null) {
+                reader = getXmlReader();
+            }
+            reader.parse(new InputSource(input));
         } catch (IOException | SAXException | ParserConfigurationException e) {
             throw new ParseException("Error validating the model", e);
         }
     }
 
+    /**
+     * @param schemaLocations the schema locations declared by the content
+     * @return a reader validating against the compiled schemas, or {@code null} if the content does not declare
+     * schemas only
+     * @throws SAXException if the schemas cannot be compiled
+     * @throws ParserConfigurationException if any
+     */
+    private XMLReader getSchemaReader(List<String> schemaLocations) throws SAXException, ParserConfigurationException {
+        if (schemaLocations.isEmpty()) {
+            return null;
+        }
+
+        String key = String.join(" ", schemaLocations);
+        // the files state is taken before compiling, so that a concurrent change invalidates the schema
+        List<FileStamp> stamps = FileStamp.of(schemaLocations);
+        CompiledSchema compiled = SCHEMAS.get(key);
+        if (compiled == null || !compiled.stamps.equals(stamps)) {
+            compiled = new CompiledSchema(compileSchema(schemaLocations), stamps);
+            SCHEMAS.put(key, compiled);
+        }
+        Schema schema = compiled.schema;
+
+        XMLReader reader = schemaReaders.get(schema);
+        if (reader == null) {
+            SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+            parserFactory.setNamespaceAware(true);
+            parserFactory.setSchema(schema);
+            SAXParser parser = parserFactory.newSAXParser();
+            // Always force language-neutral exception messages for MessagesErrorHandler
+            parser.setProperty("http://apache.org/xml/properties/locale", Locale.ROOT);
+            reader = parser.getXMLReader();
+            schemaReaders.put(schema, reader);
+        }
+        reader.setErrorHandler(getDefaultHandler());
+        reader.setEntityResolver(getEntityResolver());
+
+        return reader;
+    }
+
+    /**
+     * Reads the schema locations declared on the root element, parsing stops after the root start tag.
+     *
+     * @param content the xml content
+     * @return the locations of the schemas, empty if the content has a DTD or does not declare any schema
+     */
+    static List<String> getSchemaLocations(Reader content) {
+        List<String> schemaLocations = new ArrayList<>();
+        try {
+            MXParser parser = new MXParser();
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+            parser.setInput(content);
+
+            int eventType = parser.nextToken();
+            while (eventType != XmlPullParser.START_TAG) {
+                if (eventType == XmlPullParser.DOCDECL || eventType == XmlPullParser.END_DOCUMENT) {
+                    return schemaLocations;
+                }
+                eventType = parser.nextToken();
+            }
+
+            String schemaLocation =
+                    parser.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+            if (schemaLocation != null) {
+                // pairs of namespace and location
+                String[] tokens = schemaLocation.trim().split("\\s+");
+                for (int i = 1; i < tokens.length; i += 2) {
+                    schemaLocations.add(tokens[i]);
+                }
+            }
+            String noNamespaceSchemaLocation =
+                    parser.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+            if (noNamespaceSchemaLocation != null) {
+                schemaLocations.add(noNamespaceSchemaLocation.trim());
+            }
+        } catch (XmlPullParserException | IOException e) {
+            // not well-formed: let the validating reader report it
+            schemaLocations.clear();
+        }
+        return schemaLocations;
+    }
+
+    private Schema compileSchema(List<String> schemaLocations) throws SAXException {
+        LOGGER.debug("Compiling XML Schemas {}", schemaLocations);
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        schemaFactory.setErrorHandler(getDefaultHandler());
+        if (getEntityResolver() != null) {
+            schemaFactory.setResourceResolver(new EntityResourceResolver(getEntityResolver()));
+        }
+
+        Source[] sources = new Source[schemaLocations.size()];
+        for (int i = 0; i < sources.length; i++) {
+            String systemId = schemaLocations.get(i);
+            InputSource inputSource = null;
+            if (getEntityResolver() != null) {
+                try {
+                    inputSource = getEntityResolver().resolveEntity(null, systemId);
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+            }
+            sources[i] = new SAXSource(inputSource != null ? inputSource : new InputSource(systemId));
+        }
+        return schemaFactory.newSchema(sources);
+    }
+
     /**
      * @return an xmlReader instance.
      * @throws SAXException if any
@@ -118,6 +288,219 @@ public class XmlValidator {
         return xmlReader;
     }
 
+    private static <K, V> Map<K, V> newLruMap() {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > MAX_CACHED_SCHEMAS;
+            }
+        };
+    }
+
+    /**
+     * A compiled XML Schema, with the state of its local files when it was compiled.
+     */
+    private static final class CompiledSchema {
+        private final Schema schema;
+
+        private final List<FileStamp> stamps;
+
+        CompiledSchema(Schema schema, List<FileStamp> stamps) {
+            this.schema = schema;
+            this.stamps = stamps;
+        }
+    }
+
+    /**
+     * The last modification time and the size of a local schema file.
+     */
+    private static final class FileStamp {
+        private final long lastModified;
+
+        private final long length;
+
+        private FileStamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * @param schemaLocations the schema locations, not null
+         * @return the current state of the local files among the schema locations
+         */
+        static List<FileStamp> of(List<String> schemaLocations) {
+            List<FileStamp> stamps = new ArrayList<>();
+            for (String schemaLocation : schemaLocations) {
+                File file;
+                try {
+                    URI uri = URI.create(schemaLocation);
+                    if (uri.getScheme() == null) {
+                        file = new File(schemaLocation);
+                    } else if ("file".equals(uri.getScheme())) {
+                        file = new File(uri);
+                    } else {
+                        continue;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // not a URI, e.g. a Windows path
+                    file = new File(schemaLocation);
+                }
+                stamps.add(new FileStamp(file.lastModified(), file.length()));
+            }
+            return stamps;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 + Long.hashCode(length);
+        }
+    }
+
+    /**
+     * Resolves the schemas imported or included by the compiled schemas with an {@link EntityResolver}.
+     */
+    private static class EntityResourceResolver implements LSResourceResolver {
+        private final EntityResolver entityResolver;
+
+        EntityResourceResolver(EntityResolver entityResolver) {
+            this.entityResolver = entityResolver;
+        }
+
+        @Override
+        public LSInput resolveResource(
+                String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+            if (systemId == null) {
+                return null;
+            }
+
+            String resolvedSystemId = systemId;
+            if (baseURI != null) {
+                try {
+                    resolvedSystemId = URI.create(baseURI).resolve(systemId).toString();
+                } catch (IllegalArgumentException e) {
+                    // keep the system id as it is
+                }
+            }
+
+            try {
+                InputSource inputSource = entityResolver.resolveEntity(publicId, resolvedSystemId);
+                return inputSource != null ? new InputSourceInput(inputSource, baseURI) : null;
+            } catch (SAXException | IOException e) {
+                LOGGER.warn("Unable to resolve '{}': {}", resolvedSystemId, e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * An {@link LSInput} reading an {@link InputSource}.
+     */
+    private static class InputSourceInput implements LSInput {
+        private final InputSource inputSource;
+
+        private String baseURI;
+
+        private String stringData;
+
+        private boolean certifiedText;
+
+        InputSourceInput(InputSource inputSource, String baseURI) {
+            this.inputSource = inputSource;
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        public Reader getCharacterStream() {
+            return inputSource.getCharacterStream();
+        }
+
+        @Override
+        public void setCharacterStream(Reader characterStream) {
+            inputSource.setCharacterStream(characterStream);
+        }
+
+        @Override
+        public InputStream getByteStream() {
+            return inputSource.getByteStream();
+        }
+
+        @Override
+        public void setByteStream(InputStream byteStream) {
+            inputSource.setByteStream(byteStream);
+        }
+
+        @Override
+        public String getStringData() {
+            return stringData;
+        }
+
+        @Override
+        public void setStringData(String stringData) {
+            this.stringData = stringData;
+        }
+
+        @Override
+        public String getSystemId() {
+            return inputSource.getSystemId();
+        }
+
+        @Override
+        public void setSystemId(String systemId) {
+            inputSource.setSystemId(systemId);
+        }
+
+        @Override
+        public String getPublicId() {
+            return inputSource.getPublicId();
+        }
+
+        @Override
+        public void setPublicId(String publicId) {
+            inputSource.setPublicId(publicId);
+        }
+
+        @Override
+        public String getBaseURI() {
+            return baseURI;
+        }
+
+        @Override
+        public void setBaseURI(String baseURI) {
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        public String getEncoding() {
+            return inputSource.getEncoding();
+        }
+
+        @Override
+        public void setEncoding(String encoding) {
+            inputSource.setEncoding(encoding);
+        }
+
+        @Override
+        public boolean getCertifiedText() {
+            return certifiedText;
+        }
+
+        @Override
+        public void setCertifiedText(boolean certifiedText) {
+            this.certifiedText = certifiedText;
+        }
+    }
+
     /**
      * Convenience class to beautify <code>SAXParseException</code> messages.
      */
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.doxia.parser.AbstractParserTest.assertSinkEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link DeferredMacroSink}.
+ */
+class DeferredMacroSinkTest {
+
+    private final MacroRequest request =
+            new MacroRequest(null, new Xhtml5BaseParser(), new HashMap<>(), new File("."));
+
+    @Test
+    void documentOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncMacro slow = (sink, request) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new MacroExecutionException("Interrupted", e);
+            }
+            sink.text("slow");
+        };
+        AsyncMacro fast = (sink, request) -> sink.text("fast");
+
+        SinkEventTestingSink target = new SinkEventTestingSink();
+        DeferredMacroSink sink = new DeferredMacroSink(target, 2);
+        sink.body();
+        sink.execute(slow, request);
+        sink.paragraph();
+        sink.execute(fast, request);
+        sink.paragraph_();
+
+        // the slow macro is still running, the events following it are held back
+        assertEquals(1, target.getEventList().size());
+
+        release.countDown();
+        sink.body_();
+        assertSinkEquals(target.getEventList().iterator(), "body", "text", "paragraph", "text", "paragraph_", "body_");
+        assertEquals("slow", target.getEventList().get(1).getArgs()[0]);
+        assertEquals("fast", target.getEventList().get(3).getArgs()[0]);
+    }
+
+    @Test
+    void failure() throws Exception {
+        AsyncMacro failing = (sink, request) -> {
+            throw new MacroExecutionException("failure");
+        };
+
+        DeferredMacroSink sink = new DeferredMacroSink(new SinkEventTestingSink(), 1);
+        sink.execute(failing, request);
+        IllegalStateException e = assertThrows(IllegalStateException.class, sink::flush);
+        assertInstanceOf(MacroExecutionException.class, e.getCause());
+
+        // the permit is given back
+        sink.execute((s, r) -> s.text("next"), request);
+        sink.flush();
+        assertTrue(sink.getWrappedSink() instanceof SinkEventTestingSink);
+    }
+
+    @Test
+    void failureLocated() throws Exception {
+        AsyncMacro failing = (sink, request) -> {
+            throw new MacroExecutionException("failure");
+        };
+
+        SinkEventTestingSink target = new SinkEventTestingSink();
+        DeferredMacroSink sink = new DeferredMacroSink(target, 1);
+        sink.setDocumentLocator(new Locator() {
+            @Override
+            public int getLineNumber() {
+                return 3;
+            }
+
+            @Override
+            public int getColumnNumber() {
+                return 5;
+            }
+
+            @Override
+            public String getReference() {
+                return "test.apt";
+            }
+        });
+        sink.body();
+        sink.execute(failing, request);
+        sink.text("following");
+        sink.body_();
+
+        ParseException e = assertThrows(ParseException.class, sink::complete);
+        assertInstanceOf(MacroExecutionException.class, e.getCause());
+        assertEquals(3, e.getLineNumber());
+        assertEquals(5, e.getColumnNumber());
+        assertEquals("test.apt", e.getFileName());
+        // the events following the failed macro are dropped, the failure is reported once
+        assertSinkEquals(target.getEventList().iterator(), "body");
+        sink.close();
+    }
+
+    @Test
+    void failureCancelsFollowingMacros() throws Exception {
+        AsyncMacro failing = (sink, request) -> {
+            throw new MacroExecutionException("failure");
+        };
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AsyncMacro blocking = blocking(started, interrupted);
+
+        SinkEventTestingSink target = new SinkEventTestingSink();
+        DeferredMacroSink sink = new DeferredMacroSink(target, 2);
+        sink.body();
+        sink.execute(failing, request);
+        sink.execute(blocking, request);
+        sink.text("following");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertThrows(ParseException.class, sink::complete);
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertSinkEquals(target.getEventList().iterator(), "body");
+
+        // both permits are given back
+        sink.execute((s, r) -> s.text("next"), request);
+        sink.execute((s, r) -> s.text("last"), request);
+        sink.complete();
+        assertSinkEquals(target.getEventList().iterator(), "body", "text", "text");
+    }
+
+    @Test
+    void cancel() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        SinkEventTestingSink target = new SinkEventTestingSink();
+        DeferredMacroSink sink = new DeferredMacroSink(target, 1);
+        sink.body();
+        sink.execute(blocking(started, interrupted), request);
+        sink.text("following");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        sink.cancel();
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        // the pending events are dropped, the following ones are written directly
+        sink.body_();
+        assertSinkEquals(target.getEventList().iterator(), "body", "body_");
+
+        // the permit is given back
+        sink.execute((s, r) -> s.text("next"), request);
+        sink.complete();
+        assertEquals("next", target.getEventList().get(2).getArgs()[0]);
+    }
+
+    /**
+     * @return a macro running until it is interrupted
+     */
+    private static AsyncMacro blocking(CountDownLatch started, CountDownLatch interrupted) {
+        return (sink, request) -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new MacroExecutionException("Interrupted", e);
+            }
+        };
+    }
+}
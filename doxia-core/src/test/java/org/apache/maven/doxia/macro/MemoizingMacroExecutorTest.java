@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventElement;
+import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link MemoizingMacroExecutor}.
+ */
+class MemoizingMacroExecutorTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private String fingerprint = "v1";
+
+    private final MemoizableMacro counting = new MemoizableMacro() {
+        @Override
+        public void execute(Sink sink, MacroRequest request) {
+            sink.text(request.getParameter("text") + " " + executions.incrementAndGet());
+        }
+
+        @Override
+        public String getFingerprint(MacroRequest request) {
+            return fingerprint;
+        }
+    };
+
+    private final MemoizingMacroExecutor executor = new MemoizingMacroExecutor(id -> {
+        switch (id) {
+            case "counting":
+                return counting;
+            case "echo":
+                return new EchoMacro();
+            default:
+                throw new MacroNotFoundException("Unknown macro " + id);
+        }
+    });
+
+    private String execute(String macroId, String text) throws Exception {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        executor.executeMacro(
+                macroId, new MacroRequest("source", new Xhtml5BaseParser(), parameters, new File(".")), sink);
+        StringBuilder output = new StringBuilder();
+        for (SinkEventElement event : sink.getEventList()) {
+            if (event.getName().equals("text")) {
+                output.append(event.getArgs()[0]);
+            }
+        }
+        return output.toString();
+    }
+
+    @Test
+    void replay() throws Exception {
+        assertEquals("a 1", execute("counting", "a"));
+        assertEquals("a 1", execute("counting", "a"));
+        assertEquals("b 2", execute("counting", "b"));
+        assertEquals(1, executor.getHitCount());
+        assertEquals(2, executor.getMissCount());
+
+        // the dependencies changed
+        fingerprint = "v2";
+        assertEquals("a 3", execute("counting", "a"));
+
+        // not to be replayed
+        fingerprint = null;
+        assertEquals("a 4", execute("counting", "a"));
+        assertEquals("a 5", execute("counting", "a"));
+        assertEquals(1, executor.getHitCount());
+
+        // the source content is not a parameter of the macro
+        assertEquals("echo" + Macro.EOL + "text ---> c" + Macro.EOL, execute("echo", "c"));
+        assertEquals("echo" + Macro.EOL + "text ---> c" + Macro.EOL, execute("echo", "c"));
+        assertEquals(2, executor.getHitCount());
+
+        assertThrows(MacroNotFoundException.class, () -> execute("unknown", "a"));
+    }
+}
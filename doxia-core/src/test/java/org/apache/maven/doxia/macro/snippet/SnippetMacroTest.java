@@ -19,8 +19,12 @@
 package org.apache.maven.doxia.macro.snippet;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.maven.doxia.macro.MacroExecutionException;
@@ -30,6 +34,7 @@ import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
 import org.codehaus.plexus.testing.PlexusTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.codehaus.plexus.testing.PlexusExtension.getBasedir;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -149,8 +154,91 @@ class SnippetMacroTest {
         assertTrue(snippet.contains("Error during retrieving content"));
     }
 
+    @Test
+    void cacheInvalidation(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("snippet.txt");
+        Files.write(file, "first\n".getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("file", file.toString());
+        SnippetCache cache = new SnippetCache(1024);
+        SnippetMacro macro = new SnippetMacro(cache);
+
+        assertEquals("first", getSnippetText(executeSnippetMacro(macro, macroParameters)));
+        assertEquals("first", getSnippetText(executeSnippetMacro(macro, macroParameters)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // a changed file is read again, whatever the timeout
+        Files.write(file, "second\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("second", getSnippetText(executeSnippetMacro(macro, macroParameters)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void streaming() throws Exception {
+        Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("file", "src/test/resources/macro/snippet/testSnippet.txt");
+        macroParameters.put("encoding", "UTF-8");
+        macroParameters.put("id", "thirdId");
+        SnippetMacro streamingMacro = new SnippetMacro();
+        streamingMacro.setStreamingThreshold(0);
+
+        for (String verbatim : new String[] {"true", "false"}) {
+            macroParameters.put("verbatim", verbatim);
+            List<SinkEventElement> expected =
+                    executeSnippetMacro(new SnippetMacro(), macroParameters).getEventList();
+            List<SinkEventElement> streamed =
+                    executeSnippetMacro(streamingMacro, macroParameters).getEventList();
+
+            assertEquals(expected, streamed);
+        }
+
+        macroParameters.put("id", "missing");
+        macroParameters.put("ignoreDownloadError", "false");
+        assertThrows(MacroExecutionException.class, () -> executeSnippetMacro(streamingMacro, macroParameters));
+    }
+
+    @Test
+    void streamingChunkBoundaries(@TempDir Path dir) throws Exception {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 8191; i++) {
+            line.append('a');
+        }
+        Path file = dir.resolve("snippet.txt");
+        Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("file", file.toString());
+        SnippetMacro streamingMacro = new SnippetMacro();
+        streamingMacro.setStreamingThreshold(0);
+
+        // a non-BMP character, then a line separator, at the end of the first chunk
+        for (String content : new String[] {line + "\uD83D\uDE00\nb\n", line + "\r\nb\r\n"}) {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder streamed = new StringBuilder();
+            for (SinkEventElement event : executeSnippetMacro(streamingMacro, macroParameters).getEventList()) {
+                if (event.getName().equals("text")) {
+                    String text = (String) event.getArgs()[0];
+                    char last = text.charAt(text.length() - 1);
+                    assertFalse(Character.isHighSurrogate(last) || last == '\r', "chunk split at " + streamed.length());
+                    streamed.append(text);
+                }
+            }
+            assertEquals(getSnippetText(executeSnippetMacro(macroParameters)), streamed.toString().trim());
+        }
+    }
+
+    private static String getSnippetText(SinkEventTestingSink sink) {
+        return ((String) sink.getEventList().get(1).getArgs()[0]).trim();
+    }
+
     private SinkEventTestingSink executeSnippetMacro(Map<String, Object> macroParameters)
             throws MacroExecutionException {
+        return executeSnippetMacro(new SnippetMacro(), macroParameters);
+    }
+
+    private SinkEventTestingSink executeSnippetMacro(SnippetMacro macro, Map<String, Object> macroParameters)
+            throws MacroExecutionException {
         File basedir = new File(getBasedir());
 
         Xhtml5BaseParser parser = new Xhtml5BaseParser();
@@ -158,7 +246,6 @@ class SnippetMacroTest {
         SinkEventTestingSink sink = new SinkEventTestingSink();
 
         MacroRequest request = new MacroRequest(null, parser, macroParameters, basedir);
-        SnippetMacro macro = new SnippetMacro();
         macro.execute(sink, request);
 
         return sink;
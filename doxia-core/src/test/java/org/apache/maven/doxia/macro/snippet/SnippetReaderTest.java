@@ -18,9 +18,23 @@
  */
 package org.apache.maven.doxia.macro.snippet;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SnippetReaderTest {
@@ -39,4 +53,69 @@ class SnippetReaderTest {
         assertFalse(SnippetReader.isDemarcator(snippetId, what, "SNIPPET START first_id"));
         assertFalse(SnippetReader.isDemarcator(snippetId, what, "SNIPPET START id_first"));
     }
+
+    @Test
+    void index(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Snippets.java");
+        Files.write(
+                file,
+                Arrays.asList(
+                        "// START SNIPPET: first",
+                        "first",
+                        "// START SNIPPET: second",
+                        "second",
+                        "// END SNIPPET: second",
+                        "// start snippet first",
+                        "first again",
+                        "// END SNIPPET: first",
+                        "// END SNIPPET: orphan"),
+                StandardCharsets.UTF_8);
+        URL url = file.toUri().toURL();
+
+        SnippetIndex index = SnippetIndex.of(url, "UTF-8");
+        assertEquals(9, index.getLines(null).size());
+        assertEquals(
+                Arrays.asList("first", "// START SNIPPET: second", "second", "// END SNIPPET: second", "first again"),
+                index.getLines("first"));
+        assertEquals(Collections.singletonList("second"), index.getLines("second"));
+        assertThrows(IOException.class, () -> index.getLines("orphan"));
+        assertThrows(IOException.class, () -> index.getLines("missing"));
+
+        StringWriter streamed = new StringWriter();
+        new SnippetReader(url, "UTF-8").readSnippet("first", streamed);
+        assertEquals(new SnippetReader(url, "UTF-8").readSnippet("first").toString(), streamed.toString());
+        assertThrows(IOException.class, () -> new SnippetReader(url, "UTF-8").readSnippet("orphan", streamed));
+
+        // all the snippets of an unchanged file are read from a single index
+        assertSame(index, SnippetIndex.of(url, "UTF-8"));
+        assertEquals(
+                "second" + System.lineSeparator(),
+                new SnippetReader(url, "UTF-8").readSnippet("second").toString());
+        Files.write(file, Collections.singletonList("// SNIPPET START second"), StandardCharsets.UTF_8);
+        assertNotSame(index, SnippetIndex.of(url, "UTF-8"));
+        assertThrows(IOException.class, () -> new SnippetReader(url, "UTF-8").readSnippet("second"));
+    }
+
+    @Test
+    void indexCacheWeight(@TempDir Path dir) throws Exception {
+        Path first = dir.resolve("first.txt");
+        Files.write(first, Arrays.asList("0123456789", "0123456789"), StandardCharsets.UTF_8);
+        Path second = dir.resolve("second.txt");
+        Files.write(second, Arrays.asList("0123456789", "0123456789"), StandardCharsets.UTF_8);
+        URL firstUrl = first.toUri().toURL();
+        URL secondUrl = second.toUri().toURL();
+
+        // the indexes share the weight limit of the snippets, the least recently used one being evicted
+        SnippetCache cache = new SnippetCache(30);
+        SnippetIndex index = SnippetIndex.of(firstUrl, "UTF-8", cache);
+        assertEquals(20, index.getWeight());
+        assertSame(index, SnippetIndex.of(firstUrl, "UTF-8", cache));
+        SnippetIndex.of(secondUrl, "UTF-8", cache);
+        assertEquals(1, cache.getEvictionCount());
+        assertNotSame(index, SnippetIndex.of(firstUrl, "UTF-8", cache));
+
+        // an index heavier than the limit is not cached
+        SnippetCache small = new SnippetCache(10);
+        assertNotSame(SnippetIndex.of(firstUrl, "UTF-8", small), SnippetIndex.of(firstUrl, "UTF-8", small));
+    }
 }
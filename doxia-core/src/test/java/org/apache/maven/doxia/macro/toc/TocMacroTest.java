@@ -201,6 +201,49 @@ class TocMacroTest {
                 out.toString());
     }
 
+    @Test
+    void deferredToc() throws Exception {
+        // the source content is not parsed, the index comes from the events given to the sink
+        String sourceContent = "<h1>not parsed</h1>";
+        MacroRequest request = new MacroRequest(sourceContent, new Xhtml5BaseParser(), new HashMap<>(), new File(""));
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        Sink deferredTocSink = new DeferredTocSinkFactory().createWrapper(sink);
+
+        deferredTocSink.body();
+        new TocMacro().execute(deferredTocSink, request);
+        deferredTocSink.section1();
+        deferredTocSink.sectionTitle1();
+        deferredTocSink.text("Headline");
+        deferredTocSink.sectionTitle1_();
+        deferredTocSink.section1_();
+        assertEquals(1, sink.getEventList().size());
+        deferredTocSink.body_();
+
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        AbstractParserTest.assertSinkStartsWith(it, "body", "list");
+        assertListItem(it, "#Headline", "Headline");
+        AbstractParserTest.assertSinkEquals(
+                it, "listItem_", "list_", "section1", "sectionTitle1", "text", "sectionTitle1_", "section1_", "body_");
+    }
+
+    @Test
+    void deferredTocWithoutToc() throws Exception {
+        String text = "<div><h1>Headline</h1><p>Some <a href=\"#Sub\">text</a></p>"
+                + "<h2>Sub</h2><pre>verbatim</pre><ul><li>item</li></ul><h1>Other</h1><p>end</p></div>";
+
+        Xhtml5BaseParser parser = new Xhtml5BaseParser();
+        SinkEventTestingSink expected = new SinkEventTestingSink();
+        parser.parse(text, expected);
+
+        Xhtml5BaseParser deferredTocParser = new Xhtml5BaseParser();
+        deferredTocParser.addSinkWrapperFactory(new DeferredTocSinkFactory());
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        deferredTocParser.parse(text, sink);
+
+        // a document without TOC passes through the deferred TOC sink unchanged
+        assertEquals(expected.getEventList(), sink.getEventList());
+    }
+
     @Test
     void writeTocWithEmptyAndNotApplicableIndexEntries() {
         TocMacro macro = new TocMacro();
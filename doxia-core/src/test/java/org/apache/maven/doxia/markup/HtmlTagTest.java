@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.markup;
+
+import javax.swing.text.html.HTML.Tag;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HtmlTagTest {
+    @Test
+    void sameAsHtmlMarkup() throws Exception {
+        int count = 0;
+        for (Field field : HtmlMarkup.class.getFields()) {
+            if (field.getType() != Tag.class || !Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            Tag tag = (Tag) field.get(null);
+            HtmlTag htmlTag = HtmlTag.valueOf(field.getName());
+            assertEquals(tag.toString(), htmlTag.toString(), field.getName());
+            assertEquals(tag.isBlock(), htmlTag.isBlock(), field.getName());
+            count++;
+        }
+
+        assertEquals(HtmlTag.values().length, count);
+    }
+
+    @Test
+    void forName() {
+        for (HtmlTag tag : HtmlTag.values()) {
+            assertEquals(tag, HtmlTag.forName(tag.toString()));
+        }
+
+        assertNotNull(HtmlTag.forName("section"));
+        assertNull(HtmlTag.forName("SECTION"));
+        assertNull(HtmlTag.forName("unknown"));
+    }
+}
@@ -22,12 +22,20 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.doxia.AbstractModuleTest;
+import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
@@ -113,6 +121,70 @@ public abstract class AbstractParserTest extends AbstractModuleTest {
         }
     }
 
+    /**
+     * Parse a test document '"test." + outputExtension()'
+     * with several copies of the parser from {@link #createParser()} at the same time.
+     * Asserts that each copy emits the same events as the original parser, apart from the internal macro
+     * parameters (source content and parser) which macros may emit as attributes.
+     *
+     * @throws IOException if the test document cannot be read.
+     * @throws ParseException if the test document cannot be parsed.
+     */
+    @Test
+    public final void concurrentCopies() throws Exception {
+        AbstractParser parser = createParser();
+        String source;
+        try (Reader reader = getTestReader("test", outputExtension())) {
+            source = IOUtils.toString(reader);
+        }
+        SinkEventTestingSink expectedSink = new SinkEventTestingSink();
+        parser.parse(source, expectedSink);
+        List<SinkEventElement> expectedEvents = withoutInternalParameters(expectedSink.getEventList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<SinkEventElement>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                AbstractParser copy = parser.copy();
+                results.add(executor.submit(() -> {
+                    SinkEventTestingSink sink = new SinkEventTestingSink();
+                    copy.parse(source, sink);
+                    return withoutInternalParameters(sink.getEventList());
+                }));
+            }
+            for (Future<List<SinkEventElement>> result : results) {
+                assertEquals(expectedEvents, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<SinkEventElement> withoutInternalParameters(List<SinkEventElement> events) {
+        List<SinkEventElement> result = new ArrayList<>(events.size());
+        for (SinkEventElement event : events) {
+            Object[] args = event.getArgs();
+            if (args != null) {
+                args = args.clone();
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] instanceof SinkEventAttributes) {
+                        SinkEventAttributeSet attributes = new SinkEventAttributeSet();
+                        Enumeration<?> names = ((SinkEventAttributes) args[i]).getAttributeNames();
+                        while (names.hasMoreElements()) {
+                            Object name = names.nextElement();
+                            if (!MacroRequest.isInternalParameter(String.valueOf(name))) {
+                                attributes.addAttribute(name, ((SinkEventAttributes) args[i]).getAttribute(name));
+                            }
+                        }
+                        args[i] = attributes;
+                    }
+                }
+            }
+            result.add(new SinkEventElement(event.getName(), args, event.getLineNumber()));
+        }
+        return result;
+    }
+
     private static final class TestSinkWrapperFactory implements SinkWrapperFactory {
 
         private final int priority;
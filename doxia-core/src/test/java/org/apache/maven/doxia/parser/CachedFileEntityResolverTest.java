@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.parser.AbstractXmlParser.CachedFileEntityResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link CachedFileEntityResolver}.
+ */
+class CachedFileEntityResolverTest {
+
+    private static final String DTD = "<!ENTITY foo \"&#x159;\">";
+
+    @Test
+    void cacheDirectory(@TempDir Path dir) throws Exception {
+        Path jar = dir.resolve("entities.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            zip.putNextEntry(new ZipEntry("test.dtd"));
+            zip.write(DTD.getBytes(StandardCharsets.UTF_8));
+        }
+        String systemId = "jar:" + jar.toUri() + "!/test.dtd";
+        Path cacheDirectory = dir.resolve("cache");
+
+        assertEquals(DTD, resolve(new CachedFileEntityResolver(cacheDirectory, false), systemId));
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertEquals(1, files.count());
+        }
+
+        // a new build, offline: the entity is only in the cache directory
+        CachedFileEntityResolver.ENTITY_CACHE.remove(systemId);
+        Files.delete(jar);
+        assertEquals(DTD, resolve(new CachedFileEntityResolver(cacheDirectory, true), systemId));
+    }
+
+    @Test
+    void offline(@TempDir Path dir) throws Exception {
+        CachedFileEntityResolver resolver = new CachedFileEntityResolver(dir, true);
+
+        assertThrows(SAXException.class, () -> resolver.resolveEntity(null, "https://doxia.invalid/test.dtd"));
+
+        // local files and well-known entities are still resolved
+        Path dtd = dir.resolve("test.dtd");
+        Files.write(dtd, DTD.getBytes(StandardCharsets.UTF_8));
+        assertEquals(DTD, resolve(resolver, dtd.toUri().toString()));
+
+        // a changed local file is read again, never served from the cache
+        String changed = "<!ENTITY foo \"&#x160;\">";
+        Files.write(dtd, changed.getBytes(StandardCharsets.UTF_8));
+        assertEquals(changed, resolve(resolver, dtd.toUri().toString()));
+        assertEquals(changed, resolve(resolver, dtd.toString()));
+        resolve(resolver, "https://www.w3.org/2001/xml.xsd");
+    }
+
+    private static String resolve(CachedFileEntityResolver resolver, String systemId)
+            throws IOException, SAXException {
+        InputSource source = resolver.resolveEntity(null, systemId);
+        return IOUtils.toString(source.getByteStream(), StandardCharsets.UTF_8);
+    }
+}
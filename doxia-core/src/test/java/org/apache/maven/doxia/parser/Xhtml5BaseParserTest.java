@@ -18,16 +18,31 @@
  */
 package org.apache.maven.doxia.parser;
 
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import org.apache.commons.io.input.ProxyReader;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.apache.maven.doxia.util.XmlValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test for Xhtml5BaseParser.
@@ -430,6 +445,97 @@ class Xhtml5BaseParserTest extends AbstractParserTest {
         assertSinkEquals(it, "paragraph_");
     }
 
+    @Test
+    void externalDtdEntities(@TempDir Path dir) throws Exception {
+        Path entities = dir.resolve("test.ent");
+        Files.write(entities, "<!ENTITY foo \"&#x160;\">".getBytes(StandardCharsets.UTF_8));
+        Path dtd = dir.resolve("test.dtd");
+        Files.write(dtd, "<!ENTITY % test SYSTEM \"test.ent\">%test;".getBytes(StandardCharsets.UTF_8));
+        String text = "<!DOCTYPE p SYSTEM \"" + dtd.toUri() + "\"><p>&foo;</p>";
+
+        String unreferenced = "http://localhost/unreferenced.dtd";
+        AbstractXmlParser.CachedFileEntityResolver.ENTITY_CACHE.put(
+                unreferenced, "<!ENTITY bar \"&#x162;\">".getBytes(StandardCharsets.UTF_8));
+        try {
+            parser.setValidate(false);
+            parser.parse(text, sink);
+
+            Iterator<SinkEventElement> it = sink.getEventList().iterator();
+            assertEquals("paragraph", it.next().getName());
+            assertEquals("\u0160", it.next().getArgs()[0]);
+            // only the entities of the referenced DTDs are defined
+            assertFalse(parser.getLocalEntities().containsKey("bar"));
+
+            // a changed DTD is read again
+            Files.write(entities, "<!ENTITY foo \"&#x161;\">".getBytes(StandardCharsets.UTF_8));
+            parser = new Xhtml5BaseParser();
+            parser.setValidate(false);
+            sink.reset();
+            parser.parse(text, sink);
+
+            it = sink.getEventList().iterator();
+            assertEquals("paragraph", it.next().getName());
+            assertEquals("\u0161", it.next().getArgs()[0]);
+        } finally {
+            AbstractXmlParser.CachedFileEntityResolver.ENTITY_CACHE.remove(unreferenced);
+        }
+    }
+
+    @Test
+    void parallelValidationOverlapsParsing() throws Exception {
+        AtomicLong validated = new AtomicLong();
+        Xhtml5BaseParser validatingParser = new Xhtml5BaseParser() {
+            @Override
+            protected XmlValidator createValidator() {
+                XmlValidator validator = new XmlValidator() {
+                    @Override
+                    public void validate(Reader content) throws ParseException {
+                        super.validate(new ProxyReader(content) {
+                            @Override
+                            protected void afterRead(int n) {
+                                if (n > 0) {
+                                    validated.addAndGet(n);
+                                }
+                            }
+                        });
+                    }
+                };
+                validator.setDefaultHandler(new XmlValidator.MessagesErrorHandler());
+                return validator;
+            }
+        };
+        validatingParser.setValidate(true);
+        validatingParser.setParallelValidation(true);
+
+        String first = "<div><p>first</p>";
+        StringBuilder text = new StringBuilder(first);
+        for (int i = 0; i < 100; i++) {
+            text.append("<p>").append(i).append("</p>");
+        }
+        text.append("</div>");
+
+        // the parser waits at the end of the first paragraph for the validator to read it
+        AtomicBoolean waited = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        SinkEventTestingSink waitingSink = new SinkEventTestingSink() {
+            @Override
+            public void paragraph_() {
+                if (!waited.getAndSet(true)) {
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (validated.get() < first.length() && System.nanoTime() < deadline) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                    overlapped.set(validated.get() >= first.length());
+                }
+                super.paragraph_();
+            }
+        };
+        validatingParser.parse(text.toString(), waitingSink);
+
+        assertTrue(overlapped.get(), "the validator reads the document while it is parsed");
+        assertEquals(text.length(), validated.get());
+    }
+
     @Test
     void doxia250() throws Exception {
         StringBuilder sb = new StringBuilder();
@@ -537,6 +643,23 @@ class Xhtml5BaseParserTest extends AbstractParserTest {
         assertFalse(it.hasNext());
     }
 
+    @Test
+    void parseEntities() {
+        String dtd = "<!-- Latin 1 -->\n<!ENTITY nbsp   \"&#160;\" ><!-- no-break space -->\n"
+                + "<!ENTITY % HTMLlat1 PUBLIC \"-//W3C//ENTITIES Latin 1 for XHTML//EN\"\n"
+                + "   \"http://www.w3.org/TR/xhtml1/DTD/xhtml-lat1.ent\">\n"
+                + "<!ENTITY amp \"&#38;#38;\"><!ENTITY copy \"&#169;\">\n<!ENTITY\n  nbsp \"&#xA0;\">\n"
+                + "<!ENTITY foo \"&nbsp;\">";
+
+        Map<String, String> entities = AbstractXmlParser.parseEntities(dtd);
+
+        assertEquals(Arrays.asList("copy", "nbsp", "foo"), new ArrayList<>(entities.keySet()));
+        assertEquals("&#169;", entities.get("copy"));
+        assertEquals("&#xA0;", entities.get("nbsp"));
+        assertEquals("&nbsp;", entities.get("foo"));
+        assertTrue(AbstractXmlParser.parseEntities("<!-- no entity -->").isEmpty());
+    }
+
     @Test
     void xhtmlEntities() throws Exception {
         final String text = "<body><h1>&quot;&amp;</h1><p>&apos;&lt;&gt;</p></body>";
@@ -20,12 +20,16 @@ package org.apache.maven.doxia.sink.impl;
 
 import javax.swing.text.html.HTML.Tag;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.maven.doxia.markup.Markup;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -124,6 +128,29 @@ class AbstractXmlSinkTest {
         assertEquals("<a style=\"bold\" />", instance.getText());
     }
 
+    /**
+     * Test of writeMarkup method, of class AbstractXmlSink.
+     */
+    @Test
+    void writeMarkup() {
+        final List<StringBuilder> buffers = new ArrayList<>();
+        final XmlTestSink instance = new XmlTestSink() {
+            @Override
+            protected void writeMarkup(StringBuilder markup) {
+                buffers.add(markup);
+                super.writeMarkup(markup);
+            }
+        };
+
+        instance.writeStartTag(Tag.A, new SinkEventAttributeSet(SinkEventAttributeSet.BOLD));
+        instance.writeEndTag(Tag.A);
+        assertEquals("<a style=\"bold\"></a>", instance.getText());
+
+        // the scratch buffer is reused for each tag
+        assertEquals(2, buffers.size());
+        assertSame(buffers.get(0), buffers.get(1));
+    }
+
     /** Test sink. */
     private static class XmlTestSink extends AbstractXmlSink {
         private final StringBuilder buffer = new StringBuilder(0);
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.maven.doxia.markup.Markup;
+import org.apache.maven.doxia.util.DoxiaStringUtils;
+import org.apache.maven.doxia.util.HtmlTools;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HtmlEscapingWriterTest {
+    private static final String[] TEXTS = {
+        "",
+        "plain text",
+        "<a href=\"x\">&amp; 'b'</a>",
+        "&#160; &#x159; & #",
+        "trailing &",
+        "line\rline\nline\r\nline\n\rend\r",
+        "\u0159 \u00e9\u007f~ \ud835\udfed",
+    };
+
+    @Test
+    void sameAsEscapeHtml() throws IOException {
+        for (String text : TEXTS) {
+            String escaped = HtmlTools.escapeHTML(text, false);
+            assertEquals(AbstractSink.unifyEOLs(escaped), escape(text, false), text);
+            assertEquals(
+                    AbstractSink.unifyEOLs(DoxiaStringUtils.replace(escaped, "&amp;#", "&#")),
+                    escape(text, true),
+                    text);
+        }
+    }
+
+    @Test
+    void characterReferences() throws IOException {
+        assertEquals("&#x10ffff;", escape("\udbff\udfff", false));
+        assertEquals("a" + Markup.EOL + "&lt;", escape("a\r\n<", true));
+
+        StringWriter out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, true)) {
+            writer.write("x<y>z", 1, 3);
+            writer.write('&');
+            writer.write("&#".toCharArray(), 0, 2);
+        }
+        assertEquals("&lt;y&gt;&amp;&#", out.toString());
+    }
+
+    @Test
+    void outputCharset() throws IOException {
+        StringWriter out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, false, StandardCharsets.UTF_8)) {
+            // control characters and lone surrogates are still escaped
+            writer.write("<\u00e9\u0416\ud835\udfed\u0085\ud835>");
+        }
+        assertEquals("&lt;\u00e9\u0416\ud835\udfed&#x85;&#xd835;&gt;", out.toString());
+
+        out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, false, StandardCharsets.ISO_8859_1)) {
+            writer.write("\u00e9\u0416\ud835\udfed");
+        }
+        assertEquals("\u00e9&#x416;&#x1d7ed;", out.toString());
+    }
+
+    @Test
+    void charArray() throws IOException {
+        char[] text = "x<\u00e9\u0416\ud835\udfed\u0085>x".toCharArray();
+
+        StringWriter out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, false, StandardCharsets.ISO_8859_1)) {
+            writer.write(text, 1, text.length - 2);
+        }
+        assertEquals("&lt;\u00e9&#x416;&#x1d7ed;&#x85;&gt;", out.toString());
+
+        out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, false)) {
+            writer.write(text, 1, text.length - 2);
+        }
+        assertEquals("&lt;&#xe9;&#x416;&#x1d7ed;&#x85;&gt;", out.toString());
+    }
+
+    private static String escape(String text, boolean keepCharacterReferences) throws IOException {
+        StringWriter out = new StringWriter();
+        try (HtmlEscapingWriter writer = new HtmlEscapingWriter(out, keepCharacterReferences)) {
+            writer.write(text);
+        }
+        return out.toString();
+    }
+}
@@ -71,6 +71,15 @@ public class SinkEventElement {
         return this.args;
     }
 
+    /**
+     * Return the line number of the source which emitted this event.
+     *
+     * @return the line number, or -1 if unknown.
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
     /**
      * {@inheritDoc}
      * @since 1.1.1
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.doxia.parser.AbstractParserTest.assertSinkEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SinkEventLogTest {
+
+    @Test
+    void replayTestDocument() throws IOException {
+        SinkEventTestingSink expectedSink = new SinkEventTestingSink();
+        SinkTestDocument.generate(expectedSink);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SinkEventLogWriter writer = new SinkEventLogWriter(out);
+        SinkTestDocument.generate(writer);
+        writer.close();
+        expectedSink.close();
+
+        SinkEventTestingSink replayedSink = new SinkEventTestingSink();
+        new SinkEventLogReader(new ByteArrayInputStream(out.toByteArray())).replay(replayedSink);
+
+        assertEquals(expectedSink.getEventList(), replayedSink.getEventList());
+    }
+
+    @Test
+    void replayArguments() throws IOException {
+        SinkEventAttributeSet parent = new SinkEventAttributeSet(SinkEventAttributes.CLASS, "parent");
+        SinkEventAttributeSet attributes = new SinkEventAttributeSet(SinkEventAttributes.ID, "id");
+        attributes.addAttribute(SinkEventAttributes.STYLE, "bold");
+        attributes.setResolveParent(parent);
+        int[] justification = new int[] {Sink.JUSTIFY_LEFT, Sink.JUSTIFY_RIGHT};
+        Object[] requiredParams = new Object[] {1, "param", Boolean.TRUE};
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SinkEventLogWriter writer = new SinkEventLogWriter(out)) {
+            writer.section(3, attributes);
+            writer.tableRows(justification, true);
+            writer.text("héllo €");
+            writer.unknown("unknown", requiredParams, null);
+            writer.markupLineBreak(-2);
+            writer.section_(3);
+        }
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        new SinkEventLogReader(new ByteArrayInputStream(out.toByteArray())).replay(sink);
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertSinkEquals(it.next(), "section3", attributes);
+        assertSinkEquals(it.next(), "tableRows", justification, true);
+        assertSinkEquals(it.next(), "text", "héllo €", null);
+        assertSinkEquals(it.next(), "unknown", "unknown", requiredParams, null);
+        assertSinkEquals(it.next(), "markupLineBreak", -2);
+        assertEquals("section3_", it.next().getName());
+        assertEquals("close", it.next().getName());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void replayLocations() throws IOException {
+        MutableLocator locator = new MutableLocator();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SinkEventLogWriter writer = new SinkEventLogWriter(out);
+        writer.setDocumentLocator(locator);
+        // enough events to be written in several parts
+        for (int line = 1; line <= 5000; line++) {
+            locator.lineNumber = line;
+            locator.columnNumber = line % 7;
+            locator.reference = line < 2500 ? "first.apt" : "second.apt";
+            writer.text("line " + line);
+        }
+        writer.close();
+
+        List<String> positions = new ArrayList<>();
+        Sink sink = new SinkEventTestingSink() {
+            @Override
+            public void text(String text, SinkEventAttributes attributes) {
+                Locator locator = getDocumentLocator();
+                positions.add(text + "@" + locator.getReference() + ":" + locator.getLineNumber() + ":"
+                        + locator.getColumnNumber());
+            }
+        };
+        new SinkEventLogReader(new ByteArrayInputStream(out.toByteArray())).replay(sink);
+
+        assertEquals(5000, positions.size());
+        assertEquals("line 1@first.apt:1:1", positions.get(0));
+        assertEquals("line 2500@second.apt:2500:1", positions.get(2499));
+        assertEquals("line 5000@second.apt:5000:2", positions.get(4999));
+    }
+
+    @Test
+    void rejectInvalidLog() {
+        SinkEventLogReader reader = new SinkEventLogReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+        assertThrows(IOException.class, () -> reader.replay(new SinkEventTestingSink()));
+    }
+
+    private static class MutableLocator implements Locator {
+        private int lineNumber;
+
+        private int columnNumber;
+
+        private String reference;
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return columnNumber;
+        }
+
+        @Override
+        public String getReference() {
+            return reference;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.util.Iterator;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.doxia.parser.AbstractParserTest.assertSinkEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SinkEventTapeTest {
+
+    @Test
+    void replayTestDocument() {
+        SinkEventTestingSink expectedSink = new SinkEventTestingSink();
+        SinkTestDocument.generate(expectedSink);
+
+        SinkEventTape tape = new SinkEventTape();
+        SinkTestDocument.generate(tape);
+        SinkEventTestingSink replayedSink = new SinkEventTestingSink();
+        tape.replay(replayedSink);
+
+        assertEquals(expectedSink.getEventList(), replayedSink.getEventList());
+    }
+
+    @Test
+    void replayArguments() {
+        SinkEventAttributes attributes = new SinkEventAttributeSet(SinkEventAttributes.ID, "id");
+        int[] justification = new int[] {Sink.JUSTIFY_LEFT, Sink.JUSTIFY_RIGHT};
+        Object[] requiredParams = new Object[] {1};
+
+        SinkEventTape tape = new SinkEventTape();
+        tape.section(3, attributes);
+        tape.tableRows(justification, true);
+        tape.text(null);
+        tape.unknown("unknown", requiredParams, null);
+        tape.markupLineBreak(2);
+        tape.section_(3);
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        tape.replay(sink);
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertSinkEquals(it.next(), "section3", attributes);
+        assertSinkEquals(it.next(), "tableRows", justification, true);
+        assertSinkEquals(it.next(), "text", null, null);
+        assertSinkEquals(it.next(), "unknown", "unknown", requiredParams, null);
+        assertSinkEquals(it.next(), "markupLineBreak", 2);
+        assertEquals("section3_", it.next().getName());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void replayTwiceAndClear() {
+        SinkEventTape tape = new SinkEventTape();
+        assertTrue(tape.isEmpty());
+        tape.paragraph();
+        tape.text("text");
+        tape.paragraph_();
+        assertFalse(tape.isEmpty());
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        tape.replay(sink);
+        tape.replay(sink);
+        assertEquals(6, sink.getEventList().size());
+
+        tape.clear();
+        assertTrue(tape.isEmpty());
+        sink.reset();
+        tape.replay(sink);
+        assertEquals(0, sink.getEventList().size());
+    }
+}
@@ -23,6 +23,7 @@ import javax.swing.text.html.HTML.Attribute;
 
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.maven.doxia.markup.Markup;
 import org.apache.maven.doxia.sink.Sink;
@@ -875,6 +876,72 @@ class Xhtml5BaseSinkTest {
                 writer.toString());
     }
 
+    @Test
+    void streamedTable() {
+        String rows = EOL + "<tr class=\"a\">" + EOL + "<td>cell</td></tr>" + EOL + "<tr class=\"b\">" + EOL
+                + "<td>cell</td></tr>";
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            sink.setTableBufferLimit(90);
+
+            // the caption given first is kept when the table is streamed
+            sink.table();
+            sink.tableCaption();
+            sink.text("first");
+            sink.tableCaption_();
+            sink.tableRows();
+            writeRows(sink, 2);
+            // streamed before the end of the table
+            assertTrue(writer.toString().startsWith("<table class=\"bodyTable\"><caption>first</caption>"));
+            writeRows(sink, 2);
+            sink.tableRows_();
+            sink.table_();
+
+            // a caption given after the rows of a streamed table is written in place
+            sink.table();
+            sink.tableRows();
+            writeRows(sink, 4);
+            sink.tableRows_();
+            sink.tableCaption();
+            sink.text("last");
+            sink.tableCaption_();
+            sink.table_();
+        }
+
+        assertEquals(
+                "<table class=\"bodyTable\"><caption>first</caption>" + rows + rows + "</table>" + EOL
+                        + "<table class=\"bodyTable\">" + rows + rows + "<caption>last</caption></table>",
+                writer.toString());
+    }
+
+    @Test
+    void markupEOLs() {
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            sink.division(new SinkEventAttributeSet("title", "a\rb\nc"));
+            sink.division_();
+            sink.table();
+            sink.tableRows();
+            sink.tableRow(new SinkEventAttributeSet("title", "a\r\nb"));
+            sink.tableRow_();
+            sink.tableRows_();
+            sink.table_();
+        }
+
+        assertEquals(
+                "<div title=\"a" + EOL + "b" + EOL + "c\"></div>" + EOL + "<table class=\"bodyTable\">" + EOL
+                        + "<tr title=\"a" + EOL + "b\" class=\"a\"></tr></table>",
+                writer.toString());
+    }
+
+    private static void writeRows(Sink sink, int count) {
+        for (int i = 0; i < count; i++) {
+            sink.tableRow();
+            sink.tableCell();
+            sink.text("cell");
+            sink.tableCell_();
+            sink.tableRow_();
+        }
+    }
+
     /**
      * Test of anchor method, of class Xhtml5BaseSink.
      */
@@ -1071,6 +1138,70 @@ class Xhtml5BaseSinkTest {
         assertEquals("<span style=\"font-weight: bold\">a text &amp; &#xc6;</span>", writer.toString());
     }
 
+    @Test
+    void textWithOutputCharset() {
+        // Chinese, Japanese and Russian
+        String[] paragraphs = {
+            "Doxia \u662f\u4e00\u4e2a\u5185\u5bb9\u751f\u6210\u6846\u67b6\uff0c\u4e3a\u7528\u6237\u63d0\u4f9b\u5f3a\u5927\u7684\u6280\u672f\u6765\u751f\u6210\u9759\u6001\u548c\u52a8\u6001\u5185\u5bb9\u3002",
+            "Doxia \u306f\u3001\u9759\u7684\u304a\u3088\u3073\u52d5\u7684\u306a\u30b3\u30f3\u30c6\u30f3\u30c4\u3092\u751f\u6210\u3059\u308b\u305f\u3081\u306e\u30d5\u30ec\u30fc\u30e0\u30ef\u30fc\u30af\u3067\u3059\u3002",
+            "Doxia \u2014 \u044d\u0442\u043e \u0444\u0440\u0435\u0439\u043c\u0432\u043e\u0440\u043a \u0434\u043b\u044f \u0441\u043e\u0437\u0434\u0430\u043d\u0438\u044f \u0441\u0442\u0430\u0442\u0438\u0447\u0435\u0441\u043a\u043e\u0433\u043e \u0438 \u0434\u0438\u043d\u0430\u043c\u0438\u0447\u0435\u0441\u043a\u043e\u0433\u043e \u0441\u043e\u0434\u0435\u0440\u0436\u0438\u043c\u043e\u0433\u043e."
+        };
+
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            for (String paragraph : paragraphs) {
+                sink.text(paragraph);
+            }
+        }
+        String escaped = writer.toString();
+
+        writer = new StringWriter();
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            sink.setOutputCharset(StandardCharsets.UTF_8);
+            for (String paragraph : paragraphs) {
+                sink.text(paragraph);
+            }
+            sink.text(" & <\u00e9>", attributes);
+        }
+        String text = String.join("", paragraphs);
+        assertEquals(text + "<span style=\"font-weight: bold\"> &amp; &lt;\u00e9&gt;</span>", writer.toString());
+
+        int escapedSize = escaped.getBytes(StandardCharsets.UTF_8).length;
+        int nativeSize = text.getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(escapedSize > 2 * nativeSize, escapedSize + " bytes escaped, " + nativeSize + " bytes native");
+
+        // the characters Latin-1 cannot encode are still escaped
+        writer = new StringWriter();
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            sink.setOutputCharset(StandardCharsets.ISO_8859_1);
+            sink.text("\u00e9\u0416");
+        }
+        assertEquals("\u00e9&#x416;", writer.toString());
+    }
+
+    @Test
+    void overriddenWrite() {
+        StringBuilder captured = new StringBuilder();
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer) {
+            @Override
+            protected boolean isDirectOutput() {
+                return false;
+            }
+
+            @Override
+            protected void write(String text) {
+                captured.append(text);
+            }
+        }) {
+            sink.paragraph();
+            sink.text("a < b");
+            sink.paragraph_();
+        }
+
+        // the text and the markup all go through the overridden method
+        assertEquals("<p>a &lt; b</p>", captured.toString());
+        assertEquals("", writer.toString());
+    }
+
     /**
      * Test of text method, of class Xhtml5BaseSink.
      */
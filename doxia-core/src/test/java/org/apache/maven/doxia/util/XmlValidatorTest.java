@@ -18,11 +18,23 @@
  */
 package org.apache.maven.doxia.util;
 
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.maven.doxia.parser.AbstractXmlParser.CachedFileEntityResolver;
+import org.apache.maven.doxia.parser.ParseException;
 import org.codehaus.plexus.testing.PlexusTest;
 import org.codehaus.plexus.util.xml.XmlStreamReader;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Test case for <code>XmlValidator</code>.
@@ -41,4 +53,58 @@ class XmlValidatorTest {
 
         validator.validate(xml);
     }
+
+    @Test
+    void schemaLocations() {
+        assertEquals(
+                Arrays.asList("a.xsd", "b.xsd"),
+                XmlValidator.getSchemaLocations(new StringReader("<?xml version=\"1.0\"?><!-- comment -->"
+                        + "<doc xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                        + " xsi:schemaLocation=\" urn:a a.xsd\n urn:b  b.xsd \"><unclosed>")));
+        assertEquals(
+                Collections.singletonList("c.xsd"),
+                XmlValidator.getSchemaLocations(new StringReader(
+                        "<doc xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                                + " xsi:noNamespaceSchemaLocation=\"c.xsd\"/>")));
+        assertEquals(
+                Collections.emptyList(),
+                XmlValidator.getSchemaLocations(new StringReader("<!DOCTYPE doc SYSTEM \"doc.dtd\">"
+                        + "<doc xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                        + " xsi:noNamespaceSchemaLocation=\"c.xsd\"/>")));
+        assertEquals(Collections.emptyList(), XmlValidator.getSchemaLocations(new StringReader("<doc/>")));
+    }
+
+    @Test
+    void validateWithCompiledSchema(@TempDir Path dir) throws Exception {
+        Path xsd = dir.resolve("doc.xsd");
+        Files.write(
+                xsd,
+                ("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                                + "<xs:element name=\"doc\"><xs:complexType><xs:sequence>"
+                                + "<xs:element name=\"p\" type=\"xs:string\" maxOccurs=\"unbounded\"/>"
+                                + "</xs:sequence></xs:complexType></xs:element></xs:schema>")
+                        .getBytes(StandardCharsets.UTF_8));
+        String root = "<doc xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\""
+                + xsd.toUri() + "\">";
+
+        XmlValidator validator = new XmlValidator();
+        validator.setDefaultHandler(new XmlValidator.MessagesErrorHandler());
+        validator.setEntityResolver(new CachedFileEntityResolver());
+
+        validator.validate(root + "<p>valid</p></doc>");
+        // the compiled schema is reused
+        validator.validate(root + "<p>still valid</p><p/></doc>");
+        assertThrows(ParseException.class, () -> validator.validate(root + "<invalid/></doc>"));
+
+        // and compiled again once the file changes
+        Files.write(
+                xsd,
+                ("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                                + "<xs:element name=\"doc\"><xs:complexType><xs:sequence>"
+                                + "<xs:element name=\"section\" type=\"xs:string\" maxOccurs=\"unbounded\"/>"
+                                + "</xs:sequence></xs:complexType></xs:element></xs:schema>")
+                        .getBytes(StandardCharsets.UTF_8));
+        validator.validate(root + "<section>valid</section></doc>");
+        assertThrows(ParseException.class, () -> validator.validate(root + "<p>invalid</p></doc>"));
+    }
 }
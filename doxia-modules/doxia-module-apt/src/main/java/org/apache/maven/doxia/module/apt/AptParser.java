@@ -202,9 +202,20 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the document is parsed through {@link #parse(org.apache.commons.io.function.IOSupplier, Sink, String)},
+     * it is parsed line by line, without holding its whole content in memory: the source is opened again for each
+     * macro needing the {@link MacroRequest#getSourceContent() source content}, e.g. the TOC macro.
+     */
     @Override
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
         init();
+        if (isSourceReadable()) {
+            parse(new AptReaderSource(source, reference), sink, reference);
+            return;
+        }
 
         try {
             StringWriter contentWriter = new StringWriter();
@@ -214,11 +225,15 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             throw new AptParseException(e);
         }
 
+        parse(new AptReaderSource(new StringReader(sourceContent), reference), sink, reference);
+    }
+
+    private void parse(AptReaderSource source, Sink sink, String reference) throws ParseException {
         try {
-            this.source = new AptReaderSource(new StringReader(sourceContent), reference);
+            this.source = source;
 
             this.sink = getWrappedSink(sink);
-            sink.setDocumentLocator(new AptSourceLocator(this.source, reference));
+            this.sink.setDocumentLocator(new AptSourceLocator(this.source, reference));
 
             blockFileName = null;
 
@@ -239,10 +254,13 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             traverseHead();
 
             traverseBody();
+
+            completeMacros(this.sink);
         } catch (AptParseException ape) {
             // TODO handle column number
             throw new AptParseException(null, ape, getSourceName(), getSourceLineNumber(), -1);
         } finally {
+            cancelMacros(this.sink);
             setSecondParsing(false);
             init();
         }
@@ -2398,7 +2416,8 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
 
             // getBasedir() does not work in multi-module builds, see DOXIA-373
             // the basedir should be injected from here, see DOXIA-224
-            MacroRequest request = new MacroRequest(sourceContent, new AptParser(), parameters, getBasedir());
+            MacroRequest request =
+                    new MacroRequest(new AptParser(), parameters, getBasedir(), getSourceContent(sourceContent));
             try {
                 AptParser.this.executeMacro(macroId, request, sink);
             } catch (MacroExecutionException e) {
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.module.apt;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.maven.doxia.BatchConverter;
+import org.apache.maven.doxia.ConversionJob;
+import org.apache.maven.doxia.ConversionResult;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.sink.impl.AbstractTextSinkFactory;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PlexusTest
+class AptBatchConverterTest {
+
+    @Inject
+    private BatchConverter converter;
+
+    @Inject
+    @Named("apt")
+    private SinkFactory sinkFactory;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void convertConcurrently() throws Exception {
+        List<ConversionJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            File source = directory.resolve("doc" + i + ".apt").toFile();
+            String content = "Title " + i + System.lineSeparator() + System.lineSeparator() + "* Section "
+                    + i + System.lineSeparator();
+            Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            jobs.add(new ConversionJob(
+                    source, null, sinkFactory, directory.resolve("out/doc" + i + ".apt").toFile()));
+        }
+        jobs.add(new ConversionJob(
+                directory.resolve("unknown.txt").toFile(),
+                null,
+                sinkFactory,
+                directory.resolve("out/unknown.apt").toFile()));
+        jobs.add(new ConversionJob(
+                directory.resolve("missing.apt").toFile(),
+                "apt",
+                sinkFactory,
+                directory.resolve("out/missing.apt").toFile()));
+
+        List<ConversionResult> reported = new ArrayList<>();
+        List<ConversionResult> results;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            results = converter.convert(jobs, executor, (result, completed, total) -> {
+                reported.add(result);
+                assertEquals(reported.size(), completed);
+                assertEquals(22, total);
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(results, reported);
+        for (int i = 0; i < 20; i++) {
+            assertSame(jobs.get(i), results.get(i).getJob());
+            assertTrue(results.get(i).isSuccess(), results.get(i).toString());
+            String output = new String(
+                    Files.readAllBytes(jobs.get(i).getOutput().toPath()), StandardCharsets.UTF_8);
+            assertTrue(output.contains("Section " + i), output);
+        }
+        assertFalse(results.get(20).isSuccess());
+        assertInstanceOf(ParserNotFoundException.class, results.get(20).getError());
+        assertFalse(results.get(21).isSuccess());
+    }
+
+    @Test
+    void convertWithError() throws Exception {
+        File source = directory.resolve("doc.apt").toFile();
+        Files.write(source.toPath(), "Title".getBytes(StandardCharsets.UTF_8));
+        SinkFactory failingSinkFactory = new AbstractTextSinkFactory() {
+            @Override
+            protected Sink createSink(Writer writer, String encoding) {
+                return new SinkAdapter() {
+                    @Override
+                    public void text(String text, SinkEventAttributes attributes) {
+                        throw new StackOverflowError();
+                    }
+                };
+            }
+        };
+        List<ConversionJob> jobs = new ArrayList<>();
+        jobs.add(new ConversionJob(source, "apt", failingSinkFactory, directory.resolve("doc-out.apt").toFile()));
+
+        List<ConversionResult> reported = new ArrayList<>();
+        List<ConversionResult> results =
+                converter.convert(jobs, null, (result, completed, total) -> reported.add(result));
+
+        assertEquals(results, reported);
+        assertFalse(results.get(0).isSuccess());
+        assertInstanceOf(StackOverflowError.class, results.get(0).getError());
+    }
+
+    @Test
+    void convertWithDefaultExecutor() throws Exception {
+        File source = directory.resolve("doc.apt").toFile();
+        Files.write(source.toPath(), "Title".getBytes(StandardCharsets.UTF_8));
+        List<ConversionJob> jobs = new ArrayList<>();
+        jobs.add(new ConversionJob(source, "apt", sinkFactory, directory.resolve("doc-out.apt").toFile()));
+
+        List<ConversionResult> results = converter.convert(jobs, null, null);
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isSuccess(), results.get(0).toString());
+    }
+}
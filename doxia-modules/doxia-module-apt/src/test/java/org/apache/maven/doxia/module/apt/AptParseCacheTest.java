@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.module.apt;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.MacroExecutor;
+import org.apache.maven.doxia.parser.cache.ParseCache;
+import org.apache.maven.doxia.parser.manager.ParserManager;
+import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@PlexusTest
+class AptParseCacheTest {
+
+    private static final String SOURCE = "Title" + System.lineSeparator() + System.lineSeparator()
+            + "* Section" + System.lineSeparator() + System.lineSeparator() + "  Some text." + System.lineSeparator();
+
+    @Inject
+    private ParserManager parserManager;
+
+    @TempDir
+    private Path directory;
+
+    private ParseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ParseCache(parserManager, directory.resolve("cache"));
+    }
+
+    @Test
+    void replayCachedEvents() throws Exception {
+        SinkEventTestingSink expectedSink = new SinkEventTestingSink();
+        parserManager.getParser("apt").parse(new StringReader(SOURCE), expectedSink, "test.apt");
+
+        SinkEventTestingSink missSink = new SinkEventTestingSink();
+        cache.parse(new StringReader(SOURCE), "apt", missSink, "test.apt");
+        SinkEventTestingSink hitSink = new SinkEventTestingSink();
+        cache.parse(new StringReader(SOURCE), "apt", hitSink, "test.apt");
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(expectedSink.getEventList(), missSink.getEventList());
+        assertEquals(expectedSink.getEventList(), hitSink.getEventList());
+    }
+
+    @Test
+    void keyedBySourceAndSettings() throws Exception {
+        cache.parse(new StringReader(SOURCE), "apt", new SinkEventTestingSink(), "test.apt");
+        cache.parse(new StringReader(SOURCE + "  More text."), "apt", new SinkEventTestingSink(), "test.apt");
+        cache.parse(new StringReader(SOURCE), "apt", new SinkEventTestingSink(), "other.apt");
+
+        AptParser parser = (AptParser) parserManager.getParser("apt");
+        parser.setEmitComments(false);
+        try {
+            cache.parse(new StringReader(SOURCE), "apt", new SinkEventTestingSink(), "test.apt");
+        } finally {
+            parser.setEmitComments(true);
+        }
+
+        assertEquals(4, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+
+        cache.clear();
+        cache.parse(new StringReader(SOURCE), "apt", new SinkEventTestingSink(), "test.apt");
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    void invalidatedBySnippetFile() throws Exception {
+        Path snippet = directory.resolve("snippet.txt");
+        Files.write(snippet, "snippet content".getBytes(StandardCharsets.UTF_8));
+        String source = SOURCE + System.lineSeparator() + "%{snippet|file=" + snippet.toAbsolutePath() + "}"
+                + System.lineSeparator();
+
+        cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        Files.write(snippet, "modified snippet content".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(snippet, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void invalidatedByFileModifiedWhileParsing() throws Exception {
+        Path snippet = directory.resolve("snippet.txt");
+        Files.write(snippet, "snippet content".getBytes(StandardCharsets.UTF_8));
+        String source = SOURCE + System.lineSeparator() + "%{snippet|file=" + snippet.toAbsolutePath() + "}"
+                + System.lineSeparator();
+
+        AptParser parser = (AptParser) parserManager.getParser("apt");
+        parser.setMacroExecutor((macroId, request, sink) -> {
+            try {
+                Files.write(snippet, "modified snippet content".getBytes(StandardCharsets.UTF_8));
+                Files.setLastModifiedTime(snippet, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+            } catch (IOException e) {
+                throw new MacroExecutionException("Cannot modify snippet", e);
+            }
+            sink.text("snippet");
+        });
+        try {
+            cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        } finally {
+            parser.setMacroExecutor(null);
+        }
+
+        cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void corruptedEntryParsedAgain() throws Exception {
+        SinkEventTestingSink expectedSink = new SinkEventTestingSink();
+        parserManager.getParser("apt").parse(new StringReader(SOURCE), expectedSink, "test.apt");
+        cache.parse(new StringReader(SOURCE), "apt", new SinkEventTestingSink(), "test.apt");
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory.resolve("cache"), "*.dxel")) {
+            for (Path entry : entries) {
+                byte[] content = Files.readAllBytes(entry);
+                content[content.length - 1] ^= 0x55;
+                Files.write(entry, content);
+            }
+        }
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        cache.parse(new StringReader(SOURCE), "apt", sink, "test.apt");
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(expectedSink.getEventList(), sink.getEventList());
+    }
+
+    @Test
+    void sharedParserLeftUnchanged() throws Exception {
+        String source = SOURCE + System.lineSeparator() + "%{echo}" + System.lineSeparator();
+
+        AptParser parser = (AptParser) parserManager.getParser("apt");
+        List<MacroExecutor> sharedExecutors = new ArrayList<>();
+        MacroExecutor executor = (macroId, request, sink) -> sharedExecutors.add(parser.getMacroExecutor());
+        parser.setMacroExecutor(executor);
+        try {
+            cache.parse(new StringReader(source), "apt", new SinkEventTestingSink(), "test.apt");
+        } finally {
+            parser.setMacroExecutor(null);
+        }
+
+        assertEquals(Collections.singletonList(executor), sharedExecutors);
+    }
+}
\ No newline at end of file
@@ -22,10 +22,14 @@ import javax.inject.Inject;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.toc.DeferredTocSinkFactory;
 import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.AbstractParserTest;
 import org.apache.maven.doxia.parser.ParseException;
@@ -37,6 +41,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -192,6 +198,76 @@ class AptParserTest extends AbstractParserTest {
         assertFalse(toc.contains("* {{{SubSection_1.1.2.1.1}SubSection 1.1.2.1.1}}"));
     }
 
+    @Test
+    void streamingParse() throws Exception {
+        SinkEventTestingSink expected = new SinkEventTestingSink();
+        try (Reader reader = getTestReader("test/toc")) {
+            parser.parse(reader, expected);
+        }
+
+        // the deferred TOC sink writes the TOC from the events of the parse, so the source is not read again
+        AptParser deferredTocParser = (AptParser) parser.copy();
+        deferredTocParser.addSinkWrapperFactory(new DeferredTocSinkFactory());
+        AtomicInteger opened = new AtomicInteger();
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        deferredTocParser.parse(
+                () -> {
+                    opened.incrementAndGet();
+                    return getTestReader("test/toc");
+                },
+                sink,
+                "toc.apt");
+        assertEquals(expected.getEventList(), sink.getEventList());
+        assertEquals(1, opened.get());
+
+        opened.set(0);
+        sink.reset();
+        deferredTocParser.parse(
+                () -> {
+                    opened.incrementAndGet();
+                    return new StringReader(" Text");
+                },
+                sink,
+                null);
+        assertSinkEquals(
+                sink.getEventList().iterator(), "head", "head_", "body", "paragraph", "text", "paragraph_", "body_");
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void asyncMacros() throws Exception {
+        AptParser asyncParser = (AptParser) parser.copy();
+        asyncParser.setMacroConcurrency(2);
+
+        for (String document : new String[] {"test/snippet", "test/macro", "test/toc"}) {
+            SinkEventTestingSink expected = new SinkEventTestingSink();
+            try (Reader reader = getTestReader(document)) {
+                parser.parse(reader, expected);
+            }
+
+            SinkEventTestingSink sink = new SinkEventTestingSink();
+            try (Reader reader = getTestReader(document)) {
+                asyncParser.parse(reader, sink);
+            }
+            assertEquals(expected.getEventList(), sink.getEventList(), document);
+        }
+    }
+
+    @Test
+    void asyncMacroFailure() throws Exception {
+        AptParser asyncParser = (AptParser) parser.copy();
+        asyncParser.setMacroConcurrency(2);
+        String text = "Title" + EOL + EOL + "  Text" + EOL + EOL
+                + "%{snippet|id=test|file=missing.txt|ignoreDownloadError=false}" + EOL + EOL + "  More text" + EOL;
+
+        // reported by the parser, located at the macro, as for synchronous macros
+        ParseException e = assertThrows(
+                ParseException.class, () -> asyncParser.parse(text, new SinkEventTestingSink(), "test.apt"));
+        assertInstanceOf(MacroExecutionException.class, e.getCause());
+        assertEquals("test.apt", e.getFileName());
+        assertTrue(e.getLineNumber() >= 5, String.valueOf(e.getLineNumber()));
+    }
+
     /**
      * Parses the test document test.apt and re-emits
      * it into parser/test.apt.
@@ -89,24 +89,31 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         this.sourceContent = null;
         init();
 
-        try (Reader reader = source) {
-            StringWriter contentWriter = new StringWriter();
-            IOUtils.copy(reader, contentWriter);
-            sourceContent = contentWriter.toString();
-        } catch (IOException ex) {
-            throw new ParseException("Error reading the input source", ex);
+        // the source is read again by the macros needing it, if possible
+        if (!isSourceReadable()) {
+            try (Reader reader = source) {
+                StringWriter contentWriter = new StringWriter();
+                IOUtils.copy(reader, contentWriter);
+                sourceContent = contentWriter.toString();
+            } catch (IOException ex) {
+                throw new ParseException("Error reading the input source", ex);
+            }
         }
 
+        Sink wrappedSink = null;
         try {
-            Reader tmp = new StringReader(sourceContent);
+            Reader tmp = sourceContent != null ? new StringReader(sourceContent) : source;
 
             this.faqs = new Faqs();
 
             // this populates faqs
             super.parse(tmp, sink, reference);
 
-            writeFaqs(getWrappedSink(sink));
+            wrappedSink = getWrappedSink(sink);
+            writeFaqs(wrappedSink);
+            completeMacros(wrappedSink);
         } finally {
+            cancelMacros(wrappedSink);
             this.faqs = null;
             this.sourceContent = null;
             setSecondParsing(false);
@@ -379,7 +386,8 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
     private void handleMacroEnd(StringBuilder buffer) throws MacroExecutionException {
         if (!isSecondParsing()) {
             if (macroName != null && !macroName.isEmpty()) {
-                MacroRequest request = new MacroRequest(sourceContent, new FmlParser(), macroParameters, getBasedir());
+                MacroRequest request = new MacroRequest(
+                        new FmlParser(), macroParameters, getBasedir(), getSourceContent(sourceContent));
 
                 try {
                     StringWriter sw = new StringWriter();
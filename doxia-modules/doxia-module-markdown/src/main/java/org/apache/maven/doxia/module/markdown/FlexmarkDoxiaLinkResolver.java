@@ -72,15 +72,29 @@ public class FlexmarkDoxiaLinkResolver implements LinkResolver {
     public @NotNull ResolvedLink resolveLink(
             @NotNull Node node, @NotNull LinkResolverBasicContext context, @NotNull ResolvedLink link) {
         if (link.getLinkType() == LinkType.LINK) {
-            Matcher matcher = this.pattern.matcher(link.getUrl());
-            if (matcher.matches()) {
-                return link.withStatus(LinkStatus.VALID).withUrl(matcher.replaceAll("$1.html$2"));
+            String url = resolveUrl(link.getUrl());
+            if (url != null) {
+                return link.withStatus(LinkStatus.VALID).withUrl(url);
             }
         }
 
         return link;
     }
 
+    /**
+     * Rewrites a link url to a Markdown document into the url of the generated HTML document.
+     *
+     * @param url the link url
+     * @return the rewritten url, or {@code null} if the url does not point to a Markdown document
+     */
+    String resolveUrl(String url) {
+        Matcher matcher = this.pattern.matcher(url);
+        if (matcher.matches()) {
+            return matcher.replaceAll("$1.html$2");
+        }
+        return null;
+    }
+
     /**
      * Factory that creates FlexmarkDoxiaLinkResolver objects.
      */
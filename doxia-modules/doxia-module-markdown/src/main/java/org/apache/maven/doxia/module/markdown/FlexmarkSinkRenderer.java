@@ -0,0 +1,832 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.module.markdown;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.DelimitedLinkNode;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlCommentBlock;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.HtmlInlineComment;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.ListItem;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.ParagraphItemContainer;
+import com.vladsch.flexmark.ast.RefNode;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ext.definition.DefinitionItem;
+import com.vladsch.flexmark.ext.definition.DefinitionList;
+import com.vladsch.flexmark.ext.definition.DefinitionTerm;
+import com.vladsch.flexmark.ext.escaped.character.EscapedCharacter;
+import com.vladsch.flexmark.ext.gfm.strikethrough.Strikethrough;
+import com.vladsch.flexmark.ext.tables.TableBlock;
+import com.vladsch.flexmark.ext.tables.TableBody;
+import com.vladsch.flexmark.ext.tables.TableCaption;
+import com.vladsch.flexmark.ext.tables.TableCell;
+import com.vladsch.flexmark.ext.tables.TableHead;
+import com.vladsch.flexmark.ext.tables.TableRow;
+import com.vladsch.flexmark.ext.tables.TableSeparator;
+import com.vladsch.flexmark.ext.typographic.TypographicQuotes;
+import com.vladsch.flexmark.ext.typographic.TypographicSmarts;
+import com.vladsch.flexmark.parser.ListOptions;
+import com.vladsch.flexmark.util.ast.BlankLine;
+import com.vladsch.flexmark.util.ast.Block;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.TextCollectingVisitor;
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.Escaping;
+import org.apache.maven.doxia.markup.HtmlMarkup;
+import org.apache.maven.doxia.markup.Markup;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.sink.Locator;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.util.DoxiaUtils;
+
+/**
+ * Emits Sink events for a flexmark document tree directly, without rendering it to HTML first.
+ * <p>
+ * Only the node types produced by the core Markdown syntax and by the extensions whose output maps to plain Sink
+ * events are supported. Callers have to check a document with {@link #canRender(Node)} and fall back to the HTML
+ * rendering for anything else (raw HTML, footnotes, abbreviations and wiki links).
+ * Macros in HTML comments are handed over to a {@link MacroHandler}.
+ * The events carry a {@link Locator} pointing to the line of the Markdown source.
+ * </p>
+ * <p>
+ * The events are the same as the ones of the HTML rendering parsed by {@link MarkdownParser.MarkdownHtmlParser}:
+ * the renderer keeps track of the line breaks flexmark writes around the block tags, and handles the text between
+ * two tags like {@link org.apache.maven.doxia.parser.Xhtml5BaseParser} does, including the characters escaped as
+ * entities in the HTML.
+ * </p>
+ */
+class FlexmarkSinkRenderer {
+    private static final List<Class<? extends Node>> SUPPORTED_NODES = Arrays.asList(
+            Document.class,
+            BlankLine.class,
+            Reference.class,
+            Paragraph.class,
+            Heading.class,
+            BlockQuote.class,
+            ThematicBreak.class,
+            FencedCodeBlock.class,
+            IndentedCodeBlock.class,
+            BulletList.class,
+            OrderedList.class,
+            ListItem.class,
+            DefinitionList.class,
+            DefinitionTerm.class,
+            DefinitionItem.class,
+            TableBlock.class,
+            TableHead.class,
+            TableBody.class,
+            TableSeparator.class,
+            TableCaption.class,
+            TableRow.class,
+            TableCell.class,
+            Text.class,
+            EscapedCharacter.class,
+            HtmlEntity.class,
+            TypographicSmarts.class,
+            TypographicQuotes.class,
+            SoftLineBreak.class,
+            HardLineBreak.class,
+            Emphasis.class,
+            StrongEmphasis.class,
+            Strikethrough.class,
+            Code.class,
+            Link.class,
+            AutoLink.class,
+            MailLink.class,
+            Image.class,
+            HtmlCommentBlock.class,
+            HtmlInlineComment.class);
+
+    private static final FlexmarkDoxiaLinkResolver LINK_RESOLVER = new FlexmarkDoxiaLinkResolver();
+
+    private static final Pattern LEADING_WHITESPACE = Pattern.compile("^\\s+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Sink sink;
+
+    private final boolean emitComments;
+
+    private final MacroHandler macroHandler;
+
+    private final SourceLocator locator;
+
+    /** The text between two tags of the HTML rendering, emitted once the next tag is reached. */
+    private final StringBuilder text = new StringBuilder();
+
+    /** Whether the HTML rendering is at the beginning of a line. */
+    private boolean lineStart;
+
+    /** Whether the HTML parser handles the next text as the beginning of a line inside a block. */
+    private boolean beginningOfLine;
+
+    private boolean verbatim;
+
+    private int orderedListDepth;
+
+    private boolean definitionListItem;
+
+    private Document document;
+
+    private ListOptions listOptions;
+
+    /** The start offsets of the source lines, to look up line numbers without rescanning the source. */
+    private int[] lineStarts;
+
+    private int sectionLevel;
+
+    /**
+     * @param sink the sink receiving the events
+     * @param reference the reference of the Markdown source, used by the locator
+     * @param lineOffset the number of source lines preceding the parsed Markdown text (e.g. front matter)
+     * @param emitComments whether to emit comment events for HTML comments
+     * @param macroHandler the handler executing macros, or {@code null} to treat macros as plain comments
+     */
+    FlexmarkSinkRenderer(
+            Sink sink, String reference, int lineOffset, boolean emitComments, MacroHandler macroHandler) {
+        this.sink = sink;
+        this.emitComments = emitComments;
+        this.macroHandler = macroHandler;
+        this.locator = new SourceLocator(reference, lineOffset);
+    }
+
+    /**
+     * Checks whether all nodes of the given tree can be rendered without the HTML round-trip.
+     *
+     * @param node the root of the tree
+     * @return {@code true} if the tree only contains supported nodes
+     */
+    static boolean canRender(Node node) {
+        if (node instanceof RefNode && !((RefNode) node).isDefined()) {
+            return false;
+        }
+        if (!(node instanceof LinkRef || node instanceof ImageRef || isSupported(node))) {
+            return false;
+        }
+        for (Node child : node.getChildren()) {
+            if (!canRender(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSupported(Node node) {
+        for (Class<? extends Node> type : SUPPORTED_NODES) {
+            if (type.isInstance(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Emits the events for a complete document.
+     *
+     * @param root the document tree, which must have been checked with {@link #canRender(Node)}
+     * @param metadata the document metadata, in the same form as used for the HTML head
+     */
+    void render(Document root, Map<String, List<String>> metadata) throws ParseException {
+        this.document = root;
+        this.listOptions = ListOptions.get(root);
+        this.lineStarts = indexLines(root.getChars());
+        sink.setDocumentLocator(locator);
+
+        locator.setLine(0);
+        beginningOfLine = true;
+        sink.head(new SinkEventAttributeSet());
+        boolean haveTitle = false;
+        for (Map.Entry<String, List<String>> entry : metadata.entrySet()) {
+            haveTitle |= renderMetadata(entry.getKey(), entry.getValue());
+        }
+        if (!haveTitle) {
+            // same as for the HTML: the first heading is the title, unless preceded by anything but comments
+            Node firstNode = root.getFirstChild();
+            while (firstNode instanceof HtmlCommentBlock) {
+                firstNode = firstNode.getNext();
+            }
+            if (firstNode instanceof Heading) {
+                renderTitle(new TextCollectingVisitor().collectAndGetText(firstNode));
+            }
+        }
+        sink.head_();
+
+        sink.body(new SinkEventAttributeSet());
+        lineStart = true;
+        renderChildren(root);
+        // flexmark drops the line breaks ending the document
+        while (text.length() > 0 && text.charAt(text.length() - 1) == '\n') {
+            text.setLength(text.length() - 1);
+        }
+        flushText();
+        closeSections(0);
+        sink.body_();
+    }
+
+    private void renderTitle(String title) {
+        sink.title(new SinkEventAttributeSet());
+        text.append(title);
+        flushText();
+        sink.title_();
+    }
+
+    private boolean renderMetadata(String key, List<String> values) {
+        if ("title".equalsIgnoreCase(key)) {
+            renderTitle(String.join(", ", values));
+            return true;
+        }
+        if (key.equalsIgnoreCase("author") && values.size() > 1) {
+            for (String value : values) {
+                renderMetadata(key, value);
+            }
+        } else {
+            renderMetadata(key, String.join(key.equalsIgnoreCase("keywords") ? "," : Markup.EOL, values));
+        }
+        return false;
+    }
+
+    private void renderMetadata(String key, String value) {
+        if ("author".equals(key)) {
+            sink.author(null);
+            sink.text(value);
+            sink.author_();
+        } else if ("date".equals(key)) {
+            sink.date(null);
+            sink.text(value);
+            sink.date_();
+        } else {
+            SinkEventAttributeSet atts = new SinkEventAttributeSet(
+                    SinkEventAttributes.NAME, key, "content", value);
+            sink.unknown("meta", new Object[] {HtmlMarkup.TAG_TYPE_SIMPLE}, atts);
+        }
+    }
+
+    private void renderChildren(Node parent) throws ParseException {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNext()) {
+            render(child);
+        }
+    }
+
+    private void render(Node node) throws ParseException {
+        if (isText(node)) {
+            appendText(node);
+        } else if (node instanceof Block) {
+            locator.setLine(lineOf(node));
+            renderBlock(node);
+        } else {
+            renderInline(node);
+        }
+    }
+
+    private void renderBlock(Node node) throws ParseException {
+        if (node instanceof Heading) {
+            int level = ((Heading) node).getLevel();
+            blockTag();
+            closeSections(level - 1);
+            while (sectionLevel < level) {
+                sink.section(++sectionLevel, null);
+            }
+            sink.sectionTitle(level, new SinkEventAttributeSet());
+            renderChildren(node);
+            blockTag();
+            sink.sectionTitle_(level);
+        } else if (node instanceof Paragraph) {
+            if (node.getParent() instanceof ParagraphItemContainer
+                    && ((ParagraphItemContainer) node.getParent())
+                            .isParagraphWrappingDisabled((Paragraph) node, listOptions, document)) {
+                renderChildren(node);
+            } else {
+                blockTag();
+                sink.paragraph(new SinkEventAttributeSet());
+                renderChildren(node);
+                blockTag();
+                sink.paragraph_();
+            }
+        } else if (node instanceof BlockQuote) {
+            blockTag();
+            sink.blockquote(new SinkEventAttributeSet());
+            renderIndented(node);
+            sink.blockquote_();
+        } else if (node instanceof ThematicBreak) {
+            blockTag();
+            sink.horizontalRule(new SinkEventAttributeSet());
+        } else if (node instanceof FencedCodeBlock) {
+            FencedCodeBlock codeBlock = (FencedCodeBlock) node;
+            BasedSequence info = codeBlock.getInfoDelimitedByAny(CharPredicate.SPACE_TAB);
+            renderCodeBlock(
+                    info.isBlank() ? null : info.unescape(),
+                    codeBlock.getContentChars().normalizeEOL());
+        } else if (node instanceof IndentedCodeBlock) {
+            renderCodeBlock(
+                    null, ((IndentedCodeBlock) node).getContentChars().trimTailBlankLines().normalizeEndWithEOL());
+        } else if (node instanceof BulletList) {
+            blockTag();
+            sink.list(new SinkEventAttributeSet());
+            renderIndented(node);
+            sink.list_();
+        } else if (node instanceof OrderedList) {
+            int start = ((OrderedList) node).getStartNumber();
+            blockTag();
+            sink.numberedList(
+                    Sink.NUMBERING_DECIMAL,
+                    start == 1
+                            ? new SinkEventAttributeSet()
+                            : new SinkEventAttributeSet("start", String.valueOf(start)));
+            orderedListDepth++;
+            renderIndented(node);
+            sink.numberedList_();
+            orderedListDepth--;
+        } else if (node instanceof DefinitionList) {
+            blockTag();
+            sink.definitionList(new SinkEventAttributeSet());
+            renderIndented(node);
+            if (definitionListItem) {
+                sink.definitionListItem_();
+                definitionListItem = false;
+            }
+            sink.definitionList_();
+        } else if (node instanceof DefinitionTerm) {
+            blockTag();
+            if (definitionListItem) {
+                sink.definitionListItem_();
+            }
+            sink.definitionListItem(new SinkEventAttributeSet());
+            definitionListItem = true;
+            sink.definedTerm(new SinkEventAttributeSet());
+            renderChildren(node);
+            blockTag();
+            sink.definedTerm_();
+        } else if (node instanceof DefinitionItem) {
+            blockTag();
+            if (!definitionListItem) {
+                sink.definitionListItem(new SinkEventAttributeSet());
+            }
+            sink.definition(new SinkEventAttributeSet());
+            if (listOptions.isTightListItem((ListItem) node)) {
+                renderChildren(node);
+                blockTag();
+            } else {
+                // flexmark writes the paragraphs of a loose definition on their own lines
+                renderIndented(node);
+            }
+            sink.definition_();
+            sink.definitionListItem_();
+            definitionListItem = false;
+        } else if (node instanceof ListItem) {
+            // as for the HTML, the items of any list nested in a numbered list are numbered
+            blockTag();
+            if (orderedListDepth == 0) {
+                sink.listItem(new SinkEventAttributeSet());
+            } else {
+                sink.numberedListItem(new SinkEventAttributeSet());
+            }
+            renderChildren(node);
+            blockTag();
+            if (orderedListDepth == 0) {
+                sink.listItem_();
+            } else {
+                sink.numberedListItem_();
+            }
+        } else if (node instanceof TableBlock) {
+            renderTable(node);
+        } else if (node instanceof HtmlCommentBlock) {
+            renderComment(node);
+            // the comment is written with the line break ending it
+            if (node.getChars().endsWithEOL()) {
+                newLine();
+            }
+        }
+        // nothing to emit for blank lines and reference definitions
+    }
+
+    /**
+     * Renders the children of a block written by flexmark on their own lines, the caller emitting the start and end
+     * events.
+     */
+    private void renderIndented(Node node) throws ParseException {
+        newLine();
+        renderChildren(node);
+        line();
+        blockTag();
+    }
+
+    private void renderCodeBlock(String language, String code) {
+        SinkEventAttributeSet atts = new SinkEventAttributeSet(
+                SinkEventAttributes.CLASS, language == null ? "nohighlight nocode" : "language-" + language);
+        atts.addAttributes(SinkEventAttributeSet.Semantics.CODE);
+        line();
+        blockTag();
+        sink.verbatim(new SinkEventAttributeSet());
+        verbatim = true;
+        inlineTag();
+        sink.inline(atts);
+        text.append(code);
+        inlineTag();
+        sink.inline_();
+        verbatim = false;
+        blockTag();
+        sink.verbatim_();
+    }
+
+    private void renderTable(Node node) throws ParseException {
+        blockTag();
+        sink.table(new SinkEventAttributeSet());
+        sink.tableRows(null, false);
+        newLine();
+        for (Node section = node.getFirstChild(); section != null; section = section.getNext()) {
+            locator.setLine(lineOf(section));
+            if (section instanceof TableCaption) {
+                blockTag();
+                sink.tableCaption(new SinkEventAttributeSet());
+                renderChildren(section);
+                blockTag();
+                sink.tableCaption_();
+            } else if (section instanceof TableHead || section instanceof TableBody) {
+                // the sections are unknown to the HTML parser
+                String tag = section instanceof TableHead ? "thead" : "tbody";
+                blockTag();
+                sink.unknown(tag, new Object[] {HtmlMarkup.TAG_TYPE_START}, new SinkEventAttributeSet());
+                for (Node row = section.getFirstChild(); row != null; row = row.getNext()) {
+                    if (row instanceof TableRow) {
+                        locator.setLine(lineOf(row));
+                        renderTableRow(row);
+                    }
+                }
+                blockTag();
+                sink.unknown(tag, new Object[] {HtmlMarkup.TAG_TYPE_END}, null);
+            }
+        }
+        line();
+        blockTag();
+        sink.tableRows_();
+        sink.table_();
+        newLine();
+    }
+
+    private void renderTableRow(Node row) throws ParseException {
+        blockTag();
+        sink.tableRow(new SinkEventAttributeSet());
+        for (Node cell = row.getFirstChild(); cell != null; cell = cell.getNext()) {
+            renderTableCell((TableCell) cell);
+        }
+        blockTag();
+        sink.tableRow_();
+    }
+
+    private void renderTableCell(TableCell cell) throws ParseException {
+        SinkEventAttributeSet atts = new SinkEventAttributeSet();
+        if (cell.getAlignment() != null) {
+            atts.addAttribute(SinkEventAttributes.ALIGN, cell.getAlignment().toString().toLowerCase(Locale.ROOT));
+        }
+        if (cell.getSpan() > 1) {
+            atts.addAttribute(SinkEventAttributes.COLSPAN, String.valueOf(cell.getSpan()));
+        }
+        blockTag();
+        if (cell.isHeader()) {
+            sink.tableHeaderCell(atts);
+        } else {
+            sink.tableCell(atts);
+        }
+        renderChildren(cell);
+        blockTag();
+        if (cell.isHeader()) {
+            sink.tableHeaderCell_();
+        } else {
+            sink.tableCell_();
+        }
+    }
+
+    private void renderInline(Node node) throws ParseException {
+        if (node instanceof HardLineBreak) {
+            blockTag();
+            sink.lineBreak(new SinkEventAttributeSet());
+            newLine();
+        } else if (node instanceof Emphasis) {
+            renderInline(node, SinkEventAttributeSet.Semantics.EMPHASIS);
+        } else if (node instanceof StrongEmphasis) {
+            renderInline(node, SinkEventAttributeSet.Semantics.STRONG);
+        } else if (node instanceof Strikethrough) {
+            renderInline(node, SinkEventAttributeSet.Semantics.DELETE);
+        } else if (node instanceof Code) {
+            inlineTag();
+            sink.inline(SinkEventAttributeSet.Semantics.CODE);
+            text.append(((Code) node).getText());
+            inlineTag();
+            sink.inline_();
+        } else if (node instanceof Link) {
+            Link link = (Link) node;
+            renderLink(link.getUrl().unescape(), link.getTitle(), node);
+        } else if (node instanceof LinkRef) {
+            Reference reference = ((LinkRef) node).getReferenceNode(document);
+            renderLink(reference.getUrl().unescape(), reference.getTitle(), node);
+        } else if (node instanceof AutoLink) {
+            renderLink(((AutoLink) node).getUrl().toString(), BasedSequence.NULL, node);
+        } else if (node instanceof MailLink) {
+            renderLink("mailto:" + ((MailLink) node).getText().unescape(), BasedSequence.NULL, node);
+        } else if (node instanceof Image) {
+            Image image = (Image) node;
+            renderImage(image.getUrl(), image.getTitle(), node);
+        } else if (node instanceof ImageRef) {
+            Reference reference = ((ImageRef) node).getReferenceNode(document);
+            renderImage(reference.getUrl(), reference.getTitle(), node);
+        } else if (node instanceof HtmlInlineComment) {
+            renderComment(node);
+        } else if (node instanceof TypographicQuotes) {
+            TypographicQuotes quotes = (TypographicQuotes) node;
+            // the quoted text continues the surrounding text
+            text.append(Escaping.unescapeString(quotes.getTypographicOpening()));
+            renderChildren(node);
+            text.append(Escaping.unescapeString(quotes.getTypographicClosing()));
+        }
+    }
+
+    private void renderInline(Node node, SinkEventAttributes semantics) throws ParseException {
+        inlineTag();
+        sink.inline(semantics);
+        renderChildren(node);
+        inlineTag();
+        sink.inline_();
+    }
+
+    private void renderLink(String url, BasedSequence title, Node node) throws ParseException {
+        String href = url;
+        String resolved = LINK_RESOLVER.resolveUrl(href);
+        if (resolved != null) {
+            href = resolved;
+        }
+        SinkEventAttributeSet atts = new SinkEventAttributeSet(SinkEventAttributes.HREF, href);
+        if (title.isNotNull() && !title.isEmpty()) {
+            atts.addAttribute(SinkEventAttributes.TITLE, title.unescape());
+        }
+        // same fragment encoding as the HTML parser, which leaves the href attribute as is
+        int hashIndex = href.indexOf('#');
+        if (hashIndex != -1 && !DoxiaUtils.isExternalLink(href)) {
+            String hash = href.substring(hashIndex + 1);
+            if (!DoxiaUtils.isValidId(hash)) {
+                href = href.substring(0, hashIndex) + "#" + DoxiaUtils.encodeId(hash);
+            }
+        }
+        inlineTag();
+        sink.link(href, atts);
+        if (node instanceof AutoLink || node instanceof MailLink) {
+            text.append(((DelimitedLinkNode) node).getText().unescape());
+        } else {
+            renderChildren(node);
+        }
+        inlineTag();
+        sink.link_();
+    }
+
+    private void renderImage(BasedSequence url, BasedSequence title, Node node) {
+        String src = url.unescape();
+        String alt = new TextCollectingVisitor().collectAndGetText(node);
+        SinkEventAttributeSet atts =
+                new SinkEventAttributeSet(SinkEventAttributes.SRC, src, SinkEventAttributes.ALT, alt);
+        if (title.isNotNull() && !title.isEmpty()) {
+            atts.addAttribute(SinkEventAttributes.TITLE, title.unescape());
+        }
+        inlineTag();
+        sink.figureGraphics(src, atts);
+    }
+
+    private void renderComment(Node node) throws ParseException {
+        flushText();
+        lineStart = false;
+        String comment = node.getChars().toString().trim();
+        // strip the comment markers
+        comment = comment.substring(4, comment.length() - 3);
+        if (macroHandler != null && comment.trim().startsWith("MACRO")) {
+            macroHandler.executeMacro(comment.trim(), sink);
+            return;
+        }
+        beginningOfLine = false;
+        if ("PB".equals(comment.trim())) {
+            sink.pageBreak();
+        } else if (emitComments) {
+            sink.comment(comment);
+        }
+    }
+
+    private static boolean isText(Node node) {
+        return node instanceof Text
+                || node instanceof EscapedCharacter
+                || node instanceof HtmlEntity
+                || node instanceof TypographicSmarts
+                || node instanceof SoftLineBreak;
+    }
+
+    private void appendText(Node node) {
+        if (node instanceof EscapedCharacter) {
+            text.append(((EscapedCharacter) node).getText());
+        } else if (node instanceof TypographicSmarts) {
+            text.append(Escaping.unescapeString(((TypographicSmarts) node).getTypographicText()));
+        } else if (node instanceof SoftLineBreak) {
+            text.append('\n');
+        } else {
+            text.append(node.getChars().unescape());
+        }
+        lineStart = false;
+    }
+
+    /**
+     * Ends the text preceding a block tag of the HTML rendering.
+     */
+    private void blockTag() {
+        flushText();
+        beginningOfLine = true;
+        lineStart = false;
+    }
+
+    /**
+     * Ends the text preceding an inline tag of the HTML rendering.
+     */
+    private void inlineTag() {
+        flushText();
+        beginningOfLine = false;
+        lineStart = false;
+    }
+
+    private void newLine() {
+        text.append('\n');
+        lineStart = true;
+    }
+
+    private void line() {
+        if (!lineStart) {
+            newLine();
+        }
+    }
+
+    /**
+     * Emits the text preceding a tag. The characters escaped in the HTML are parsed as entities, and emitted as
+     * separate text events.
+     */
+    private void flushText() {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '&' || c == '<' || c == '>' || c == '\u00A0') {
+                emitText(text.substring(start, i));
+                sink.text(String.valueOf(c));
+                start = i + 1;
+            }
+        }
+        emitText(text.substring(start));
+        text.setLength(0);
+    }
+
+    /**
+     * Emits text as {@code Xhtml5BaseParser.handleText()} does: outside verbatim blocks, the line breaks starting a
+     * line inside a block are emitted as markup line breaks and the whitespace is collapsed.
+     */
+    private void emitText(String data) {
+        if (!verbatim) {
+            if (beginningOfLine) {
+                int i = 0;
+                boolean newLine = false;
+                int indentLevel = 0;
+                for (; i < data.length() && Character.isWhitespace(data.charAt(i)); i++) {
+                    if (data.charAt(i) == '\n') {
+                        if (newLine) {
+                            sink.markupLineBreak(indentLevel);
+                        }
+                        indentLevel = 0;
+                        newLine = true;
+                    } else {
+                        indentLevel++;
+                    }
+                }
+                if (newLine) {
+                    sink.markupLineBreak(indentLevel);
+                }
+                data = LEADING_WHITESPACE.matcher(data).replaceFirst("");
+            }
+            data = WHITESPACE.matcher(data).replaceAll(" ");
+        }
+        if (!data.isEmpty()) {
+            sink.text(data);
+            beginningOfLine = false;
+        }
+    }
+
+    private static int[] indexLines(BasedSequence source) {
+        int[] starts = new int[64];
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    private int lineOf(Node node) {
+        int index = Arrays.binarySearch(lineStarts, node.getStartOffset());
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void closeSections(int level) {
+        while (sectionLevel > level) {
+            sink.section_(sectionLevel--);
+        }
+    }
+
+    /**
+     * Executes the macros found in HTML comments.
+     */
+    @FunctionalInterface
+    interface MacroHandler {
+        /**
+         * @param macro the comment text declaring the macro, starting with {@code MACRO}
+         * @param sink the sink receiving the macro output
+         * @throws ParseException if the macro cannot be executed
+         */
+        void executeMacro(String macro, Sink sink) throws ParseException;
+    }
+
+    /**
+     * Locator reporting the source line of the Markdown node being rendered.
+     */
+    private static class SourceLocator implements Locator {
+        private final String reference;
+
+        private final int lineOffset;
+
+        private int lineNumber;
+
+        SourceLocator(String reference, int lineOffset) {
+            this.reference = reference;
+            this.lineOffset = lineOffset;
+        }
+
+        /**
+         * @param line the 0-based line number within the parsed Markdown text
+         */
+        void setLine(int line) {
+            this.lineNumber = lineOffset + line + 1;
+        }
+
+        @Override
+        public String getReference() {
+            return reference;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return -1;
+        }
+    }
+}
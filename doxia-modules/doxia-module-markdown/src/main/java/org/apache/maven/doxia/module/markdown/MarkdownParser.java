@@ -51,12 +51,17 @@ import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.TextCollectingVisitor;
 import com.vladsch.flexmark.util.data.MutableDataSet;
 import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.markup.HtmlMarkup;
 import org.apache.maven.doxia.markup.TextMarkup;
 import org.apache.maven.doxia.module.xhtml5.Xhtml5Parser;
+import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.AbstractTextParser;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.util.DoxiaStringUtils;
 import org.apache.maven.doxia.util.HtmlTools;
 import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 import org.jsoup.Jsoup;
@@ -71,6 +76,11 @@ import org.jsoup.nodes.Document;
  * which generates HTML content then delegates parsing of this content to a slightly modified Doxia Xhtml5 parser.
  * (before 1.8, the <a href="http://pegdown.org">PegDown library</a> was used)
  * </p>
+ * <p>
+ * With {@link #setDirectRendering(boolean) direct rendering} the Sink events are emitted from the flexmark
+ * document tree, skipping the intermediate HTML, unless the document contains raw HTML or other constructs
+ * only supported by the HTML parser.
+ * </p>
  *
  * @author Vladimir Schneider
  * @author Julien Nicoulaud
@@ -104,6 +114,17 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
     private static final Pattern METADATA_ENTRY_PATTERN = Pattern.compile(
             "^([^:\\r\\n]+?)[ \\t]*:([\\S\\s]+?)(?=(?:^(?:[^:\\r\\n]+?)[ \\t]*:)|^[ \\t]*$)", Pattern.MULTILINE);
 
+    /**
+     * Regex that identifies the line closing a YAML front matter block, the same as Flexmark's YAML front matter
+     * extension uses
+     */
+    private static final Pattern FRONT_MATTER_END_PATTERN = Pattern.compile("(?:-{3}|\\.{3})(?:\\s.*)?");
+
+    /**
+     * Regex that identifies a blank line, which ends a multimarkdown-style metadata section
+     */
+    private static final Pattern BLANK_LINE_PATTERN = Pattern.compile("[ \\t]*\\r?");
+
     /**
      * The parser of the HTML produced by Flexmark, that we will
      * use to convert this HTML to Sink events
@@ -111,6 +132,11 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
     @Inject
     private MarkdownHtmlParser parser;
 
+    /**
+     * Whether to emit Sink events directly from the flexmark document tree when possible
+     */
+    private boolean directRendering;
+
     /**
      * Flexmark's Markdown parser (one static instance fits all)
      */
@@ -171,38 +197,155 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
 
     @Override
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        Sink wrappedSink = null;
         try {
-            // Markdown to HTML (using flexmark-java library)
-            String xhtml = toXhtml(source);
+            // Read the source and trim out the metadata
+            String text = IOUtils.toString(source);
+            Map<String, List<String>> metadata = new LinkedHashMap<>();
+            int metadataLength = processMetadata(text, metadata);
+
+            // Now is the time to parse the Markdown document (using flexmark-java library)
+            com.vladsch.flexmark.util.ast.Document documentRoot =
+                    FLEXMARK_PARSER.parse(text.substring(metadataLength));
+
+            if (directRendering && FlexmarkSinkRenderer.canRender(documentRoot)) {
+                int lineOffset = countLines(text, metadataLength);
+                FlexmarkSinkRenderer.MacroHandler macroHandler =
+                        isSecondParsing() ? null : (macro, macroSink) -> executeMacro(macro, macroSink, text);
+                wrappedSink = getWrappedSink(sink);
+                new FlexmarkSinkRenderer(wrappedSink, reference, lineOffset, isEmitComments(), macroHandler)
+                        .render(documentRoot, metadata);
+                completeMacros(wrappedSink);
+                return;
+            }
 
-            // TODO: add locator for the markdown source (not the intermediate HTML format)
-            // this requires writing a custom renderer not leveraging the XHTML parser
+            // Markdown to HTML, the locator refers to the intermediate HTML format
+            String xhtml = toXhtml(documentRoot, metadata);
 
             // then HTML to Sink API
             parser.setEmitComments(isEmitComments());
-            parser.parse(xhtml, getWrappedSink(sink), "Intermediate HTML from " + reference);
+            parser.setSecondParsing(isSecondParsing());
+            parser.setMacroExecutor(getMacroExecutor());
+            wrappedSink = getWrappedSink(sink);
+            parser.parse(xhtml, wrappedSink, "Intermediate HTML from " + reference);
+            completeMacros(wrappedSink);
         } catch (IOException e) {
             throw new ParseException("Failed reading Markdown source document", e);
+        } finally {
+            cancelMacros(wrappedSink);
+        }
+    }
+
+    @Override
+    protected void copyConfiguration(AbstractParser copy) {
+        super.copyConfiguration(copy);
+        ((MarkdownParser) copy).parser = (MarkdownHtmlParser) parser.copy();
+        ((MarkdownParser) copy).directRendering = directRendering;
+    }
+
+    @Override
+    public String getConfigurationFingerprint() {
+        return super.getConfigurationFingerprint() + ",directRendering=" + directRendering;
+    }
+
+    /**
+     * Emit Sink events directly from the flexmark document tree instead of parsing intermediate HTML.
+     * Documents containing raw HTML, footnotes, abbreviations or wiki links are still parsed through HTML.
+     * Both ways emit the same events, only the direct rendering provides locators for the Markdown source.
+     *
+     * @param directRendering {@code true} to render the flexmark document tree directly
+     * @since 2.1.1
+     */
+    public void setDirectRendering(boolean directRendering) {
+        this.directRendering = directRendering;
+    }
+
+    /**
+     * @return {@code true} if Sink events are emitted directly from the flexmark document tree when possible
+     * @since 2.1.1
+     */
+    public boolean isDirectRendering() {
+        return directRendering;
+    }
+
+    /**
+     * Executes a macro declared in an HTML comment, with the same syntax as supported by the XHTML5 parser.
+     *
+     * @param macro the comment text, starting with {@code MACRO}
+     * @param sink the sink receiving the macro output
+     * @param source the Markdown source, passed to the macro
+     * @throws ParseException if the macro is malformed, unknown or fails
+     */
+    private void executeMacro(String macro, Sink sink, String source) throws ParseException {
+        String s = macro.substring(macro.indexOf('{') + 1, macro.indexOf('}'));
+        // use some outrageously out-of-place chars for escaped separators, as in the XHTML5 parser
+        s = DoxiaStringUtils.replace(DoxiaStringUtils.replace(s, "\\=", "\u0011"), "\\|", "\u0012");
+        String[] params = DoxiaStringUtils.split(s, "|");
+        String macroName = params[0];
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 1; i < params.length; i++) {
+            String[] param = DoxiaStringUtils.split(params[i], "=");
+            if (param.length == 1) {
+                throw new ParseException("Missing 'key=value' pair for macro parameter: " + params[i]);
+            }
+            parameters.put(unescapeForMacro(param[0]), unescapeForMacro(param[1]));
+        }
+
+        // macros parsing the source again get a parser without macro execution
+        MacroRequest request = new MacroRequest(source, copy(), parameters, getBasedir());
+        try {
+            executeMacro(macroName, request, sink);
+        } catch (MacroExecutionException e) {
+            throw new ParseException("Unable to execute macro in the document: " + macroName, e);
+        } catch (MacroNotFoundException e) {
+            throw new ParseException("Macro not found: " + macroName, e);
+        }
+    }
+
+    private static String unescapeForMacro(String s) {
+        return DoxiaStringUtils.replace(DoxiaStringUtils.replace(s, "\u0011", "="), "\u0012", "|");
+    }
+
+    private static int countLines(String text, int end) {
+        int lines = 0;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
         }
+        return lines;
     }
 
-    private boolean processMetadataForHtml(StringBuilder html, StringBuilder source) {
-        final Map<String, List<String>> metadata;
+    /**
+     * Reads the metadata at the start of the source. Only the leading lines which may hold metadata are looked at,
+     * so the cost does not depend on the size of the document.
+     *
+     * @param source the Markdown source
+     * @param metadata the map receiving the metadata
+     * @return the length of the metadata section within the source, which is not part of the Markdown content
+     */
+    private int processMetadata(String source, Map<String, List<String>> metadata) {
         final int endOffset; // end of metadata within source
         // support two types of metadata:
-        if (source.toString().startsWith("---")) {
+        if (source.startsWith("---")) {
             // 1. YAML front matter (https://github.com/vsch/flexmark-java/wiki/Extensions#yaml-front-matter)
-            Node documentRoot = FLEXMARK_METADATA_PARSER.parse(source.toString());
+            // parse the front matter block only, or everything if it is not closed (as before)
+            int frontMatterEnd = findLine(source, FRONT_MATTER_END_PATTERN);
+            Node documentRoot = FLEXMARK_METADATA_PARSER.parse(
+                    frontMatterEnd < 0 ? source : source.substring(0, frontMatterEnd));
             YamlFrontMatterVisitor visitor = new YamlFrontMatterVisitor();
             visitor.visit(documentRoot);
-            metadata = visitor.getData();
+            metadata.putAll(visitor.getData());
             endOffset = visitor.getEndOffset();
         } else {
             // 2. Multimarkdown metadata (https://fletcher.github.io/MultiMarkdown-5/metadata.html), not yet supported
             // by Flexmark (https://github.com/vsch/flexmark-java/issues/550)
-            metadata = new LinkedHashMap<>();
-            Matcher metadataMatcher = METADATA_SECTION_PATTERN.matcher(source);
-            if (metadataMatcher.find()) {
+            // the section ends with the first blank line, don't let the lazy pattern run through the whole document
+            int blankLineEnd = findLine(source, BLANK_LINE_PATTERN);
+            Matcher metadataMatcher = METADATA_SECTION_PATTERN.matcher(
+                    blankLineEnd < 0 ? source : source.subSequence(0, blankLineEnd));
+            if (metadataMatcher.lookingAt()) {
                 String entry = metadataMatcher.group(0) + EOL;
                 Matcher entryMatcher = METADATA_ENTRY_PATTERN.matcher(entry);
                 while (entryMatcher.find()) {
@@ -215,11 +358,27 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
                 endOffset = 0;
             }
         }
-        if (endOffset > 0) {
-            // Trim the metadata from the source
-            source.delete(0, endOffset);
+        return endOffset;
+    }
+
+    /**
+     * Finds the first line which matches the given pattern, not considering the first line of the source.
+     *
+     * @param source the Markdown source
+     * @param pattern the pattern a whole line has to match, without its line feed
+     * @return the offset after the line feed of the matching line, or {@code -1} if no line matches
+     */
+    private static int findLine(String source, Pattern pattern) {
+        Matcher matcher = pattern.matcher(source);
+        int lineEnd = source.indexOf('\n');
+        while (lineEnd >= 0) {
+            int lineStart = lineEnd + 1;
+            lineEnd = source.indexOf('\n', lineStart);
+            if (matcher.region(lineStart, lineEnd < 0 ? source.length() : lineEnd).matches()) {
+                return lineEnd < 0 ? source.length() : lineEnd + 1;
+            }
         }
-        return writeHtmlMetadata(html, metadata);
+        return -1;
     }
 
     static String normalizeMultilineValue(String value) {
@@ -275,18 +434,23 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
      */
     String toXhtml(Reader source) throws IOException {
         // Read the source
-        StringBuilder markdownText = new StringBuilder(IOUtils.toString(source));
+        String markdownText = IOUtils.toString(source);
+
+        Map<String, List<String>> metadata = new LinkedHashMap<>();
+        int metadataLength = processMetadata(markdownText, metadata);
 
+        // Now is the time to parse the Markdown document
+        // (after we've trimmed out the metadatas, and before we check for its headings)
+        return toXhtml(FLEXMARK_PARSER.parse(markdownText.substring(metadataLength)), metadata);
+    }
+
+    private String toXhtml(Node documentRoot, Map<String, List<String>> metadata) {
         // Now, build the HTML document
         StringBuilder html = new StringBuilder(1000);
         html.append("<html>");
         html.append("<head>");
 
-        boolean haveTitle = processMetadataForHtml(html, markdownText);
-
-        // Now is the time to parse the Markdown document
-        // (after we've trimmed out the metadatas, and before we check for its headings)
-        Node documentRoot = FLEXMARK_PARSER.parse(markdownText.toString());
+        boolean haveTitle = writeHtmlMetadata(html, metadata);
 
         // Special trick: if there is no title specified as a metadata in the header, we will use the first
         // heading as the document title
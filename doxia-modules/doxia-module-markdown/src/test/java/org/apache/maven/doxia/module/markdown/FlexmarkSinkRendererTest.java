@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.module.markdown;
+
+import javax.inject.Inject;
+
+import java.io.StringReader;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.parser.cache.ParseCache;
+import org.apache.maven.doxia.parser.manager.ParserManager;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkEventElement;
+import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.apache.maven.doxia.parser.AbstractParserTest.assertSinkEquals;
+import static org.apache.maven.doxia.parser.AbstractParserTest.assertSinkStartsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FlexmarkSinkRenderer}, through {@link MarkdownParser#setDirectRendering(boolean)}.
+ */
+@PlexusTest
+class FlexmarkSinkRendererTest {
+
+    @Inject
+    private MarkdownParser markdownParser;
+
+    @Inject
+    private ParserManager parserManager;
+
+    private MarkdownParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = (MarkdownParser) markdownParser.copy();
+        parser.setDirectRendering(true);
+    }
+
+    private List<SinkEventElement> parse(String markdown) throws Exception {
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        parser.parse(markdown, sink);
+        return sink.getEventList();
+    }
+
+    @Test
+    void headingsAndParagraphs() throws Exception {
+        List<SinkEventElement> events = parse("# Heading 1\n\nSome *text*\nwrapped\n\n### Heading 3\n\nText 2");
+        Iterator<SinkEventElement> it = events.iterator();
+
+        assertSinkStartsWith(it, "head", "title");
+        assertSinkEquals(it.next(), "text", "Heading 1", null);
+        assertSinkStartsWith(it, "title_", "head_", "body", "section1", "sectionTitle1", "text", "sectionTitle1_");
+        assertSinkStartsWith(it, "paragraph", "text", "inline");
+        assertSinkEquals(it.next(), "text", "text", null);
+        assertSinkStartsWith(it, "inline_");
+        assertSinkEquals(it.next(), "text", " wrapped", null);
+        assertSinkStartsWith(it, "paragraph_", "section2", "section3", "sectionTitle3", "text", "sectionTitle3_");
+        assertSinkEquals(it, "paragraph", "text", "paragraph_", "section3_", "section2_", "section1_", "body_");
+    }
+
+    @Test
+    void locator() throws Exception {
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        parser.parse("---\ntitle: Title\n---\n\n# Heading\n\n* item\n\n```\ncode\n```\n", sink, "test.md");
+        for (SinkEventElement event : sink.getEventList()) {
+            if (event.getName().equals("sectionTitle1")) {
+                assertEquals(5, event.getLineNumber());
+            } else if (event.getName().equals("list")) {
+                assertEquals(7, event.getLineNumber());
+            } else if (event.getName().equals("verbatim")) {
+                assertEquals(9, event.getLineNumber());
+            }
+        }
+    }
+
+    @Test
+    void metadata() throws Exception {
+        Iterator<SinkEventElement> it =
+                parse("title: A Title\nauthor: Somebody\nkeywords: maven\n\nText").iterator();
+
+        assertSinkStartsWith(it, "head", "title");
+        assertSinkEquals(it.next(), "text", "A Title", null);
+        assertSinkStartsWith(it, "title_", "author");
+        assertSinkEquals(it.next(), "text", "Somebody", null);
+        assertSinkStartsWith(it, "author_");
+        SinkEventElement meta = it.next();
+        assertEquals("unknown", meta.getName());
+        SinkEventAttributeSet atts = (SinkEventAttributeSet) meta.getArgs()[2];
+        assertTrue(atts.containsAttribute(SinkEventAttributes.NAME, "keywords"));
+        assertTrue(atts.containsAttribute("content", "maven"));
+        assertSinkEquals(it, "head_", "body", "paragraph", "text", "paragraph_", "body_");
+    }
+
+    @Test
+    void codeBlocksListsAndLinks() throws Exception {
+        List<SinkEventElement> events = parse("```java\nint i;\n```\n\n1. [link](doc.md)\n2. ![alt](img.png)\n");
+        Iterator<SinkEventElement> it = events.iterator();
+
+        assertSinkStartsWith(it, "head", "head_", "body", "verbatim");
+        SinkEventElement inline = it.next();
+        SinkEventAttributeSet atts = (SinkEventAttributeSet) inline.getArgs()[0];
+        assertTrue(atts.containsAttribute(SinkEventAttributes.CLASS, "language-java"));
+        assertTrue(atts.containsAttribute(SinkEventAttributes.SEMANTICS, "code"));
+        assertSinkEquals(it.next(), "text", "int i;\n", null);
+        assertSinkStartsWith(it, "inline_", "verbatim_", "numberedList", "markupLineBreak", "numberedListItem");
+        assertEquals("doc.html", it.next().getArgs()[0]);
+        assertSinkStartsWith(it, "text", "link_", "numberedListItem_", "numberedListItem");
+        SinkEventElement image = it.next();
+        assertEquals("figureGraphics", image.getName());
+        assertEquals("img.png", image.getArgs()[0]);
+        assertSinkEquals(it, "numberedListItem_", "markupLineBreak", "numberedList_", "body_");
+    }
+
+    @Test
+    void table() throws Exception {
+        Iterator<SinkEventElement> it = parse("| A | B |\n|:--|--:|\n| 1 | 2 |\n").iterator();
+
+        assertSinkStartsWith(
+                it, "head", "head_", "body", "table", "tableRows", "markupLineBreak", "unknown", "tableRow");
+        SinkEventElement cell = it.next();
+        assertEquals("tableHeaderCell", cell.getName());
+        assertTrue(((SinkEventAttributeSet) cell.getArgs()[0]).containsAttribute(SinkEventAttributes.ALIGN, "left"));
+        assertSinkStartsWith(
+                it, "text", "tableHeaderCell_", "tableHeaderCell", "text", "tableHeaderCell_", "tableRow_");
+        assertSinkStartsWith(
+                it, "unknown", "unknown", "tableRow", "tableCell", "text", "tableCell_", "tableCell", "text");
+        assertSinkEquals(
+                it, "tableCell_", "tableRow_", "unknown", "markupLineBreak", "tableRows_", "table_", "body_");
+    }
+
+    @Test
+    void tocMacro() throws Exception {
+        Iterator<SinkEventElement> it =
+                parse("<!-- MACRO{toc} -->\n\n## One\n\n### Two\n").iterator();
+
+        assertSinkStartsWith(it, "head", "title", "text", "title_", "head_", "body", "list", "listItem", "link");
+        assertSinkStartsWith(it, "text", "link_", "list");
+        assertSinkStartsWith(it, "listItem", "link", "text", "link_", "listItem_", "list_", "listItem_", "list_");
+        assertSinkEquals(
+                it,
+                "text",
+                "section1",
+                "section2",
+                "sectionTitle2",
+                "text",
+                "sectionTitle2_",
+                "section3",
+                "sectionTitle3",
+                "text",
+                "sectionTitle3_",
+                "section3_",
+                "section2_",
+                "section1_",
+                "body_");
+    }
+
+    @Test
+    void fallbackForRawHtml() throws Exception {
+        List<SinkEventElement> direct = parse("Text\n\n<div>html</div>\n");
+        parser.setDirectRendering(false);
+        List<SinkEventElement> html = parse("Text\n\n<div>html</div>\n");
+
+        assertEquals(html, direct);
+        assertTrue(direct.stream().anyMatch(e -> e.getName().equals("division")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "code",
+                "comment-before-heading",
+                "comments",
+                "fenced-code-block",
+                "first-heading",
+                "flex-384",
+                "font-bold",
+                "font-italic",
+                "font-monospaced",
+                "headings",
+                "html",
+                "html-content",
+                "image",
+                "link",
+                "link_anchor_query",
+                "link_rewrite",
+                "list",
+                "macro-toc",
+                "macro-toc-DOXIA-559",
+                "metadata",
+                "metadata-yaml",
+                "numbered-list",
+                "paragraph",
+                "quote-vs-apostrophe",
+                "test"
+            })
+    void sameEventsAsHtmlRendering(String document) throws Exception {
+        String markdown;
+        try (InputStream in = getClass().getResourceAsStream("/" + document + ".md")) {
+            markdown = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        List<SinkEventElement> direct = parse(markdown);
+        parser.setDirectRendering(false);
+        List<SinkEventElement> html = parse(markdown);
+
+        assertEquals(html, direct);
+    }
+
+    @Test
+    void parseCacheKeyedByDirectRendering(@TempDir Path directory) throws Exception {
+        ParseCache cache = new ParseCache(parserManager, directory);
+        MarkdownParser managedParser = (MarkdownParser) parserManager.getParser("markdown");
+
+        cache.parse(new StringReader("Some *text*"), "markdown", new SinkEventTestingSink(), "test.md");
+        managedParser.setDirectRendering(!managedParser.isDirectRendering());
+        try {
+            cache.parse(new StringReader("Some *text*"), "markdown", new SinkEventTestingSink(), "test.md");
+        } finally {
+            managedParser.setDirectRendering(!managedParser.isDirectRendering());
+        }
+
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+}
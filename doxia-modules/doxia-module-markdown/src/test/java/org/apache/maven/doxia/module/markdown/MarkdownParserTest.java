@@ -518,6 +518,29 @@ class MarkdownParserTest extends AbstractParserTest {
         assertTrue(metaAtts.containsAttribute("content", "maven,doxia,markdown"));
     }
 
+    /**
+     * Metadata is only read from the leading block, later front matter markers or blank lines are Markdown content.
+     *
+     * @throws Exception if the event list is not correct when parsing the document
+     */
+    @Test
+    void metadataOnlyInLeadingBlock() throws Exception {
+        Iterator<SinkEventElement> it = parseSourceToEventTestingSink(
+                        "---\ntitle: Front\n---\nHeading\n---\n\n...\n\ntitle: text")
+                .getEventList()
+                .iterator();
+        assertSinkStartsWith(it, "head", "title", "text", "title_", "head_", "body", "section1", "section2");
+        assertSinkStartsWith(it, "sectionTitle2", "text", "sectionTitle2_");
+        assertSinkDoesNotContain(it, "title", "unknown");
+
+        List<SinkEventElement> eventList = parseSourceToEventTestingSink(
+                        "title: MultiMarkdown\nauthor: Somebody\n\nText\n\nkeywords: none\n")
+                .getEventList();
+        assertEquals("title", eventList.get(1).getName());
+        assertEquals("MultiMarkdown", eventList.get(2).getArgs()[0]);
+        assertEquals("Somebody", eventList.get(5).getArgs()[0]);
+    }
+
     /**
      * Assert the first header is passed as title event when parsing "first-heading.md".
      *
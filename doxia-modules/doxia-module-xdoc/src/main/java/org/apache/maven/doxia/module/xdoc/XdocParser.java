@@ -88,6 +88,12 @@ public class XdocParser extends Xhtml1BaseParser implements XdocMarkup {
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
         this.sourceContent = null;
 
+        if (isSourceReadable()) {
+            // the source is read again by the macros needing it
+            super.parse(source, sink, reference);
+            return;
+        }
+
         try (Reader reader = source) {
             StringWriter contentWriter = new StringWriter();
             IOUtils.copy(reader, contentWriter);
@@ -273,7 +279,8 @@ public class XdocParser extends Xhtml1BaseParser implements XdocMarkup {
 
     private void handleMacroEnd(Sink sink) throws MacroExecutionException {
         if (!isSecondParsing() && (macroName != null && !macroName.isEmpty())) {
-            MacroRequest request = new MacroRequest(sourceContent, new XdocParser(), macroParameters, getBasedir());
+            MacroRequest request = new MacroRequest(
+                    new XdocParser(), macroParameters, getBasedir(), getSourceContent(sourceContent));
 
             try {
                 executeMacro(macroName, request, sink);
@@ -23,8 +23,14 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
@@ -124,6 +130,35 @@ class XdocParserTest extends AbstractParserTest {
         assertFalse(content.contains("<a href=\"#Section_1211\">Section 1211</a>"));
     }
 
+    @Test
+    void lazySourceContent() throws Exception {
+        String document = "<document><body><macro name=\"echo\"/><macro name=\"toc\"/></body></document>";
+        AtomicInteger opened = new AtomicInteger();
+        List<String> contents = new ArrayList<>();
+        XdocParser recordingParser = (XdocParser) parser.copy();
+        recordingParser.setMacroExecutor((macroId, request, sink) -> {
+            if (macroId.equals("toc")) {
+                contents.add(request.getSourceContent());
+            }
+        });
+
+        // the source is opened once for parsing, and once more for the macro reading the source content
+        recordingParser.parse(
+                () -> {
+                    opened.incrementAndGet();
+                    return new StringReader(document);
+                },
+                new SinkEventTestingSink(),
+                null);
+        assertEquals(2, opened.get());
+        assertEquals(Collections.singletonList(document), contents);
+
+        // a reader cannot be opened again, so its content is kept for the macros
+        recordingParser.parse(new StringReader(document), new SinkEventTestingSink());
+        assertEquals(2, opened.get());
+        assertEquals(Arrays.asList(document, document), contents);
+    }
+
     private Iterator<SinkEventElement> parseText(String text) throws ParseException {
         SinkEventTestingSink sink = new SinkEventTestingSink();
 
@@ -132,6 +167,51 @@ class XdocParserTest extends AbstractParserTest {
         return sink.getEventList().iterator();
     }
 
+    @Test
+    void validateWithSchema() throws Exception {
+        XdocParser validatingParser = (XdocParser) parser.copy();
+        validatingParser.setValidate(true);
+
+        // the schema is compiled once, from the classpath
+        try (Reader reader = getTestReader("test")) {
+            validatingParser.parse(reader, new SinkEventTestingSink());
+        }
+        String invalid = "<document xmlns=\"http://maven.apache.org/XDOC/2.0\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                + " xsi:schemaLocation=\"http://maven.apache.org/XDOC/2.0 https://maven.apache.org/xsd/xdoc-2.0.xsd\">"
+                + "<body><unknown/></body></document>";
+        assertThrows(ParseException.class, () -> validatingParser.parse(invalid, new SinkEventTestingSink()));
+    }
+
+    @Test
+    void parallelValidation() throws Exception {
+        XdocParser validatingParser = (XdocParser) parser.copy();
+        validatingParser.setValidate(true);
+        SinkEventTestingSink expected = new SinkEventTestingSink();
+        try (Reader reader = getTestReader("test")) {
+            validatingParser.parse(reader, expected);
+        }
+
+        validatingParser.setParallelValidation(true);
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        try (Reader reader = getTestReader("test")) {
+            validatingParser.parse(reader, sink);
+        }
+        assertEquals(expected.getEventList(), sink.getEventList());
+
+        String invalid = "<document xmlns=\"http://maven.apache.org/XDOC/2.0\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                + " xsi:schemaLocation=\"http://maven.apache.org/XDOC/2.0 https://maven.apache.org/xsd/xdoc-2.0.xsd\">"
+                + "<body><unknown/></body></document>";
+        ParseException e =
+                assertThrows(ParseException.class, () -> validatingParser.parse(invalid, new SinkEventTestingSink()));
+        assertEquals("Error validating the model", e.getMessage());
+        // not well-formed: the validation error is reported, as without parallel validation
+        e = assertThrows(
+                ParseException.class, () -> validatingParser.parse(invalid + "</extra>", new SinkEventTestingSink()));
+        assertEquals("Error validating the model", e.getMessage());
+    }
+
     @Test
     void headEventsList() throws Exception {
         String text = "<document>"
@@ -20,7 +20,6 @@ package org.apache.maven.doxia.module.xhtml5;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.swing.text.html.HTML.Attribute;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -33,9 +32,11 @@ import org.apache.commons.io.IOUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.markup.HtmlTag;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Xhtml5BaseParser;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.util.DoxiaStringUtils;
 import org.codehaus.plexus.util.xml.pull.XmlPullParser;
@@ -68,16 +69,16 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
 
         SinkEventAttributeSet attribs = getAttributesFromParser(parser);
 
-        if (parser.getName().equals(HTML.toString())) {
+        if (parser.getName().equals(HtmlTag.HTML.toString())) {
             // Do nothing
             return;
-        } else if (parser.getName().equals(HEAD.toString())) {
+        } else if (parser.getName().equals(HtmlTag.HEAD.toString())) {
             sink.head(attribs);
-        } else if (parser.getName().equals(TITLE.toString())) {
+        } else if (parser.getName().equals(HtmlTag.TITLE.toString())) {
             sink.title(attribs);
-        } else if (parser.getName().equals(META.toString())) {
-            String name = parser.getAttributeValue(null, Attribute.NAME.toString());
-            String content = parser.getAttributeValue(null, Attribute.CONTENT.toString());
+        } else if (parser.getName().equals(HtmlTag.META.toString())) {
+            String name = parser.getAttributeValue(null, SinkEventAttributes.NAME);
+            String content = parser.getAttributeValue(null, "content");
 
             if ("author".equals(name)) {
                 sink.author(null);
@@ -100,12 +101,12 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
          * for a model or a major part of a model such as a form. This element
          *  often appears at the beginning or end of a model.
          */
-        else if (parser.getName().equals(ADDRESS.toString())) {
+        else if (parser.getName().equals(HtmlTag.ADDRESS.toString())) {
             sink.address(attribs);
-        } else if (parser.getName().equals(BODY.toString())) {
+        } else if (parser.getName().equals(HtmlTag.BODY.toString())) {
             sink.body(attribs);
-        } else if (parser.getName().equals(DIV.toString())) {
-            String divClass = parser.getAttributeValue(null, Attribute.CLASS.toString());
+        } else if (parser.getName().equals(HtmlTag.DIV.toString())) {
+            String divClass = parser.getAttributeValue(null, SinkEventAttributes.CLASS);
 
             if ("verbatim source".equals(divClass)) {
                 this.source = true;
@@ -123,7 +124,7 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
          * Non-visual user agents are not required to respect extra white space
          * in the content of a PRE element.
          */
-        else if (parser.getName().equals(PRE.toString())) {
+        else if (parser.getName().equals(HtmlTag.PRE.toString())) {
             if (source) {
                 attribs.addAttributes(SinkEventAttributeSet.SOURCE);
             }
@@ -148,20 +149,20 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
 
     protected void handleEndTag(XmlPullParser parser, Sink sink)
             throws XmlPullParserException, MacroExecutionException {
-        if (parser.getName().equals(HTML.toString())) {
+        if (parser.getName().equals(HtmlTag.HTML.toString())) {
             // Do nothing
             return;
-        } else if (parser.getName().equals(HEAD.toString())) {
+        } else if (parser.getName().equals(HtmlTag.HEAD.toString())) {
             sink.head_();
-        } else if (parser.getName().equals(TITLE.toString())) {
+        } else if (parser.getName().equals(HtmlTag.TITLE.toString())) {
             sink.title_();
-        } else if (parser.getName().equals(BODY.toString())) {
+        } else if (parser.getName().equals(HtmlTag.BODY.toString())) {
             emitHeadingSections(0, sink, false);
 
             sink.body_();
-        } else if (parser.getName().equals(ADDRESS.toString())) {
+        } else if (parser.getName().equals(HtmlTag.ADDRESS.toString())) {
             sink.address_();
-        } else if (parser.getName().equals(DIV.toString())) {
+        } else if (parser.getName().equals(HtmlTag.DIV.toString())) {
             this.source = false;
             baseEndTag(parser, sink);
         } else if (!baseEndTag(parser, sink)) {
@@ -203,7 +204,8 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
             parameters.put(key, value);
         }
 
-        MacroRequest request = new MacroRequest(sourceContent, new Xhtml5Parser(), parameters, getBasedir());
+        MacroRequest request =
+                new MacroRequest(new Xhtml5Parser(), parameters, getBasedir(), getSourceContent(sourceContent));
 
         try {
             executeMacro(macroName, request, sink);
@@ -267,6 +269,12 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
         this.sourceContent = null;
 
+        if (isSourceReadable()) {
+            // the source is read again by the macros needing it
+            super.parse(source, sink, reference);
+            return;
+        }
+
         try (Reader reader = source) {
             StringWriter contentWriter = new StringWriter();
             IOUtils.copy(reader, contentWriter);
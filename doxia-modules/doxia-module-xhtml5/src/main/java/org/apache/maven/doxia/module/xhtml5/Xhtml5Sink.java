@@ -167,7 +167,9 @@ public class Xhtml5Sink extends Xhtml5BaseSink implements Xhtml5Markup {
         if (getTextBuffer().length() > 0) {
             MutableAttributeSet att = new SinkEventAttributeSet();
             att.addAttribute(Attribute.NAME, "author");
-            String text = HtmlTools.escapeHTML(getTextBuffer().toString());
+            String text = getOutputCharset() != null
+                    ? escapeAttributeValue(getTextBuffer().toString())
+                    : HtmlTools.escapeHTML(getTextBuffer().toString());
             // hack: un-escape numerical entities that have been escaped above
             // note that numerical entities should really be added as one unicode character in the first place
             text = DoxiaStringUtils.replace(text, "&amp;#", "&#");
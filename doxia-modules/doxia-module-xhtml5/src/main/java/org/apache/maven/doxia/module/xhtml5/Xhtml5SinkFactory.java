@@ -21,7 +21,11 @@ package org.apache.maven.doxia.module.xhtml5;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.AbstractXmlSinkFactory;
@@ -40,4 +44,46 @@ public class Xhtml5SinkFactory extends AbstractXmlSinkFactory {
     protected Sink createSink(Writer writer, String encoding, String languageId) {
         return new Xhtml5Sink(writer, encoding, languageId);
     }
+
+    /**
+     * Create a <code>Sink</code> into a file using a specified encoding, optionally writing the characters the
+     * encoding can encode as is rather than as numeric character references.
+     *
+     * @param outputDir the not-null output dir.
+     * @param outputName the not-null output name.
+     * @param encoding the output encoding.
+     * @param nativeCharacters true to only escape the characters the encoding cannot encode
+     * @return a <code>Sink</code> instance with a file as output and using specified encoding.
+     * @throws java.io.IOException if any, notably if the encoding is not supported.
+     * @see org.apache.maven.doxia.sink.impl.Xhtml5BaseSink#setOutputCharset(Charset)
+     * @since 2.1.1
+     */
+    public Sink createSink(File outputDir, String outputName, String encoding, boolean nativeCharacters)
+            throws IOException {
+        return configure(createSink(outputDir, outputName, encoding), encoding, nativeCharacters);
+    }
+
+    /**
+     * Create a <code>Sink</code> into an OutputStream using a specified encoding, optionally writing the characters
+     * the encoding can encode as is rather than as numeric character references.
+     *
+     * @param out not null OutputStream to write the result.
+     * @param encoding the output encoding.
+     * @param nativeCharacters true to only escape the characters the encoding cannot encode
+     * @return a <code>Sink</code> instance using specified encoding.
+     * @throws java.io.IOException if any, notably if the encoding is not supported.
+     * @see org.apache.maven.doxia.sink.impl.Xhtml5BaseSink#setOutputCharset(Charset)
+     * @since 2.1.1
+     */
+    public Sink createSink(OutputStream out, String encoding, boolean nativeCharacters) throws IOException {
+        return configure(createSink(out, encoding), encoding, nativeCharacters);
+    }
+
+    private static Sink configure(Sink sink, String encoding, boolean nativeCharacters) {
+        if (nativeCharacters) {
+            // the writer of the sink was created for the encoding, which is thus a supported charset
+            ((Xhtml5Sink) sink).setOutputCharset(Charset.forName(encoding));
+        }
+        return sink;
+    }
 }
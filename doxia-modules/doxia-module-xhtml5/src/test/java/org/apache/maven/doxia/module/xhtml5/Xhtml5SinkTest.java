@@ -18,11 +18,14 @@
  */
 package org.apache.maven.doxia.module.xhtml5;
 
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 
 import org.apache.maven.doxia.markup.HtmlMarkup;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.AbstractSinkTest;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.util.HtmlTools;
@@ -30,6 +33,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.apache.maven.doxia.util.HtmlTools.escapeHTML;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class Xhtml5SinkTest extends AbstractSinkTest {
@@ -77,6 +81,50 @@ public class Xhtml5SinkTest extends AbstractSinkTest {
         assertTrue(actual.contains("<a href=\"index.html\"></a>"));
     }
 
+    /**
+     * Test the sinks of a factory writing native characters.
+     */
+    @Test
+    void nativeCharacters() throws Exception {
+        String text = "\u6587\u6863";
+        Xhtml5SinkFactory factory = new Xhtml5SinkFactory();
+
+        assertNativeCharacters(factory, "UTF-8", text, text);
+        // the characters the encoding cannot encode are still escaped
+        assertNativeCharacters(factory, "ISO-8859-1", text, "&#x6587;&#x6863;");
+        assertThrows(
+                UnsupportedEncodingException.class,
+                () -> factory.createSink(new ByteArrayOutputStream(), "no-such-encoding", true));
+    }
+
+    private static void assertNativeCharacters(
+            Xhtml5SinkFactory factory, String encoding, String text, String expected) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Sink sink = factory.createSink(out, encoding, true)) {
+            sink.head();
+            sink.title();
+            sink.text(text);
+            sink.title_();
+            sink.author();
+            sink.text(text);
+            sink.author_();
+            sink.head_();
+            sink.body();
+            sink.unknown(
+                    "div",
+                    new Object[] {HtmlMarkup.TAG_TYPE_START},
+                    new SinkEventAttributeSet(SinkEventAttributes.TITLE, text));
+            sink.text(text);
+            sink.unknown("div", new Object[] {HtmlMarkup.TAG_TYPE_END}, null);
+            sink.body_();
+        }
+        String html = new String(out.toByteArray(), encoding);
+
+        assertTrue(html.contains("<title>" + expected + "</title>"), html);
+        assertTrue(html.contains("content=\"" + expected + "\""), html);
+        assertTrue(html.contains("<div title=\"" + expected + "\">" + expected + "</div>"), html);
+    }
+
     protected String getTitleBlock(String title) {
         return "<title>" + title + "</title>";
     }